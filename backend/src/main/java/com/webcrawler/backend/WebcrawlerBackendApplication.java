@@ -1,6 +1,7 @@
 package com.webcrawler.backend;
 
 import com.webcrawler.backend.config.AppProperties;
+import com.webcrawler.backend.config.CrawlerProperties;
 import com.webcrawler.backend.config.JwtProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -9,7 +10,7 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableScheduling
-@EnableConfigurationProperties({JwtProperties.class, AppProperties.class})
+@EnableConfigurationProperties({JwtProperties.class, AppProperties.class, CrawlerProperties.class})
 public class WebcrawlerBackendApplication {
 
 	public static void main(String[] args) {
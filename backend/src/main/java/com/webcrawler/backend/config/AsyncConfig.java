@@ -3,6 +3,7 @@ package com.webcrawler.backend.config;
 import java.util.concurrent.Executor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -10,14 +11,28 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 @EnableAsync
 public class AsyncConfig {
 
+    private final CrawlerProperties crawlerProperties;
+
+    public AsyncConfig(CrawlerProperties crawlerProperties) {
+        this.crawlerProperties = crawlerProperties;
+    }
+
     @Bean(name = "crawlerExecutor")
     public Executor crawlerExecutor() {
+        CrawlerProperties.Worker worker = crawlerProperties.getWorker();
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setThreadNamePrefix("crawler-");
-        executor.setCorePoolSize(4);
-        executor.setMaxPoolSize(8);
-        executor.setQueueCapacity(100);
+        executor.setCorePoolSize(worker.getCorePoolSize());
+        executor.setMaxPoolSize(worker.getMaxPoolSize());
+        executor.setQueueCapacity(worker.getQueueCapacity());
         executor.initialize();
         return executor;
     }
+
+    @Bean(name = "crawlerVirtualExecutor")
+    public Executor crawlerVirtualExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("crawler-vt-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
 }
@@ -0,0 +1,970 @@
+package com.webcrawler.backend.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "crawler")
+public class CrawlerProperties {
+
+    private final Worker worker = new Worker();
+    private final Fetch fetch = new Fetch();
+    private final Politeness politeness = new Politeness();
+    private final Robots robots = new Robots();
+    private final Dns dns = new Dns();
+    private final Retry retry = new Retry();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private final Sitemaps sitemaps = new Sitemaps();
+    private final Dedup dedup = new Dedup();
+    private final Canonicalization canonicalization = new Canonicalization();
+    private final SeenUrls seenUrls = new SeenUrls();
+    private final Assignment assignment = new Assignment();
+    private final Lease lease = new Lease();
+    private final Sharding sharding = new Sharding();
+    private final Frontier frontier = new Frontier();
+
+    public Worker getWorker() {
+        return worker;
+    }
+
+    public Fetch getFetch() {
+        return fetch;
+    }
+
+    public Politeness getPoliteness() {
+        return politeness;
+    }
+
+    public Robots getRobots() {
+        return robots;
+    }
+
+    public Dns getDns() {
+        return dns;
+    }
+
+    public Retry getRetry() {
+        return retry;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public Sitemaps getSitemaps() {
+        return sitemaps;
+    }
+
+    public Dedup getDedup() {
+        return dedup;
+    }
+
+    public Canonicalization getCanonicalization() {
+        return canonicalization;
+    }
+
+    public SeenUrls getSeenUrls() {
+        return seenUrls;
+    }
+
+    public Assignment getAssignment() {
+        return assignment;
+    }
+
+    public Lease getLease() {
+        return lease;
+    }
+
+    public Sharding getSharding() {
+        return sharding;
+    }
+
+    public Frontier getFrontier() {
+        return frontier;
+    }
+
+    public enum WorkerMode {
+        /** Fetch assigned tasks one after another on the scheduler thread. */
+        SEQUENTIAL,
+        /** Fetch assigned tasks with non-blocking requests, bounded by {@code maxInFlight}. */
+        ASYNC,
+        /** Run each assigned task on its own virtual thread, bounded by {@code maxInFlight}. */
+        VIRTUAL_THREADS,
+        /** Run assigned tasks on the {@code crawlerExecutor} platform thread pool. */
+        PLATFORM_POOL
+    }
+
+    public enum ClaimMode {
+        /** The leader hands pending tasks to active nodes round-robin. */
+        LEADER,
+        /** Each node claims pending tasks for itself with {@code SELECT ... FOR UPDATE SKIP LOCKED}. */
+        SKIP_LOCKED,
+        /** Each node claims pending tasks with a conditional update, for databases without {@code SKIP LOCKED}. */
+        CONDITIONAL_UPDATE
+    }
+
+    public enum FrontierOrdering {
+        /** Shallower pages first. */
+        BREADTH_FIRST,
+        /** Pages with the most link credit first: each fetched page splits its credit among its links (OPIC). */
+        OPIC
+    }
+
+    public enum HtmlParser {
+        /** Single-pass tokenizer that extracts the title and links without building a DOM. */
+        STREAMING,
+        /** Full Jsoup DOM parse. */
+        JSOUP
+    }
+
+    public static class Worker {
+
+        /** How a node executes the tasks assigned to it. */
+        private WorkerMode mode = WorkerMode.SEQUENTIAL;
+
+        /** Maximum number of fetches a node keeps in flight at once. */
+        private int maxInFlight = 256;
+
+        /** How often a node polls for assigned tasks, including ones left waiting on their host. */
+        private Duration pollInterval = Duration.ofSeconds(1);
+
+        /** How pending tasks reach a node: pushed by the leader or claimed by the node itself. */
+        private ClaimMode claimMode = ClaimMode.LEADER;
+
+        /** Maximum number of tasks a node claims per poll when it claims tasks itself. */
+        private int claimBatchSize = 50;
+
+        /** Core size of the platform thread pool used in {@code PLATFORM_POOL} mode. */
+        private int corePoolSize = 4;
+
+        /** Maximum size of the platform thread pool used in {@code PLATFORM_POOL} mode. */
+        private int maxPoolSize = 8;
+
+        /** Queue capacity of the platform thread pool used in {@code PLATFORM_POOL} mode. */
+        private int queueCapacity = 100;
+
+        public WorkerMode getMode() {
+            return mode;
+        }
+
+        public void setMode(WorkerMode mode) {
+            this.mode = mode;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public ClaimMode getClaimMode() {
+            return claimMode;
+        }
+
+        public void setClaimMode(ClaimMode claimMode) {
+            this.claimMode = claimMode;
+        }
+
+        public int getClaimBatchSize() {
+            return claimBatchSize;
+        }
+
+        public void setClaimBatchSize(int claimBatchSize) {
+            this.claimBatchSize = claimBatchSize;
+        }
+
+        public int getCorePoolSize() {
+            return corePoolSize;
+        }
+
+        public void setCorePoolSize(int corePoolSize) {
+            this.corePoolSize = corePoolSize;
+        }
+
+        public int getMaxPoolSize() {
+            return maxPoolSize;
+        }
+
+        public void setMaxPoolSize(int maxPoolSize) {
+            this.maxPoolSize = maxPoolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    public static class Fetch {
+
+        /** Timeout for establishing a connection to a host. */
+        private Duration connectTimeout = Duration.ofSeconds(10);
+
+        /** Timeout for a single page request; the starting point for hosts without latency history. */
+        private Duration requestTimeout = Duration.ofSeconds(15);
+
+        /** Whether each host's request timeout is derived from its recent response times. */
+        private boolean adaptiveTimeouts = true;
+
+        /** Lower bound of an adaptive request timeout. */
+        private Duration minRequestTimeout = Duration.ofSeconds(2);
+
+        /** Upper bound of an adaptive request timeout. */
+        private Duration maxRequestTimeout = Duration.ofSeconds(30);
+
+        /** Latency percentile an adaptive timeout is based on. */
+        private double timeoutPercentile = 0.99;
+
+        /** Factor applied to the percentile latency to get the timeout. */
+        private double timeoutMultiplier = 3.0;
+
+        /** Responses a host must have returned before its own latency is used. */
+        private int latencyMinSamples = 20;
+
+        /** Responses per histogram window; a host's timeout reflects its last two windows. */
+        private int latencyWindow = 256;
+
+        /** User-Agent sent with every request; its product token selects the robots.txt group. */
+        private String userAgent = "WebCrawlerBot/1.0";
+
+        /** Bodies are read up to this size and cut off beyond it. */
+        private DataSize maxBodySize = DataSize.ofMegabytes(2);
+
+        /** Whether HTTP/2 is negotiated with HTTPS hosts that offer it; plain HTTP always uses HTTP/1.1. */
+        private boolean preferHttp2 = true;
+
+        /** How fetched pages are parsed; the streaming parser falls back to Jsoup if it fails. */
+        private HtmlParser parser = HtmlParser.STREAMING;
+
+        /** Whether gzip and deflate transfer compression is requested from servers. */
+        private boolean compression = true;
+
+        /** Media types whose bodies are downloaded and parsed; other responses are aborted. */
+        private List<String> acceptedContentTypes = List.of("text/html", "application/xhtml+xml");
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getRequestTimeout() {
+            return requestTimeout;
+        }
+
+        public void setRequestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+        }
+
+        public boolean isAdaptiveTimeouts() {
+            return adaptiveTimeouts;
+        }
+
+        public void setAdaptiveTimeouts(boolean adaptiveTimeouts) {
+            this.adaptiveTimeouts = adaptiveTimeouts;
+        }
+
+        public Duration getMinRequestTimeout() {
+            return minRequestTimeout;
+        }
+
+        public void setMinRequestTimeout(Duration minRequestTimeout) {
+            this.minRequestTimeout = minRequestTimeout;
+        }
+
+        public Duration getMaxRequestTimeout() {
+            return maxRequestTimeout;
+        }
+
+        public void setMaxRequestTimeout(Duration maxRequestTimeout) {
+            this.maxRequestTimeout = maxRequestTimeout;
+        }
+
+        public double getTimeoutPercentile() {
+            return timeoutPercentile;
+        }
+
+        public void setTimeoutPercentile(double timeoutPercentile) {
+            this.timeoutPercentile = timeoutPercentile;
+        }
+
+        public double getTimeoutMultiplier() {
+            return timeoutMultiplier;
+        }
+
+        public void setTimeoutMultiplier(double timeoutMultiplier) {
+            this.timeoutMultiplier = timeoutMultiplier;
+        }
+
+        public int getLatencyMinSamples() {
+            return latencyMinSamples;
+        }
+
+        public void setLatencyMinSamples(int latencyMinSamples) {
+            this.latencyMinSamples = latencyMinSamples;
+        }
+
+        public int getLatencyWindow() {
+            return latencyWindow;
+        }
+
+        public void setLatencyWindow(int latencyWindow) {
+            this.latencyWindow = latencyWindow;
+        }
+
+        public String getUserAgent() {
+            return userAgent;
+        }
+
+        public void setUserAgent(String userAgent) {
+            this.userAgent = userAgent;
+        }
+
+        public DataSize getMaxBodySize() {
+            return maxBodySize;
+        }
+
+        public void setMaxBodySize(DataSize maxBodySize) {
+            this.maxBodySize = maxBodySize;
+        }
+
+        public boolean isPreferHttp2() {
+            return preferHttp2;
+        }
+
+        public void setPreferHttp2(boolean preferHttp2) {
+            this.preferHttp2 = preferHttp2;
+        }
+
+        public HtmlParser getParser() {
+            return parser;
+        }
+
+        public void setParser(HtmlParser parser) {
+            this.parser = parser;
+        }
+
+        public boolean isCompression() {
+            return compression;
+        }
+
+        public void setCompression(boolean compression) {
+            this.compression = compression;
+        }
+
+        public List<String> getAcceptedContentTypes() {
+            return acceptedContentTypes;
+        }
+
+        public void setAcceptedContentTypes(List<String> acceptedContentTypes) {
+            this.acceptedContentTypes = acceptedContentTypes;
+        }
+    }
+
+    public static class Politeness {
+
+        /** Minimum delay between two requests to the same host. */
+        private Duration minDelay = Duration.ofSeconds(1);
+
+        /** Maximum number of concurrent requests a node sends to the same host. */
+        private int maxConnectionsPerHost = 2;
+
+        /** Number of requests a host may receive back to back after being idle. */
+        private int burst = 1;
+
+        /** How long an idle host is remembered before its state is dropped. */
+        private Duration idleEviction = Duration.ofMinutes(10);
+
+        public Duration getMinDelay() {
+            return minDelay;
+        }
+
+        public void setMinDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+        }
+
+        public int getMaxConnectionsPerHost() {
+            return maxConnectionsPerHost;
+        }
+
+        public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+            this.maxConnectionsPerHost = maxConnectionsPerHost;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public Duration getIdleEviction() {
+            return idleEviction;
+        }
+
+        public void setIdleEviction(Duration idleEviction) {
+            this.idleEviction = idleEviction;
+        }
+    }
+
+    public static class Robots {
+
+        /** Whether robots.txt is fetched and obeyed. */
+        private boolean enabled = true;
+
+        /** How long a fetched robots.txt is trusted before it is fetched again. */
+        private Duration cacheTtl = Duration.ofHours(24);
+
+        /** How long a failed robots.txt fetch is remembered before it is retried; the origin's pages wait that long. */
+        private Duration errorTtl = Duration.ofMinutes(1);
+
+        /** Maximum number of hosts whose rules are kept in memory; least recently used go first. */
+        private int cacheSize = 10000;
+
+        /** Timeout for fetching a robots.txt file. */
+        private Duration timeout = Duration.ofSeconds(5);
+
+        /** Bytes of a robots.txt that are read; RFC 9309 lets crawlers ignore what follows 500 KiB. */
+        private DataSize maxSize = DataSize.ofKilobytes(500);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getCacheTtl() {
+            return cacheTtl;
+        }
+
+        public void setCacheTtl(Duration cacheTtl) {
+            this.cacheTtl = cacheTtl;
+        }
+
+        public Duration getErrorTtl() {
+            return errorTtl;
+        }
+
+        public void setErrorTtl(Duration errorTtl) {
+            this.errorTtl = errorTtl;
+        }
+
+        public int getCacheSize() {
+            return cacheSize;
+        }
+
+        public void setCacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public DataSize getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    public static class Dns {
+
+        /** How long a resolved host name is reused before it is looked up again, whatever the record TTL; at most an hour. */
+        private Duration cacheTtl = Duration.ofMinutes(5);
+
+        /** How long a failed lookup is remembered before it is retried. */
+        private Duration negativeTtl = Duration.ofSeconds(30);
+
+        /** Maximum number of host names kept; least recently used go first. */
+        private int cacheSize = 10000;
+
+        public Duration getCacheTtl() {
+            return cacheTtl;
+        }
+
+        public void setCacheTtl(Duration cacheTtl) {
+            this.cacheTtl = cacheTtl;
+        }
+
+        public Duration getNegativeTtl() {
+            return negativeTtl;
+        }
+
+        public void setNegativeTtl(Duration negativeTtl) {
+            this.negativeTtl = negativeTtl;
+        }
+
+        public int getCacheSize() {
+            return cacheSize;
+        }
+
+        public void setCacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+    }
+
+    public static class Retry {
+
+        /** Fetch attempts a task gets for transient failures before it is given up on. */
+        private int maxAttempts = 3;
+
+        /** Delay before the first retry; doubled for each further attempt. */
+        private Duration initialBackoff = Duration.ofSeconds(5);
+
+        /** Upper bound of the retry delay, including delays requested with Retry-After. */
+        private Duration maxBackoff = Duration.ofMinutes(10);
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+    }
+
+    public static class CircuitBreaker {
+
+        /** Consecutive transient failures after which a host's circuit opens. */
+        private int failureThreshold = 5;
+
+        /** How long a host is left alone after its circuit first opens. */
+        private Duration openDuration = Duration.ofMinutes(1);
+
+        /** Upper bound of the open period, which doubles each time a probe fails. */
+        private Duration maxOpenDuration = Duration.ofMinutes(30);
+
+        public int getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        public void setFailureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        public Duration getMaxOpenDuration() {
+            return maxOpenDuration;
+        }
+
+        public void setMaxOpenDuration(Duration maxOpenDuration) {
+            this.maxOpenDuration = maxOpenDuration;
+        }
+    }
+
+    public static class Sitemaps {
+
+        /** Maximum number of sitemap files, including index files, read for one job. */
+        private int maxFiles = 50;
+
+        /** Number of discovered URLs inserted as tasks per batch. */
+        private int batchSize = 500;
+
+        /** Timeout for fetching a single sitemap file. */
+        private Duration timeout = Duration.ofSeconds(30);
+
+        /**
+         * Time a job's sitemap ingestion may take. It stops queueing URLs after this, and the leader
+         * releases the job from an ingestion that has not finished one {@code timeout} later.
+         */
+        private Duration maxDuration = Duration.ofMinutes(10);
+
+        public int getMaxFiles() {
+            return maxFiles;
+        }
+
+        public void setMaxFiles(int maxFiles) {
+            this.maxFiles = maxFiles;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public Duration getMaxDuration() {
+            return maxDuration;
+        }
+
+        public void setMaxDuration(Duration maxDuration) {
+            this.maxDuration = maxDuration;
+        }
+    }
+
+    public static class Dedup {
+
+        /** SimHash bit distance up to which pages count as near duplicates (at most 3); 0 turns it off. */
+        private int nearDuplicateDistance = 3;
+
+        /** Fingerprints kept per job in the near-duplicate index; later pages are checked but not added. */
+        private int maxPagesPerJob = 500000;
+
+        /** Jobs whose near-duplicate index is kept in memory; least recently used go first. */
+        private int maxJobs = 16;
+
+        public int getNearDuplicateDistance() {
+            return nearDuplicateDistance;
+        }
+
+        public void setNearDuplicateDistance(int nearDuplicateDistance) {
+            this.nearDuplicateDistance = nearDuplicateDistance;
+        }
+
+        public int getMaxPagesPerJob() {
+            return maxPagesPerJob;
+        }
+
+        public void setMaxPagesPerJob(int maxPagesPerJob) {
+            this.maxPagesPerJob = maxPagesPerJob;
+        }
+
+        public int getMaxJobs() {
+            return maxJobs;
+        }
+
+        public void setMaxJobs(int maxJobs) {
+            this.maxJobs = maxJobs;
+        }
+    }
+
+    public static class Canonicalization {
+
+        /** Whether the {@code #fragment} is dropped; it never reaches the server. */
+        private boolean stripFragment = true;
+
+        /** Whether the host is lowercased; the scheme always is. */
+        private boolean lowercaseHost = true;
+
+        /** Whether {@code :80} on http and {@code :443} on https URLs are dropped. */
+        private boolean removeDefaultPort = true;
+
+        /** Whether percent-escapes are uppercased, unreserved characters decoded and illegal ones encoded. */
+        private boolean normalizeEncoding = true;
+
+        /** Whether query parameters are sorted by name; repeated names keep their relative order. */
+        private boolean sortQuery = true;
+
+        /** Query and path parameters that are dropped, compared case-insensitively; a trailing {@code *} matches a prefix. */
+        private List<String> removeParameters = List.of(
+            "utm_*", "gclid", "dclid", "fbclid", "msclkid", "mc_cid", "mc_eid", "_ga",
+            "jsessionid", "phpsessid", "aspsessionid", "cfid", "cftoken"
+        );
+
+        public boolean isStripFragment() {
+            return stripFragment;
+        }
+
+        public void setStripFragment(boolean stripFragment) {
+            this.stripFragment = stripFragment;
+        }
+
+        public boolean isLowercaseHost() {
+            return lowercaseHost;
+        }
+
+        public void setLowercaseHost(boolean lowercaseHost) {
+            this.lowercaseHost = lowercaseHost;
+        }
+
+        public boolean isRemoveDefaultPort() {
+            return removeDefaultPort;
+        }
+
+        public void setRemoveDefaultPort(boolean removeDefaultPort) {
+            this.removeDefaultPort = removeDefaultPort;
+        }
+
+        public boolean isNormalizeEncoding() {
+            return normalizeEncoding;
+        }
+
+        public void setNormalizeEncoding(boolean normalizeEncoding) {
+            this.normalizeEncoding = normalizeEncoding;
+        }
+
+        public boolean isSortQuery() {
+            return sortQuery;
+        }
+
+        public void setSortQuery(boolean sortQuery) {
+            this.sortQuery = sortQuery;
+        }
+
+        public List<String> getRemoveParameters() {
+            return removeParameters;
+        }
+
+        public void setRemoveParameters(List<String> removeParameters) {
+            this.removeParameters = removeParameters;
+        }
+    }
+
+    public static class SeenUrls {
+
+        /** Jobs whose seen-URL filter is kept in memory; least recently used go first. */
+        private int maxJobs = 16;
+
+        /** Upper bound on the URLs a job's Bloom filter is sized for; smaller jobs get smaller filters. */
+        private int bloomCapacity = 5_000_000;
+
+        /** Target false positive rate of the Bloom filter at capacity. */
+        private double falsePositiveRate = 0.01;
+
+        /** URL fingerprints kept exactly per job; beyond this only the Bloom filter records new URLs. */
+        private int exactCapacity = 1_000_000;
+
+        public int getMaxJobs() {
+            return maxJobs;
+        }
+
+        public void setMaxJobs(int maxJobs) {
+            this.maxJobs = maxJobs;
+        }
+
+        public int getBloomCapacity() {
+            return bloomCapacity;
+        }
+
+        public void setBloomCapacity(int bloomCapacity) {
+            this.bloomCapacity = bloomCapacity;
+        }
+
+        public double getFalsePositiveRate() {
+            return falsePositiveRate;
+        }
+
+        public void setFalsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+        }
+
+        public int getExactCapacity() {
+            return exactCapacity;
+        }
+
+        public void setExactCapacity(int exactCapacity) {
+            this.exactCapacity = exactCapacity;
+        }
+    }
+
+    public static class Assignment {
+
+        /** Maximum number of tasks the leader hands out per assignment round. */
+        private int batchSize = 200;
+
+        /**
+         * How much work, in seconds of its recent throughput, a node that is already behind may
+         * have waiting. Keeps slow nodes from piling up tasks that faster nodes could run.
+         */
+        private Duration backlogHorizon = Duration.ofSeconds(10);
+
+        /** Nodes reporting less free heap than this are given no new tasks. */
+        private DataSize minFreeHeap = DataSize.ofMegabytes(64);
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getBacklogHorizon() {
+            return backlogHorizon;
+        }
+
+        public void setBacklogHorizon(Duration backlogHorizon) {
+            this.backlogHorizon = backlogHorizon;
+        }
+
+        public DataSize getMinFreeHeap() {
+            return minFreeHeap;
+        }
+
+        public void setMinFreeHeap(DataSize minFreeHeap) {
+            this.minFreeHeap = minFreeHeap;
+        }
+    }
+
+    public static class Lease {
+
+        /** How long an assigned task stays with its node without the node renewing the lease. */
+        private Duration duration = Duration.ofSeconds(60);
+
+        /** How often a node renews the leases of the tasks it holds; well below {@code duration}. */
+        private Duration renewInterval = Duration.ofSeconds(15);
+
+        /** How often the leader returns tasks with expired leases to the queue. */
+        private Duration reapInterval = Duration.ofSeconds(15);
+
+        /** Maximum number of expired tasks returned to the queue per round. */
+        private int reapBatchSize = 500;
+
+        public Duration getDuration() {
+            return duration;
+        }
+
+        public void setDuration(Duration duration) {
+            this.duration = duration;
+        }
+
+        public Duration getRenewInterval() {
+            return renewInterval;
+        }
+
+        public void setRenewInterval(Duration renewInterval) {
+            this.renewInterval = renewInterval;
+        }
+
+        public Duration getReapInterval() {
+            return reapInterval;
+        }
+
+        public void setReapInterval(Duration reapInterval) {
+            this.reapInterval = reapInterval;
+        }
+
+        public int getReapBatchSize() {
+            return reapBatchSize;
+        }
+
+        public void setReapBatchSize(int reapBatchSize) {
+            this.reapBatchSize = reapBatchSize;
+        }
+    }
+
+    public static class Sharding {
+
+        /** Whether each host's tasks go only to the node that owns the host on the hash ring. */
+        private boolean enabled = true;
+
+        /** Points per node on the hash ring; more points spread hosts more evenly. */
+        private int virtualNodes = 128;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getVirtualNodes() {
+            return virtualNodes;
+        }
+
+        public void setVirtualNodes(int virtualNodes) {
+            this.virtualNodes = virtualNodes;
+        }
+    }
+
+    public static class Frontier {
+
+        /** Order in which pending tasks are claimed. */
+        private FrontierOrdering ordering = FrontierOrdering.BREADTH_FIRST;
+
+        /** Added to the priority of URLs matching a pattern; one depth level counts as 1 when breadth-first. */
+        private List<Boost> boosts = new ArrayList<>();
+
+        public FrontierOrdering getOrdering() {
+            return ordering;
+        }
+
+        public void setOrdering(FrontierOrdering ordering) {
+            this.ordering = ordering;
+        }
+
+        public List<Boost> getBoosts() {
+            return boosts;
+        }
+
+        public void setBoosts(List<Boost> boosts) {
+            this.boosts = boosts;
+        }
+    }
+
+    public static class Boost {
+
+        /** Regular expression found anywhere in the URL. */
+        private String pattern;
+
+        /** Priority added to matching URLs; negative to push them back. */
+        private double weight;
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+
+        public void setWeight(double weight) {
+            this.weight = weight;
+        }
+    }
+}
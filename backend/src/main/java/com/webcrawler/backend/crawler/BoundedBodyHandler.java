@@ -0,0 +1,200 @@
+package com.webcrawler.backend.crawler;
+
+import java.io.ByteArrayOutputStream;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Reads a page body only if the headers say it is worth reading. Responses whose
+ * {@code Content-Type} is not an accepted markup type, or whose declared length exceeds the
+ * ceiling, are aborted before any body bytes are consumed. Everything else is read until the
+ * ceiling and cut off there, so no single fetch can hold more than {@code maxBytes} on the heap.
+ * The ceiling applies to the bytes on the wire; compressed bodies are decoded later, while parsing.
+ */
+public class BoundedBodyHandler implements HttpResponse.BodyHandler<FetchedBody> {
+
+    /** Encodings the fetcher advertises in {@code Accept-Encoding} and can decode. */
+    public static final List<String> SUPPORTED_ENCODINGS = List.of("gzip", "x-gzip", "deflate");
+
+    private final long maxBytes;
+    private final List<String> acceptedContentTypes;
+
+    public BoundedBodyHandler(long maxBytes, List<String> acceptedContentTypes) {
+        this.maxBytes = maxBytes;
+        this.acceptedContentTypes = acceptedContentTypes;
+    }
+
+    @Override
+    public HttpResponse.BodySubscriber<FetchedBody> apply(HttpResponse.ResponseInfo info) {
+        if (info.statusCode() == 304) {
+            return new SkippingSubscriber(null);
+        }
+        HttpHeaders headers = info.headers();
+        String contentType = headers.firstValue("Content-Type").orElse(null);
+        if (contentType != null && !isAccepted(contentType)) {
+            return new SkippingSubscriber("Skipped content type " + mediaType(contentType));
+        }
+        long declaredLength = headers.firstValueAsLong("Content-Length").orElse(-1);
+        if (declaredLength > maxBytes) {
+            return new SkippingSubscriber("Skipped body of " + declaredLength + " bytes");
+        }
+        String contentEncoding = headers.firstValue("Content-Encoding")
+            .map(value -> value.trim().toLowerCase(Locale.ROOT))
+            .filter(value -> !value.isEmpty() && !value.equals("identity"))
+            .orElse(null);
+        if (contentEncoding != null && !SUPPORTED_ENCODINGS.contains(contentEncoding)) {
+            return new SkippingSubscriber("Skipped content encoding " + contentEncoding);
+        }
+        return new BoundedSubscriber(maxBytes, charsetOf(contentType), contentEncoding);
+    }
+
+    /**
+     * Reads any body up to {@code maxBytes} and cuts it off there, whatever its headers say; for
+     * resources such as robots.txt whose beginning is still useful when the rest is dropped.
+     */
+    public static HttpResponse.BodySubscriber<FetchedBody> truncating(long maxBytes) {
+        return new BoundedSubscriber(maxBytes, null, null);
+    }
+
+    private boolean isAccepted(String contentType) {
+        String mediaType = mediaType(contentType);
+        return acceptedContentTypes.stream().anyMatch(mediaType::equals);
+    }
+
+    private static String mediaType(String contentType) {
+        int separator = contentType.indexOf(';');
+        String mediaType = separator >= 0 ? contentType.substring(0, separator) : contentType;
+        return mediaType.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Charset charsetOf(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        for (String parameter : contentType.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.regionMatches(true, 0, "charset=", 0, 8)) {
+                String name = trimmed.substring(8).replace("\"", "").trim();
+                try {
+                    return Charset.forName(name);
+                } catch (IllegalArgumentException ex) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cancels the subscription as soon as it is offered, which makes the client abandon the body
+     * instead of draining it.
+     */
+    private static final class SkippingSubscriber implements HttpResponse.BodySubscriber<FetchedBody> {
+
+        private final CompletableFuture<FetchedBody> body = new CompletableFuture<>();
+        private final String reason;
+
+        SkippingSubscriber(String reason) {
+            this.reason = reason;
+        }
+
+        @Override
+        public CompletionStage<FetchedBody> getBody() {
+            return body;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.cancel();
+            body.complete(FetchedBody.skipped(reason));
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            body.complete(FetchedBody.skipped(reason));
+        }
+
+        @Override
+        public void onComplete() {
+            body.complete(FetchedBody.skipped(reason));
+        }
+    }
+
+    private static final class BoundedSubscriber implements HttpResponse.BodySubscriber<FetchedBody> {
+
+        private final CompletableFuture<FetchedBody> body = new CompletableFuture<>();
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+        private final long maxBytes;
+        private final Charset charset;
+        private final String contentEncoding;
+        private Flow.Subscription subscription;
+
+        BoundedSubscriber(long maxBytes, Charset charset, String contentEncoding) {
+            this.maxBytes = maxBytes;
+            this.charset = charset;
+            this.contentEncoding = contentEncoding;
+        }
+
+        @Override
+        public CompletionStage<FetchedBody> getBody() {
+            return body;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            if (body.isDone()) {
+                return;
+            }
+            for (ByteBuffer item : items) {
+                int room = (int) (maxBytes - buffer.size());
+                int length = item.remaining();
+                if (length > room) {
+                    copy(item, room);
+                    subscription.cancel();
+                    body.complete(new FetchedBody(buffer.toByteArray(), charset, contentEncoding, true, null));
+                    return;
+                }
+                copy(item, length);
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            body.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            body.complete(new FetchedBody(buffer.toByteArray(), charset, contentEncoding, false, null));
+        }
+
+        private void copy(ByteBuffer item, int length) {
+            if (item.hasArray()) {
+                buffer.write(item.array(), item.arrayOffset() + item.position(), length);
+                item.position(item.position() + length);
+            } else {
+                byte[] chunk = new byte[length];
+                item.get(chunk);
+                buffer.write(chunk, 0, length);
+            }
+        }
+    }
+}
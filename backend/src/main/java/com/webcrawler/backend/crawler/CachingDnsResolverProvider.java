@@ -0,0 +1,40 @@
+package com.webcrawler.backend.crawler;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.net.spi.InetAddressResolver;
+import java.net.spi.InetAddressResolverProvider;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Puts {@link DnsCache} in front of the platform resolver. Registered through
+ * {@code META-INF/services}, so every name lookup in the JVM, including those made by the
+ * {@link java.net.http.HttpClient} used for crawling, goes through the cache.
+ */
+public class CachingDnsResolverProvider extends InetAddressResolverProvider {
+
+    @Override
+    public InetAddressResolver get(Configuration configuration) {
+        InetAddressResolver builtin = configuration.builtinResolver();
+        DnsCache cache = DnsCache.shared();
+        return new InetAddressResolver() {
+            @Override
+            public Stream<InetAddress> lookupByName(String host, LookupPolicy lookupPolicy) throws UnknownHostException {
+                String normalized = host.toLowerCase(Locale.ROOT);
+                String key = normalized + '/' + lookupPolicy.characteristics();
+                return cache.resolve(normalized, key, () -> builtin.lookupByName(host, lookupPolicy).toList()).stream();
+            }
+
+            @Override
+            public String lookupByAddress(byte[] address) throws UnknownHostException {
+                return builtin.lookupByAddress(address);
+            }
+        };
+    }
+
+    @Override
+    public String name() {
+        return "crawler-caching-resolver";
+    }
+}
@@ -0,0 +1,107 @@
+package com.webcrawler.backend.crawler;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-host counters for the fetcher's connection setup work. The HTTP client does not report
+ * when it opens a connection, so new connections are counted from completed TLS handshakes; for
+ * plain HTTP hosts only requests and DNS activity are known.
+ */
+@Component
+public class ConnectionStatistics {
+
+    private static final Duration IDLE_EVICTION = Duration.ofHours(1);
+
+    private final Map<String, HostCounters> hosts = new ConcurrentHashMap<>();
+
+    public void recordResponse(String host, HttpClient.Version version, boolean secure) {
+        HostCounters counters = countersFor(host);
+        counters.requests.increment();
+        if (version == HttpClient.Version.HTTP_2) {
+            counters.http2Requests.increment();
+        }
+        if (secure) {
+            counters.secure = true;
+        }
+        counters.lastUsed = System.nanoTime();
+    }
+
+    public void recordHandshake(String host, long handshakeNanos) {
+        HostCounters counters = countersFor(host);
+        counters.handshakes.increment();
+        counters.handshakeNanos.add(handshakeNanos);
+    }
+
+    public List<HostConnectionStats> snapshot() {
+        return hosts.entrySet().stream()
+            .map(entry -> entry.getValue().toStats(entry.getKey(), DnsCache.shared().statsFor(entry.getKey())))
+            .sorted(Comparator.comparingLong(HostConnectionStats::requests).reversed())
+            .toList();
+    }
+
+    @Scheduled(fixedRate = 600000)
+    public void evictIdleHosts() {
+        long cutoff = System.nanoTime() - IDLE_EVICTION.toNanos();
+        hosts.values().removeIf(counters -> counters.lastUsed - cutoff < 0);
+    }
+
+    private HostCounters countersFor(String host) {
+        return hosts.computeIfAbsent(host, ignored -> new HostCounters());
+    }
+
+    /**
+     * Connection setup summary for one host. {@code newConnections} and
+     * {@code reusedConnections} are {@code null} for hosts only reached over plain HTTP.
+     */
+    public record HostConnectionStats(
+        String host,
+        long requests,
+        long http2Requests,
+        Long newConnections,
+        Long reusedConnections,
+        double avgHandshakeMs,
+        long dnsLookups,
+        long dnsCacheHits,
+        double avgDnsMs
+    ) {
+    }
+
+    private static final class HostCounters {
+
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder http2Requests = new LongAdder();
+        private final LongAdder handshakes = new LongAdder();
+        private final LongAdder handshakeNanos = new LongAdder();
+        private volatile boolean secure;
+        private volatile long lastUsed = System.nanoTime();
+
+        HostConnectionStats toStats(String host, DnsCache.HostDnsStats dns) {
+            long requestCount = requests.sum();
+            long handshakeCount = handshakes.sum();
+            boolean tls = secure || handshakeCount > 0;
+            return new HostConnectionStats(
+                host,
+                requestCount,
+                http2Requests.sum(),
+                tls ? handshakeCount : null,
+                tls ? Math.max(0, requestCount - handshakeCount) : null,
+                average(handshakeNanos.sum(), handshakeCount),
+                dns.lookups(),
+                dns.cacheHits(),
+                average(dns.lookupNanos(), dns.lookups())
+            );
+        }
+
+        private static double average(long totalNanos, long count) {
+            return count == 0 ? 0 : totalNanos / 1_000_000.0 / count;
+        }
+    }
+}
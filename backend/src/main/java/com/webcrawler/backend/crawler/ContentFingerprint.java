@@ -0,0 +1,148 @@
+package com.webcrawler.backend.crawler;
+
+/**
+ * Incremental 64-bit fingerprint of a page's text: whitespace runs are collapsed to one space,
+ * leading and trailing whitespace is dropped, and the UTF-8 bytes of the result are hashed with
+ * MurmurHash3 (x64, 128-bit; the first half is kept). Text can be fed a character at a time while
+ * the page is being parsed, so the text itself is never held.
+ */
+public final class ContentFingerprint {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private final byte[] block = new byte[16];
+    private int blockLength;
+    private long h1;
+    private long h2;
+    private long length;
+    private boolean pendingSpace;
+    private boolean hasText;
+
+    public void append(char ch) {
+        if (Character.isWhitespace(ch) || ch == '\u00A0') {
+            pendingSpace = hasText;
+            return;
+        }
+        if (pendingSpace) {
+            update((byte) ' ');
+            pendingSpace = false;
+        }
+        hasText = true;
+        // UTF-8 per char; surrogate halves are encoded one by one, which is stable if not canonical.
+        if (ch < 0x80) {
+            update((byte) ch);
+        } else if (ch < 0x800) {
+            update((byte) (0xC0 | (ch >> 6)));
+            update((byte) (0x80 | (ch & 0x3F)));
+        } else {
+            update((byte) (0xE0 | (ch >> 12)));
+            update((byte) (0x80 | ((ch >> 6) & 0x3F)));
+            update((byte) (0x80 | (ch & 0x3F)));
+        }
+    }
+
+    public void append(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            append(text.charAt(i));
+        }
+    }
+
+    /**
+     * Returns the fingerprint, or {@code null} if the page had no text at all; such pages would all
+     * look alike and must not be treated as duplicates of each other.
+     */
+    @SuppressWarnings("fallthrough")
+    public Long finish() {
+        if (!hasText) {
+            return null;
+        }
+        long k1 = 0;
+        long k2 = 0;
+        // The tail bytes are mixed in by falling through from the highest one, as in MurmurHash3.
+        switch (blockLength) {
+            case 15: k2 ^= (long) (block[14] & 0xff) << 48;
+            case 14: k2 ^= (long) (block[13] & 0xff) << 40;
+            case 13: k2 ^= (long) (block[12] & 0xff) << 32;
+            case 12: k2 ^= (long) (block[11] & 0xff) << 24;
+            case 11: k2 ^= (long) (block[10] & 0xff) << 16;
+            case 10: k2 ^= (long) (block[9] & 0xff) << 8;
+            case 9:
+                k2 ^= block[8] & 0xff;
+                k2 *= C2;
+                k2 = Long.rotateLeft(k2, 33);
+                k2 *= C1;
+                h2 ^= k2;
+            case 8: k1 ^= (long) (block[7] & 0xff) << 56;
+            case 7: k1 ^= (long) (block[6] & 0xff) << 48;
+            case 6: k1 ^= (long) (block[5] & 0xff) << 40;
+            case 5: k1 ^= (long) (block[4] & 0xff) << 32;
+            case 4: k1 ^= (long) (block[3] & 0xff) << 24;
+            case 3: k1 ^= (long) (block[2] & 0xff) << 16;
+            case 2: k1 ^= (long) (block[1] & 0xff) << 8;
+            case 1:
+                k1 ^= block[0] & 0xff;
+                k1 *= C1;
+                k1 = Long.rotateLeft(k1, 31);
+                k1 *= C2;
+                h1 ^= k1;
+            default:
+                break;
+        }
+        long a = h1 ^ length;
+        long b = h2 ^ length;
+        a += b;
+        b += a;
+        a = fmix(a);
+        b = fmix(b);
+        a += b;
+        return a;
+    }
+
+    private void update(byte value) {
+        block[blockLength++] = value;
+        length++;
+        if (blockLength == 16) {
+            mixBlock();
+            blockLength = 0;
+        }
+    }
+
+    private void mixBlock() {
+        long k1 = getLong(0);
+        long k2 = getLong(8);
+
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        h1 ^= k1;
+        h1 = Long.rotateLeft(h1, 27);
+        h1 += h2;
+        h1 = h1 * 5 + 0x52dce729;
+
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        h2 ^= k2;
+        h2 = Long.rotateLeft(h2, 31);
+        h2 += h1;
+        h2 = h2 * 5 + 0x38495ab5;
+    }
+
+    private long getLong(int offset) {
+        long value = 0;
+        for (int i = 7; i >= 0; i--) {
+            value = (value << 8) | (block[offset + i] & 0xff);
+        }
+        return value;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
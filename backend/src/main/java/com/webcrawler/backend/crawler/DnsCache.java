@@ -0,0 +1,128 @@
+package com.webcrawler.backend.crawler;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of host name lookups shared by the whole JVM. Successful lookups are kept for
+ * the configured TTL, failures for the shorter negative TTL, and the least recently used hosts are
+ * dropped once the cache is full; the per-host lookup statistics are bounded the same way. The
+ * JDK resolver interface does not expose the TTL of the DNS records, so the configured TTL applies
+ * to every host and is capped at {@link #MAX_TTL} to keep moved hosts from being missed for long.
+ * The cache lives outside the Spring context because the JDK loads
+ * {@link CachingDnsResolverProvider} itself; {@link PageFetcher} applies the configuration.
+ */
+public final class DnsCache {
+
+    private static final DnsCache SHARED = new DnsCache();
+
+    static final Duration MAX_TTL = Duration.ofHours(1);
+
+    private volatile long ttlNanos = Duration.ofMinutes(5).toNanos();
+    private volatile long negativeTtlNanos = Duration.ofSeconds(30).toNanos();
+    private volatile int maxEntries = 10000;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+    private final Map<String, HostLookups> lookups = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, HostLookups> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    private DnsCache() {
+    }
+
+    public static DnsCache shared() {
+        return SHARED;
+    }
+
+    public void configure(Duration ttl, Duration negativeTtl, int maxEntries) {
+        this.ttlNanos = (ttl.compareTo(MAX_TTL) > 0 ? MAX_TTL : ttl).toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    /**
+     * Returns the cached addresses for the key, or runs the lookup and caches its outcome. Two
+     * threads missing at the same time may both resolve; the later result simply wins.
+     */
+    List<InetAddress> resolve(String host, String key, Lookup lookup) throws UnknownHostException {
+        HostLookups stats;
+        synchronized (lookups) {
+            stats = lookups.computeIfAbsent(host, ignored -> new HostLookups());
+        }
+        long now = System.nanoTime();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null && entry.expiresAt() - now > 0) {
+            stats.hits.increment();
+            if (entry.addresses() == null) {
+                throw new UnknownHostException(host);
+            }
+            return entry.addresses();
+        }
+
+        long started = System.nanoTime();
+        try {
+            List<InetAddress> addresses = lookup.resolve();
+            cache(key, new Entry(addresses, System.nanoTime() + ttlNanos));
+            return addresses;
+        } catch (UnknownHostException ex) {
+            cache(key, new Entry(null, System.nanoTime() + negativeTtlNanos));
+            throw ex;
+        } finally {
+            stats.lookups.increment();
+            stats.lookupNanos.add(System.nanoTime() - started);
+        }
+    }
+
+    public HostDnsStats statsFor(String host) {
+        HostLookups stats;
+        synchronized (lookups) {
+            stats = lookups.get(host);
+        }
+        if (stats == null) {
+            return HostDnsStats.NONE;
+        }
+        return new HostDnsStats(stats.lookups.sum(), stats.hits.sum(), stats.lookupNanos.sum());
+    }
+
+    private void cache(String key, Entry entry) {
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    @FunctionalInterface
+    interface Lookup {
+        List<InetAddress> resolve() throws UnknownHostException;
+    }
+
+    /** DNS activity for one host: real lookups, answers served from the cache and lookup time. */
+    public record HostDnsStats(long lookups, long cacheHits, long lookupNanos) {
+
+        static final HostDnsStats NONE = new HostDnsStats(0, 0, 0);
+    }
+
+    private record Entry(List<InetAddress> addresses, long expiresAt) {
+    }
+
+    private static final class HostLookups {
+
+        private final LongAdder lookups = new LongAdder();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder lookupNanos = new LongAdder();
+    }
+}
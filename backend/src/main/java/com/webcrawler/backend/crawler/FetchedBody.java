@@ -0,0 +1,118 @@
+package com.webcrawler.backend.crawler;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The part of a response body the crawler kept, as received on the wire. {@code skippedReason}
+ * is set when the body was not read at all; {@code truncated} when reading stopped at the
+ * configured byte ceiling. {@code contentEncoding} is {@code null} for identity bodies.
+ */
+public record FetchedBody(byte[] bytes, Charset charset, String contentEncoding, boolean truncated, String skippedReason) {
+
+    public static FetchedBody skipped(String reason) {
+        return new FetchedBody(new byte[0], null, null, false, reason);
+    }
+
+    public boolean isSkipped() {
+        return skippedReason != null;
+    }
+
+    /**
+     * Opens the body for reading, decompressing gzip and deflate on the fly. At most
+     * {@code maxDecodedBytes} are returned, so a small compressed body cannot expand without
+     * bound.
+     */
+    public DecodedStream openDecoded(long maxDecodedBytes) throws IOException {
+        InputStream raw = new ByteArrayInputStream(bytes);
+        InputStream decoded;
+        Inflater inflater = null;
+        if ("gzip".equals(contentEncoding) || "x-gzip".equals(contentEncoding)) {
+            decoded = new GZIPInputStream(raw, 8192);
+        } else if ("deflate".equals(contentEncoding)) {
+            // "deflate" is meant to be zlib-wrapped, but some servers send a raw deflate stream.
+            boolean zlibWrapped = bytes.length > 1 && (bytes[0] & 0x0F) == 8 && ((bytes[0] & 0xFF) * 256 + (bytes[1] & 0xFF)) % 31 == 0;
+            inflater = new Inflater(!zlibWrapped);
+            decoded = new InflaterInputStream(raw, inflater, 8192);
+        } else {
+            decoded = raw;
+        }
+        return new DecodedStream(decoded, inflater, maxDecodedBytes, truncated);
+    }
+
+    /**
+     * Counts the decoded bytes handed to the parser and stops at the decoded limit. When the wire
+     * body was cut off, the decompressor hits a premature end; that is reported as a normal end of
+     * stream so the parser still sees everything that could be recovered. Closing the stream frees
+     * the native memory of the inflater, which {@link InflaterInputStream} leaves to whoever created it.
+     */
+    public static final class DecodedStream extends InputStream {
+
+        private final InputStream in;
+        private final Inflater inflater;
+        private final long limit;
+        private final boolean sourceTruncated;
+        private long count;
+        private boolean limitReached;
+
+        DecodedStream(InputStream in, Inflater inflater, long limit, boolean sourceTruncated) {
+            this.in = in;
+            this.inflater = inflater;
+            this.limit = limit;
+            this.sourceTruncated = sourceTruncated;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (count >= limit) {
+                limitReached = true;
+                return -1;
+            }
+            int read;
+            try {
+                read = in.read(buffer, offset, (int) Math.min(length, limit - count));
+            } catch (EOFException ex) {
+                if (sourceTruncated) {
+                    return -1;
+                }
+                throw ex;
+            }
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                in.close();
+            } finally {
+                if (inflater != null) {
+                    inflater.end();
+                }
+            }
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public boolean isLimitReached() {
+            return limitReached;
+        }
+    }
+}
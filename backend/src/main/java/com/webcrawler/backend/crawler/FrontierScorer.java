@@ -0,0 +1,70 @@
+package com.webcrawler.backend.crawler;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import com.webcrawler.backend.config.CrawlerProperties.FrontierOrdering;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.springframework.stereotype.Component;
+
+/**
+ * Priority of a URL in the frontier; pending tasks are claimed highest priority first, so with a
+ * page budget the budget goes to the pages the ordering values most. Breadth-first ranks a URL by
+ * its depth. OPIC gives the seed and sitemap entries one unit of credit and has each fetched page
+ * split its credit among its links, so pages many others link to, directly or through well-linked
+ * pages, rise while they wait. Configured URL-pattern boosts are added on top of either ordering.
+ */
+@Component
+public class FrontierScorer {
+
+    /** Credit of a URL queued without a parent page under OPIC. */
+    static final double INITIAL_CREDIT = 1.0;
+
+    private final FrontierOrdering ordering;
+    private final List<WeightedPattern> boosts;
+
+    public FrontierScorer(CrawlerProperties crawlerProperties) {
+        CrawlerProperties.Frontier settings = crawlerProperties.getFrontier();
+        this.ordering = settings.getOrdering();
+        this.boosts = settings.getBoosts().stream()
+            .filter(boost -> boost.getPattern() != null && !boost.getPattern().isBlank())
+            .map(boost -> new WeightedPattern(Pattern.compile(boost.getPattern()), boost.getWeight()))
+            .toList();
+    }
+
+    /** Priority of a URL queued without a parent page: the seed and sitemap entries. */
+    public double initial(String url, int depth) {
+        double base = ordering == FrontierOrdering.OPIC ? INITIAL_CREDIT : -depth;
+        return base + boostOf(url);
+    }
+
+    /**
+     * Priority of a link found on a page with the given priority, among {@code linkCount} links.
+     */
+    public double child(String url, int depth, double parentPriority, int linkCount) {
+        double base = ordering == FrontierOrdering.OPIC ? credit(parentPriority, linkCount) : -depth;
+        return base + boostOf(url);
+    }
+
+    /** Whether links that are already queued gain priority when another page links to them. */
+    public boolean accumulatesCredit() {
+        return ordering == FrontierOrdering.OPIC;
+    }
+
+    /** The share of a page's credit each of its links receives; a page never passes on a debt. */
+    public double credit(double parentPriority, int linkCount) {
+        return linkCount > 0 ? Math.max(0, parentPriority) / linkCount : 0;
+    }
+
+    private double boostOf(String url) {
+        double boost = 0;
+        for (WeightedPattern pattern : boosts) {
+            if (pattern.pattern().matcher(url).find()) {
+                boost += pattern.weight();
+            }
+        }
+        return boost;
+    }
+
+    private record WeightedPattern(Pattern pattern, double weight) {
+    }
+}
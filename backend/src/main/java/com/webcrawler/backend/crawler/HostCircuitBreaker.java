@@ -0,0 +1,156 @@
+package com.webcrawler.backend.crawler;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stops this node from sending requests to a host that keeps failing. After
+ * {@code failureThreshold} consecutive transient failures the host's circuit opens and requests
+ * are refused until the open period ends. The next request is then let through as a probe: if it
+ * gets any HTTP response that is not a transient error the circuit closes, if it fails the circuit
+ * opens again for twice as long.
+ */
+@Component
+public class HostCircuitBreaker {
+
+    /** A probe that never reports back is abandoned after this long so another can be sent. */
+    private static final Duration PROBE_TIMEOUT = Duration.ofMinutes(2);
+
+    private static final Duration IDLE_EVICTION = Duration.ofHours(1);
+
+    private final CrawlerProperties.CircuitBreaker settings;
+    private final Map<String, HostCircuit> hosts = new ConcurrentHashMap<>();
+    private Clock clock = Clock.systemUTC();
+
+    public HostCircuitBreaker(CrawlerProperties crawlerProperties) {
+        this.settings = crawlerProperties.getCircuitBreaker();
+    }
+
+    /** Replaces the system clock, for tests. */
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Returns whether a request to the host may be sent now. A {@code true} answer for a host whose
+     * open period has just ended makes the caller the probe.
+     */
+    public boolean allowRequest(String host) {
+        HostCircuit circuit = hosts.get(host);
+        return circuit == null || circuit.allowRequest(clock.instant());
+    }
+
+    /**
+     * Returns the end of the host's open period, if its circuit is currently open.
+     */
+    public Optional<Instant> openUntil(String host) {
+        HostCircuit circuit = hosts.get(host);
+        return circuit != null ? circuit.openUntil(clock.instant()) : Optional.empty();
+    }
+
+    public void recordSuccess(String host) {
+        HostCircuit circuit = hosts.get(host);
+        if (circuit != null) {
+            circuit.recordSuccess();
+        }
+    }
+
+    /**
+     * Reports that a request let through never reached the host, so the next one may be the probe
+     * instead of waiting for the probe timeout.
+     */
+    public void releaseProbe(String host) {
+        HostCircuit circuit = hosts.get(host);
+        if (circuit != null) {
+            circuit.releaseProbe();
+        }
+    }
+
+    /**
+     * Counts a transient failure and returns the end of the open period if this failure opened the
+     * circuit, so the caller can hold back the host's queued tasks until then.
+     */
+    public Optional<Instant> recordFailure(String host) {
+        Instant now = clock.instant();
+        return hosts.computeIfAbsent(host, ignored -> new HostCircuit(now)).recordFailure(now, settings);
+    }
+
+    @Scheduled(fixedRate = 600000)
+    public void evictIdleHosts() {
+        Instant cutoff = clock.instant().minus(IDLE_EVICTION);
+        hosts.values().removeIf(circuit -> circuit.isIdleSince(cutoff));
+    }
+
+    private static final class HostCircuit {
+
+        private int consecutiveFailures;
+        private Duration lastOpenDuration;
+        private Instant openUntil;
+        private Instant probeStartedAt;
+        private Instant lastUsed;
+
+        HostCircuit(Instant now) {
+            this.lastUsed = now;
+        }
+
+        synchronized boolean allowRequest(Instant now) {
+            lastUsed = now;
+            if (openUntil == null) {
+                return true;
+            }
+            if (now.isBefore(openUntil)) {
+                return false;
+            }
+            if (probeStartedAt != null && now.isBefore(probeStartedAt.plus(PROBE_TIMEOUT))) {
+                return false;
+            }
+            probeStartedAt = now;
+            return true;
+        }
+
+        synchronized Optional<Instant> openUntil(Instant now) {
+            return openUntil != null && now.isBefore(openUntil) ? Optional.of(openUntil) : Optional.empty();
+        }
+
+        synchronized void recordSuccess() {
+            consecutiveFailures = 0;
+            lastOpenDuration = null;
+            openUntil = null;
+            probeStartedAt = null;
+        }
+
+        synchronized void releaseProbe() {
+            probeStartedAt = null;
+        }
+
+        synchronized Optional<Instant> recordFailure(Instant now, CrawlerProperties.CircuitBreaker settings) {
+            lastUsed = now;
+            consecutiveFailures++;
+            boolean probeFailed = probeStartedAt != null;
+            if (!probeFailed && (openUntil != null || consecutiveFailures < settings.getFailureThreshold())) {
+                return Optional.empty();
+            }
+            Duration duration = lastOpenDuration == null
+                ? settings.getOpenDuration()
+                : lastOpenDuration.multipliedBy(2);
+            if (duration.compareTo(settings.getMaxOpenDuration()) > 0) {
+                duration = settings.getMaxOpenDuration();
+            }
+            lastOpenDuration = duration;
+            openUntil = now.plus(duration);
+            probeStartedAt = null;
+            return Optional.of(openUntil);
+        }
+
+        synchronized boolean isIdleSince(Instant cutoff) {
+            return (openUntil == null || openUntil.isBefore(cutoff)) && lastUsed.isBefore(cutoff);
+        }
+    }
+}
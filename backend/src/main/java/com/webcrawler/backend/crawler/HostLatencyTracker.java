@@ -0,0 +1,136 @@
+package com.webcrawler.backend.crawler;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Derives a request timeout for each host from the response times it has shown recently. Every
+ * host keeps a log-scale latency histogram over its last two windows of samples; its timeout is a
+ * high percentile of that histogram times a safety factor, clamped to the configured bounds. A
+ * timeout means the histogram underestimates the host, so each consecutive timeout doubles the
+ * host's timeout, up to the maximum, until a response arrives; hosts that never answer are
+ * stopped by {@link HostCircuitBreaker} rather than by ever shorter timeouts.
+ */
+@Component
+public class HostLatencyTracker {
+
+    private static final Duration IDLE_EVICTION = Duration.ofMinutes(30);
+
+    private final CrawlerProperties.Fetch settings;
+    private final Map<String, HostLatency> hosts = new ConcurrentHashMap<>();
+
+    public HostLatencyTracker(CrawlerProperties crawlerProperties) {
+        this.settings = crawlerProperties.getFetch();
+    }
+
+    public Duration timeoutFor(String host) {
+        if (!settings.isAdaptiveTimeouts()) {
+            return settings.getRequestTimeout();
+        }
+        HostLatency latency = hosts.get(host);
+        long timeoutMillis = latency != null
+            ? latency.timeoutMillis(settings)
+            : settings.getRequestTimeout().toMillis();
+        return Duration.ofMillis(clamp(timeoutMillis));
+    }
+
+    public void recordSuccess(String host, Duration elapsed) {
+        hosts.computeIfAbsent(host, ignored -> new HostLatency()).recordSuccess(elapsed.toMillis(), settings.getLatencyWindow());
+    }
+
+    public void recordTimeout(String host) {
+        hosts.computeIfAbsent(host, ignored -> new HostLatency()).recordTimeout();
+    }
+
+    @Scheduled(fixedRate = 600000)
+    public void evictIdleHosts() {
+        long cutoff = System.nanoTime() - IDLE_EVICTION.toNanos();
+        hosts.values().removeIf(latency -> latency.isIdleSince(cutoff));
+    }
+
+    private long clamp(long timeoutMillis) {
+        long min = settings.getMinRequestTimeout().toMillis();
+        long max = settings.getMaxRequestTimeout().toMillis();
+        return Math.max(min, Math.min(max, timeoutMillis));
+    }
+
+    private static final class HostLatency {
+
+        /** Bucket {@code i} holds latencies up to {@code 1.25^i} ms, so 64 buckets reach past 20 minutes. */
+        private static final int BUCKETS = 64;
+        private static final double GROWTH = 1.25;
+        private static final double LOG_GROWTH = Math.log(GROWTH);
+
+        private int[] current = new int[BUCKETS];
+        private int[] previous = new int[BUCKETS];
+        private int currentCount;
+        private int previousCount;
+        private int consecutiveTimeouts;
+        private volatile long lastUsed = System.nanoTime();
+
+        synchronized void recordSuccess(long millis, int window) {
+            if (currentCount >= window) {
+                int[] recycled = previous;
+                Arrays.fill(recycled, 0);
+                previous = current;
+                previousCount = currentCount;
+                current = recycled;
+                currentCount = 0;
+            }
+            current[bucketOf(millis)]++;
+            currentCount++;
+            consecutiveTimeouts = 0;
+            lastUsed = System.nanoTime();
+        }
+
+        synchronized void recordTimeout() {
+            consecutiveTimeouts++;
+            lastUsed = System.nanoTime();
+        }
+
+        synchronized long timeoutMillis(CrawlerProperties.Fetch settings) {
+            long base = settings.getRequestTimeout().toMillis();
+            int samples = currentCount + previousCount;
+            if (samples >= settings.getLatencyMinSamples()) {
+                base = (long) (upperBoundOf(percentileBucket(settings.getTimeoutPercentile(), samples)) * settings.getTimeoutMultiplier());
+            }
+            if (consecutiveTimeouts > 0) {
+                // Grow from the timeout that actually ran out, which is never below the minimum.
+                base = Math.max(base, settings.getMinRequestTimeout().toMillis()) << Math.min(consecutiveTimeouts, 16);
+            }
+            return base;
+        }
+
+        boolean isIdleSince(long cutoff) {
+            return lastUsed - cutoff < 0;
+        }
+
+        private int percentileBucket(double percentile, int samples) {
+            long rank = (long) Math.ceil(percentile * samples);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += current[i] + previous[i];
+                if (seen >= rank) {
+                    return i;
+                }
+            }
+            return BUCKETS - 1;
+        }
+
+        private static int bucketOf(long millis) {
+            if (millis <= 1) {
+                return 0;
+            }
+            return Math.min(BUCKETS - 1, (int) Math.ceil(Math.log(millis) / LOG_GROWTH));
+        }
+
+        private static double upperBoundOf(int bucket) {
+            return Math.pow(GROWTH, bucket);
+        }
+    }
+}
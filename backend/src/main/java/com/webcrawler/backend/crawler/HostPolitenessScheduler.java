@@ -0,0 +1,112 @@
+package com.webcrawler.backend.crawler;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides whether this node may send another request to a host right now. Every host gets a
+ * token bucket that refills at one token per minimum delay, plus a cap on concurrent requests.
+ * Callers that are refused simply move on to work for other hosts and try again later.
+ */
+@Component
+public class HostPolitenessScheduler {
+
+    private final CrawlerProperties.Politeness settings;
+    private final Map<String, HostState> hosts = new ConcurrentHashMap<>();
+    private LongSupplier clock = System::nanoTime;
+
+    public HostPolitenessScheduler(CrawlerProperties crawlerProperties) {
+        this.settings = crawlerProperties.getPoliteness();
+    }
+
+    /** Replaces the {@link System#nanoTime()} clock, for tests. */
+    void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Resolves the effective policy for a job, falling back to the node defaults for any setting
+     * the job does not override.
+     */
+    public HostPolicy policyFor(Integer hostDelayMs, Integer maxConnectionsPerHost) {
+        Duration delay = hostDelayMs != null ? Duration.ofMillis(hostDelayMs) : settings.getMinDelay();
+        int connections = maxConnectionsPerHost != null ? maxConnectionsPerHost : settings.getMaxConnectionsPerHost();
+        return new HostPolicy(delay, connections);
+    }
+
+    public boolean tryAcquire(String host, HostPolicy policy) {
+        long now = clock.getAsLong();
+        HostState state = hosts.computeIfAbsent(host, key -> new HostState(settings.getBurst(), now));
+        return state.tryAcquire(policy, now);
+    }
+
+    public void release(String host) {
+        HostState state = hosts.get(host);
+        if (state != null) {
+            state.release(clock.getAsLong());
+        }
+    }
+
+    @Scheduled(fixedRate = 60000)
+    public void evictIdleHosts() {
+        long cutoff = clock.getAsLong() - settings.getIdleEviction().toNanos();
+        hosts.entrySet().removeIf(entry -> entry.getValue().isIdleSince(cutoff));
+    }
+
+    public record HostPolicy(Duration minDelay, int maxConnections) {
+
+        public HostPolicy withMinDelayAtLeast(Duration delay) {
+            return delay.compareTo(minDelay) > 0 ? new HostPolicy(delay, maxConnections) : this;
+        }
+    }
+
+    private static final class HostState {
+
+        private final int capacity;
+        private double tokens;
+        private long lastRefill;
+        private long lastUsed;
+        private int active;
+
+        HostState(int capacity, long now) {
+            this.capacity = Math.max(1, capacity);
+            this.tokens = this.capacity;
+            this.lastRefill = now;
+            this.lastUsed = now;
+        }
+
+        synchronized boolean tryAcquire(HostPolicy policy, long now) {
+            long delayNanos = policy.minDelay().toNanos();
+            if (delayNanos <= 0) {
+                tokens = capacity;
+            } else {
+                tokens = Math.min(capacity, tokens + (double) (now - lastRefill) / delayNanos);
+            }
+            lastRefill = now;
+
+            if (active >= policy.maxConnections() || tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            active++;
+            lastUsed = now;
+            return true;
+        }
+
+        synchronized void release(long now) {
+            if (active > 0) {
+                active--;
+            }
+            lastUsed = now;
+        }
+
+        synchronized boolean isIdleSince(long cutoff) {
+            return active == 0 && lastUsed < cutoff;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.webcrawler.backend.crawler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Consistent-hash ring that gives every host to exactly one node, so that a host's connections,
+ * DNS lookups and politeness state live in one place. Hosts are hashed into a fixed number of
+ * {@link #BUCKETS}, stored with each task, and the buckets are spread over the nodes: each node
+ * is placed on the ring at {@code virtualNodes} pseudo-random points and owns the buckets between
+ * its points and the previous ones. When a node joins or leaves, only the buckets next to its
+ * points change owner.
+ */
+public final class HostShardRing {
+
+    /** Number of host buckets; fixed, because it is part of every stored task. */
+    public static final int BUCKETS = 1024;
+
+    private static final HostShardRing EMPTY = new HostShardRing(new long[0], new UUID[0]);
+
+    private final long[] points;
+    private final UUID[] owners;
+    private final UUID[] bucketOwners;
+
+    private HostShardRing(long[] points, UUID[] owners) {
+        this.points = points;
+        this.owners = owners;
+        this.bucketOwners = new UUID[points.length == 0 ? 0 : BUCKETS];
+        for (int bucket = 0; bucket < bucketOwners.length; bucket++) {
+            bucketOwners[bucket] = owners[pointAtOrAfter(positionOf(bucket))];
+        }
+    }
+
+    public static HostShardRing of(Collection<UUID> nodeIds, int virtualNodes) {
+        Set<UUID> nodes = new TreeSet<>(nodeIds);
+        if (nodes.isEmpty()) {
+            return EMPTY;
+        }
+        long[][] entries = new long[nodes.size() * virtualNodes][];
+        List<UUID> indexed = new ArrayList<>(nodes);
+        int n = 0;
+        for (int node = 0; node < indexed.size(); node++) {
+            for (int replica = 0; replica < virtualNodes; replica++) {
+                entries[n++] = new long[] {UrlFingerprint.of(indexed.get(node) + "#" + replica), node};
+            }
+        }
+        Arrays.sort(entries, (a, b) -> Long.compareUnsigned(a[0], b[0]));
+        long[] points = new long[entries.length];
+        UUID[] owners = new UUID[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            owners[i] = indexed.get((int) entries[i][1]);
+        }
+        return new HostShardRing(points, owners);
+    }
+
+    /** Bucket of a host, in {@code [0, BUCKETS)}. */
+    public static int bucketOf(String host) {
+        return (int) (UrlFingerprint.of(host == null ? "" : host) >>> 54);
+    }
+
+    public boolean isEmpty() {
+        return points.length == 0;
+    }
+
+    /** The node owning the bucket, or {@code null} if the ring has no nodes. */
+    public UUID ownerOf(int bucket) {
+        return isEmpty() ? null : bucketOwners[bucket];
+    }
+
+    /** The buckets the node owns, in ascending order; empty if it is not on the ring. */
+    public List<Integer> bucketsOf(UUID nodeId) {
+        List<Integer> buckets = new ArrayList<>();
+        for (int bucket = 0; bucket < bucketOwners.length; bucket++) {
+            if (bucketOwners[bucket].equals(nodeId)) {
+                buckets.add(bucket);
+            }
+        }
+        return buckets;
+    }
+
+    /** Number of buckets per node, for logging how evenly the ring is spread. */
+    public Map<UUID, Long> bucketCounts() {
+        return Arrays.stream(bucketOwners).collect(Collectors.groupingBy(owner -> owner, Collectors.counting()));
+    }
+
+    /** Buckets sit at evenly spaced positions around the ring. */
+    private static long positionOf(int bucket) {
+        return (long) bucket << 54;
+    }
+
+    private int pointAtOrAfter(long position) {
+        int low = 0;
+        int high = points.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(points[mid], position) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low == points.length ? 0 : low;
+    }
+}
@@ -0,0 +1,26 @@
+package com.webcrawler.backend.crawler;
+
+import java.net.URI;
+import java.util.Locale;
+
+public final class Hosts {
+
+    private Hosts() {
+    }
+
+    /**
+     * Returns the lower-cased host of a URL, or an empty string when the URL has none. The host is
+     * the unit the crawler applies politeness and per-host limits to.
+     */
+    public static String hostOf(String url) {
+        if (url == null) {
+            return "";
+        }
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? "" : host.toLowerCase(Locale.ROOT);
+        } catch (IllegalArgumentException ex) {
+            return "";
+        }
+    }
+}
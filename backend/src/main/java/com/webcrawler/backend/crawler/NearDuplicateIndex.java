@@ -0,0 +1,158 @@
+package com.webcrawler.backend.crawler;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import com.webcrawler.backend.repository.CrawlResultRepository;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Per-job index of page SimHashes answering "is there a page within {@code k} bits of this one?".
+ * Fingerprints are split into four 16-bit bands; two fingerprints at most three bits apart agree
+ * on at least one band, so a lookup only compares against the pages sharing a band value. Each
+ * job's index is loaded from the database the first time it is used on this node and is capped
+ * at {@code maxPagesPerJob} fingerprints; only the most recently used jobs are kept.
+ */
+@Component
+public class NearDuplicateIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(NearDuplicateIndex.class);
+
+    /** With four bands, only distances up to three are guaranteed to share a band. */
+    static final int MAX_DISTANCE = 3;
+
+    private final CrawlResultRepository crawlResultRepository;
+    private final CrawlerProperties.Dedup settings;
+    private final Map<UUID, BandedIndex> jobs;
+
+    public NearDuplicateIndex(CrawlResultRepository crawlResultRepository, CrawlerProperties crawlerProperties) {
+        this.crawlResultRepository = crawlResultRepository;
+        this.settings = crawlerProperties.getDedup();
+        int maxJobs = settings.getMaxJobs();
+        this.jobs = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, BandedIndex> eldest) {
+                return size() > maxJobs;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return settings.getNearDuplicateDistance() > 0;
+    }
+
+    /**
+     * Checks the fingerprint against the job's earlier pages, then adds it to the index. Inside a
+     * transaction the fingerprint is only added once the transaction commits, so a page whose
+     * result is rolled back never makes a later page look like its near duplicate.
+     *
+     * @return whether an earlier page lies within the configured distance
+     */
+    public boolean checkAndAdd(UUID jobId, long simHash) {
+        BandedIndex index = indexFor(jobId);
+        int distance = Math.min(settings.getNearDuplicateDistance(), MAX_DISTANCE);
+        boolean near;
+        synchronized (index) {
+            if (!index.warmed) {
+                List<Long> existing = crawlResultRepository.findSimHashesByJobId(jobId);
+                existing.forEach(index::add);
+                index.warmed = true;
+                log.debug("Loaded {} fingerprints for job {}", existing.size(), jobId);
+            }
+            near = index.containsWithin(simHash, distance);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(index, simHash);
+                }
+            });
+        } else {
+            add(index, simHash);
+        }
+        return near;
+    }
+
+    private static void add(BandedIndex index, long simHash) {
+        synchronized (index) {
+            index.add(simHash);
+        }
+    }
+
+    private BandedIndex indexFor(UUID jobId) {
+        synchronized (jobs) {
+            return jobs.computeIfAbsent(jobId, ignored -> new BandedIndex(settings.getMaxPagesPerJob()));
+        }
+    }
+
+    /**
+     * Fingerprints in one growable array with a chained hash table per band. Chains are threaded
+     * through {@code next} arrays, so the index costs 24 bytes per page plus 1 MiB of bucket heads.
+     */
+    static final class BandedIndex {
+
+        private static final int BANDS = 4;
+        private static final int BUCKETS = 1 << 16;
+
+        private final int capacity;
+        private final int[][] heads = new int[BANDS][BUCKETS];
+        private int[][] next = new int[BANDS][16];
+        private long[] fingerprints = new long[16];
+        private int size;
+        private boolean warmed;
+
+        BandedIndex(int capacity) {
+            this.capacity = capacity;
+            for (int[] band : heads) {
+                Arrays.fill(band, -1);
+            }
+        }
+
+        boolean containsWithin(long fingerprint, int distance) {
+            for (int band = 0; band < BANDS; band++) {
+                for (int i = heads[band][bucketOf(fingerprint, band)]; i >= 0; i = next[band][i]) {
+                    if (SimHash.distance(fingerprint, fingerprints[i]) <= distance) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        void add(long fingerprint) {
+            if (size >= capacity) {
+                return;
+            }
+            if (size == fingerprints.length) {
+                int grown = Math.min(capacity, size * 2);
+                fingerprints = Arrays.copyOf(fingerprints, grown);
+                for (int band = 0; band < BANDS; band++) {
+                    next[band] = Arrays.copyOf(next[band], grown);
+                }
+            }
+            fingerprints[size] = fingerprint;
+            for (int band = 0; band < BANDS; band++) {
+                int bucket = bucketOf(fingerprint, band);
+                next[band][size] = heads[band][bucket];
+                heads[band][bucket] = size;
+            }
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private static int bucketOf(long fingerprint, int band) {
+            return (int) (fingerprint >>> (band * 16)) & 0xFFFF;
+        }
+    }
+}
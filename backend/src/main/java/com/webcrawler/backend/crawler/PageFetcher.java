@@ -0,0 +1,163 @@
+package com.webcrawler.backend.crawler;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import javax.net.ssl.SSLContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Issues page requests for the crawler. A single {@link HttpClient} is shared by all workers
+ * of a node so connections are pooled across tasks. Host names are resolved through
+ * {@link DnsCache} and connection setup is reported to {@link ConnectionStatistics}. Page
+ * requests use the per-host timeout from {@link HostLatencyTracker} and feed their response times
+ * back into it.
+ */
+@Component
+public class PageFetcher {
+
+    private final CrawlerProperties.Fetch settings;
+    private final HttpClient httpClient;
+    private final BoundedBodyHandler pageBodyHandler;
+    private final ConnectionStatistics statistics;
+    private final HostLatencyTracker latencyTracker;
+
+    public PageFetcher(CrawlerProperties crawlerProperties, ConnectionStatistics statistics, HostLatencyTracker latencyTracker) {
+        this.settings = crawlerProperties.getFetch();
+        this.statistics = statistics;
+        this.latencyTracker = latencyTracker;
+        CrawlerProperties.Dns dns = crawlerProperties.getDns();
+        DnsCache.shared().configure(dns.getCacheTtl(), dns.getNegativeTtl(), dns.getCacheSize());
+        this.httpClient = HttpClient.newBuilder()
+            .version(settings.isPreferHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+            .sslContext(InstrumentedSslContext.wrap(defaultSslContext(), statistics))
+            .connectTimeout(settings.getConnectTimeout())
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+        this.pageBodyHandler = new BoundedBodyHandler(
+            settings.getMaxBodySize().toBytes(),
+            settings.getAcceptedContentTypes()
+        );
+    }
+
+    public HttpResponse<FetchedBody> fetch(String url, Validators validators) throws IOException, InterruptedException {
+        String host = Hosts.hostOf(url);
+        HttpRequest request = buildRequest(url, validators, latencyTracker.timeoutFor(host));
+        long started = System.nanoTime();
+        try {
+            HttpResponse<FetchedBody> response = httpClient.send(request, pageBodyHandler);
+            latencyTracker.recordSuccess(host, Duration.ofNanos(System.nanoTime() - started));
+            return recorded(response);
+        } catch (HttpTimeoutException ex) {
+            latencyTracker.recordTimeout(host);
+            throw ex;
+        }
+    }
+
+    /**
+     * Starts a request without blocking the calling thread. The returned future completes on the
+     * client's executor once the body has been received or abandoned.
+     */
+    public CompletableFuture<HttpResponse<FetchedBody>> fetchAsync(String url, Validators validators) {
+        try {
+            String host = Hosts.hostOf(url);
+            HttpRequest request = buildRequest(url, validators, latencyTracker.timeoutFor(host));
+            long started = System.nanoTime();
+            return httpClient.sendAsync(request, pageBodyHandler)
+                .whenComplete((response, error) -> {
+                    if (response != null) {
+                        latencyTracker.recordSuccess(host, Duration.ofNanos(System.nanoTime() - started));
+                    } else if (unwrap(error) instanceof HttpTimeoutException) {
+                        latencyTracker.recordTimeout(host);
+                    }
+                })
+                .thenApply(this::recorded);
+        } catch (IllegalArgumentException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Fetches a small UTF-8 text resource such as robots.txt with its own timeout. Only the first
+     * {@code maxBytes} are read; the rest of a longer body is dropped.
+     */
+    public CompletableFuture<HttpResponse<String>> fetchTextAsync(String url, Duration timeout, long maxBytes) {
+        try {
+            HttpRequest request = newRequest(url)
+                .timeout(timeout)
+                .build();
+            HttpResponse.BodyHandler<String> handler = info -> HttpResponse.BodySubscribers.mapping(
+                BoundedBodyHandler.truncating(maxBytes), body -> new String(body.bytes(), StandardCharsets.UTF_8));
+            return httpClient.sendAsync(request, handler).thenApply(this::recorded);
+        } catch (IllegalArgumentException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Fetches a potentially large resource, such as a sitemap, as a stream the caller reads and
+     * closes. Only gzip is offered, since that is what sitemap readers detect and decode.
+     */
+    public HttpResponse<InputStream> fetchStream(String url, Duration timeout) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = newRequest(url).timeout(timeout);
+        if (settings.isCompression()) {
+            builder.header("Accept-Encoding", "gzip");
+        }
+        return recorded(httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream()));
+    }
+
+    private HttpRequest buildRequest(String url, Validators validators, Duration timeout) {
+        HttpRequest.Builder builder = newRequest(url)
+            .timeout(timeout);
+        if (settings.isCompression()) {
+            builder.header("Accept-Encoding", "gzip, deflate");
+        }
+        if (validators.etag() != null) {
+            builder.header("If-None-Match", validators.etag());
+        }
+        if (validators.lastModified() != null) {
+            builder.header("If-Modified-Since", validators.lastModified());
+        }
+        return builder.build();
+    }
+
+    private HttpRequest.Builder newRequest(String url) {
+        URI uri = URI.create(url);
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+            .GET()
+            .header("User-Agent", settings.getUserAgent());
+        if (!"https".equalsIgnoreCase(uri.getScheme())) {
+            // HTTP/2 over cleartext needs an Upgrade round trip that many servers mishandle.
+            builder.version(HttpClient.Version.HTTP_1_1);
+        }
+        return builder;
+    }
+
+    private <T> HttpResponse<T> recorded(HttpResponse<T> response) {
+        URI uri = response.uri();
+        statistics.recordResponse(Hosts.hostOf(uri.toString()), response.version(), "https".equalsIgnoreCase(uri.getScheme()));
+        return response;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static SSLContext defaultSslContext() {
+        try {
+            return SSLContext.getDefault();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("No default TLS context available", ex);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.webcrawler.backend.crawler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * The Allow/Disallow rules of a robots.txt that apply to this crawler, compiled once so that
+ * checking a URL is a scan over a few prefix or wildcard matchers. Matching follows RFC 9309:
+ * the longest matching rule wins and Allow wins over Disallow on a tie.
+ */
+public final class RobotsRules {
+
+    public static final RobotsRules ALLOW_ALL = new RobotsRules(List.of(), null, List.of());
+    /**
+     * Stands in for a robots.txt that could not be fetched because of a network error or a server
+     * error; nothing is allowed until it has been fetched again.
+     */
+    public static final RobotsRules UNAVAILABLE = new RobotsRules(List.of(Rule.compile("/", false)), null, List.of());
+
+    /** Robots files larger than this are truncated, as permitted by RFC 9309. */
+    private static final int MAX_CONTENT_LENGTH = 500 * 1024;
+
+    private final List<Rule> rules;
+    private final Duration crawlDelay;
+    private final List<String> sitemaps;
+
+    private RobotsRules(List<Rule> rules, Duration crawlDelay, List<String> sitemaps) {
+        this.rules = rules;
+        this.crawlDelay = crawlDelay;
+        this.sitemaps = sitemaps;
+    }
+
+    /**
+     * Parses a robots.txt body and keeps the group that best matches {@code userAgent}: the group
+     * naming the longest product token contained in it, otherwise the {@code *} group.
+     */
+    public static RobotsRules parse(String content, String userAgent) {
+        if (content == null || content.isEmpty()) {
+            return ALLOW_ALL;
+        }
+        if (content.length() > MAX_CONTENT_LENGTH) {
+            content = content.substring(0, MAX_CONTENT_LENGTH);
+        }
+        String agent = productToken(userAgent);
+
+        List<Rule> wildcardRules = new ArrayList<>();
+        Duration wildcardDelay = null;
+        List<Rule> specificRules = new ArrayList<>();
+        Duration specificDelay = null;
+        int specificLength = -1;
+        List<String> sitemaps = new ArrayList<>();
+
+        // State of the group currently being read; a group is one or more user-agent lines
+        // followed by its rules.
+        boolean inAgentLines = false;
+        boolean groupIsWildcard = false;
+        int groupMatchLength = -1;
+
+        for (String rawLine : content.split("\r\n|\r|\n")) {
+            int comment = rawLine.indexOf('#');
+            String line = (comment >= 0 ? rawLine.substring(0, comment) : rawLine).trim();
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                continue;
+            }
+            String key = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+
+            if (key.equals("user-agent")) {
+                if (!inAgentLines) {
+                    groupIsWildcard = false;
+                    groupMatchLength = -1;
+                    inAgentLines = true;
+                }
+                String token = value.toLowerCase(Locale.ROOT);
+                if (token.equals("*")) {
+                    groupIsWildcard = true;
+                } else if (!token.isEmpty() && agent.contains(token)) {
+                    groupMatchLength = Math.max(groupMatchLength, token.length());
+                }
+                continue;
+            }
+            inAgentLines = false;
+            if (key.equals("sitemap")) {
+                // Sitemap lines are not part of any group and apply to every crawler.
+                if (!value.isEmpty()) {
+                    sitemaps.add(value);
+                }
+                continue;
+            }
+
+            boolean specific = groupMatchLength >= 0;
+            if (specific && groupMatchLength > specificLength) {
+                // A more specific group replaces whatever a shorter token matched before.
+                specificRules.clear();
+                specificDelay = null;
+                specificLength = groupMatchLength;
+            }
+            boolean collectSpecific = specific && groupMatchLength == specificLength;
+            if (!collectSpecific && !groupIsWildcard) {
+                continue;
+            }
+
+            switch (key) {
+                case "allow", "disallow" -> {
+                    if (value.isEmpty()) {
+                        continue;
+                    }
+                    Rule rule = Rule.compile(value, key.equals("allow"));
+                    if (collectSpecific) {
+                        specificRules.add(rule);
+                    } else {
+                        wildcardRules.add(rule);
+                    }
+                }
+                case "crawl-delay" -> {
+                    Duration delay = parseDelay(value);
+                    if (delay == null) {
+                        continue;
+                    }
+                    if (collectSpecific) {
+                        specificDelay = delay;
+                    } else {
+                        wildcardDelay = delay;
+                    }
+                }
+                default -> {
+                    // Unknown directives do not affect access rules.
+                }
+            }
+        }
+
+        List<Rule> selected = specificLength >= 0 ? specificRules : wildcardRules;
+        Duration delay = specificLength >= 0 ? specificDelay : wildcardDelay;
+        if (selected.isEmpty() && delay == null && sitemaps.isEmpty()) {
+            return ALLOW_ALL;
+        }
+        // Longest rule first, Allow before Disallow on equal length: the first match decides.
+        selected.sort(Comparator.comparingInt(Rule::length).reversed().thenComparing(rule -> !rule.allow()));
+        return new RobotsRules(List.copyOf(selected), delay, List.copyOf(sitemaps));
+    }
+
+    /**
+     * Checks a URL path (including its query string) against the compiled rules.
+     */
+    public boolean isAllowed(String pathAndQuery) {
+        String path = pathAndQuery == null || pathAndQuery.isEmpty() ? "/" : pathAndQuery;
+        if (path.equals("/robots.txt")) {
+            return true;
+        }
+        for (Rule rule : rules) {
+            if (rule.matches(path)) {
+                return rule.allow();
+            }
+        }
+        return true;
+    }
+
+    public Optional<Duration> getCrawlDelay() {
+        return Optional.ofNullable(crawlDelay);
+    }
+
+    /**
+     * Sitemap URLs listed in the file, in order of appearance.
+     */
+    public List<String> getSitemaps() {
+        return sitemaps;
+    }
+
+    private static String productToken(String userAgent) {
+        if (userAgent == null) {
+            return "";
+        }
+        String token = userAgent.trim();
+        int end = 0;
+        while (end < token.length() && (Character.isLetterOrDigit(token.charAt(end)) || token.charAt(end) == '-' || token.charAt(end) == '_')) {
+            end++;
+        }
+        return token.substring(0, end).toLowerCase(Locale.ROOT);
+    }
+
+    private static Duration parseDelay(String value) {
+        try {
+            double seconds = Double.parseDouble(value);
+            if (seconds < 0 || Double.isNaN(seconds) || Double.isInfinite(seconds)) {
+                return null;
+            }
+            return Duration.ofMillis((long) (seconds * 1000));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * One Allow or Disallow line. Patterns without wildcards compare as a plain prefix; others are
+     * split on {@code *} into literal segments that are located left to right.
+     */
+    private record Rule(String pattern, String[] segments, boolean anchored, boolean allow) {
+
+        static Rule compile(String pattern, boolean allow) {
+            boolean anchored = pattern.endsWith("$");
+            String body = anchored ? pattern.substring(0, pattern.length() - 1) : pattern;
+            String[] segments = body.indexOf('*') >= 0 || anchored ? body.split("\\*", -1) : null;
+            return new Rule(pattern, segments, anchored, allow);
+        }
+
+        int length() {
+            return pattern.length();
+        }
+
+        boolean matches(String path) {
+            if (segments == null) {
+                return path.startsWith(pattern);
+            }
+            if (!path.startsWith(segments[0])) {
+                return false;
+            }
+            int position = segments[0].length();
+            int last = segments.length - 1;
+            for (int i = 1; i < last; i++) {
+                int found = path.indexOf(segments[i], position);
+                if (found < 0) {
+                    return false;
+                }
+                position = found + segments[i].length();
+            }
+            if (last == 0) {
+                return !anchored || path.length() == position;
+            }
+            String tail = segments[last];
+            if (anchored) {
+                return path.length() - tail.length() >= position && path.endsWith(tail);
+            }
+            return path.indexOf(tail, position) >= 0;
+        }
+    }
+}
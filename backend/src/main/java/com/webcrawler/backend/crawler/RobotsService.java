@@ -0,0 +1,175 @@
+package com.webcrawler.backend.crawler;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fetches robots.txt once per origin and keeps the compiled rules in a bounded LRU cache with a
+ * TTL. Concurrent lookups for an origin that is being fetched share the same pending request. A
+ * robots.txt that could not be fetched because of a network or server error makes the origin
+ * {@link Access#UNAVAILABLE} only until the shorter error TTL runs out, so its pages are retried
+ * rather than treated as disallowed.
+ */
+@Component
+public class RobotsService {
+
+    private static final Logger log = LoggerFactory.getLogger(RobotsService.class);
+
+    private final CrawlerProperties.Robots settings;
+    private final String userAgent;
+    private final PageFetcher pageFetcher;
+    private final Map<String, CacheEntry> cache;
+
+    public RobotsService(CrawlerProperties crawlerProperties, PageFetcher pageFetcher) {
+        this.settings = crawlerProperties.getRobots();
+        this.userAgent = crawlerProperties.getFetch().getUserAgent();
+        this.pageFetcher = pageFetcher;
+        int maxEntries = settings.getCacheSize();
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public Access access(String url) {
+        return accessAsync(url).join();
+    }
+
+    public CompletableFuture<Access> accessAsync(String url) {
+        return rulesFor(url).thenApply(rules -> {
+            if (rules == RobotsRules.UNAVAILABLE) {
+                return Access.UNAVAILABLE;
+            }
+            return rules.isAllowed(pathOf(url)) ? Access.ALLOWED : Access.DISALLOWED;
+        });
+    }
+
+    /** Time after which an unavailable robots.txt is fetched again. */
+    public Duration unavailableRetryDelay() {
+        return settings.getErrorTtl();
+    }
+
+    /**
+     * Returns the sitemaps the URL's origin lists in its robots.txt, fetching it if needed.
+     */
+    public CompletableFuture<List<String>> sitemapsFor(String url) {
+        return rulesFor(url).thenApply(RobotsRules::getSitemaps);
+    }
+
+    /**
+     * Returns the crawl delay of the URL's origin if its robots.txt is already cached. Never
+     * triggers a fetch, so it is safe to call on the dispatching thread.
+     */
+    public Optional<Duration> cachedCrawlDelay(String url) {
+        String origin = originOf(url);
+        if (!settings.isEnabled() || origin == null) {
+            return Optional.empty();
+        }
+        CacheEntry entry;
+        synchronized (cache) {
+            entry = cache.get(origin);
+        }
+        if (entry == null || !entry.rules().isDone() || entry.rules().isCompletedExceptionally()) {
+            return Optional.empty();
+        }
+        return entry.rules().join().getCrawlDelay();
+    }
+
+    private CompletableFuture<RobotsRules> rulesFor(String url) {
+        String origin = originOf(url);
+        if (!settings.isEnabled() || origin == null) {
+            return CompletableFuture.completedFuture(RobotsRules.ALLOW_ALL);
+        }
+        long now = System.nanoTime();
+        CompletableFuture<RobotsRules> pending;
+        synchronized (cache) {
+            CacheEntry entry = cache.get(origin);
+            if (entry != null && entry.expiresAt() - now > 0) {
+                return entry.rules();
+            }
+            pending = new CompletableFuture<>();
+            // Until the fetch finishes, the entry lives for the regular TTL; failures shorten it.
+            cache.put(origin, new CacheEntry(pending, now + settings.getCacheTtl().toNanos()));
+        }
+        fetch(origin, pending);
+        return pending;
+    }
+
+    private void fetch(String origin, CompletableFuture<RobotsRules> pending) {
+        pageFetcher.fetchTextAsync(origin + "/robots.txt", settings.getTimeout(), settings.getMaxSize().toBytes())
+            .handle((response, error) -> toRules(origin, response, error))
+            .thenAccept(pending::complete);
+    }
+
+    private RobotsRules toRules(String origin, HttpResponse<String> response, Throwable error) {
+        if (error != null) {
+            log.debug("Could not fetch robots.txt for {}: {}", origin, error.getMessage());
+            shortenTtl(origin);
+            return RobotsRules.UNAVAILABLE;
+        }
+        int status = response.statusCode();
+        if (status >= 200 && status < 300) {
+            return RobotsRules.parse(response.body(), userAgent);
+        }
+        if (status >= 400 && status < 500) {
+            // RFC 9309: an unavailable robots.txt means there are no restrictions.
+            return RobotsRules.ALLOW_ALL;
+        }
+        // Server errors mean the site is unreachable for now; stay away until the next attempt.
+        shortenTtl(origin);
+        return RobotsRules.UNAVAILABLE;
+    }
+
+    private void shortenTtl(String origin) {
+        long expiresAt = System.nanoTime() + settings.getErrorTtl().toNanos();
+        synchronized (cache) {
+            cache.computeIfPresent(origin, (key, entry) -> new CacheEntry(entry.rules(), expiresAt));
+        }
+    }
+
+    private static String originOf(String url) {
+        try {
+            URI uri = URI.create(url);
+            if (uri.getScheme() == null || uri.getHost() == null) {
+                return null;
+            }
+            String origin = uri.getScheme().toLowerCase(Locale.ROOT) + "://" + uri.getHost().toLowerCase(Locale.ROOT);
+            return uri.getPort() >= 0 ? origin + ":" + uri.getPort() : origin;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static String pathOf(String url) {
+        try {
+            URI uri = URI.create(url);
+            String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+            return uri.getRawQuery() == null ? path : path + "?" + uri.getRawQuery();
+        } catch (IllegalArgumentException ex) {
+            return "/";
+        }
+    }
+
+    public enum Access {
+        ALLOWED,
+        DISALLOWED,
+        /** The robots.txt could not be fetched just now; ask again after {@link #unavailableRetryDelay()}. */
+        UNAVAILABLE
+    }
+
+    private record CacheEntry(CompletableFuture<RobotsRules> rules, long expiresAt) {
+    }
+}
@@ -0,0 +1,249 @@
+package com.webcrawler.backend.crawler;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import com.webcrawler.backend.domain.CrawlJob;
+import com.webcrawler.backend.repository.CrawlTaskRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Per-job record of the URLs this node knows to be queued, so that most "already seen?" checks
+ * for extracted links are answered without a query. Each job has a Bloom filter in front of an
+ * exact set of {@link UrlFingerprint}s; the exact set is capped, after which new URLs are only
+ * added to the Bloom filter. A job's filter is loaded from its tasks' URL hashes the first time
+ * it is used on this node, and only the most recently used jobs are kept.
+ * <p>
+ * Other nodes queue URLs too, so anything not known to be seen still has to be confirmed against
+ * the database, but that is one batched query per page instead of one per link. Once a job
+ * outgrows the exact set, a Bloom false positive (at about the configured rate) drops a URL
+ * that was never queued.
+ */
+@Component
+public class SeenUrlFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SeenUrlFilter.class);
+
+    private final CrawlTaskRepository crawlTaskRepository;
+    private final CrawlerProperties.SeenUrls settings;
+    private final Map<UUID, JobFilter> jobs;
+
+    public SeenUrlFilter(CrawlTaskRepository crawlTaskRepository, CrawlerProperties crawlerProperties) {
+        this.crawlTaskRepository = crawlTaskRepository;
+        this.settings = crawlerProperties.getSeenUrls();
+        int maxJobs = settings.getMaxJobs();
+        this.jobs = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, JobFilter> eldest) {
+                return size() > maxJobs;
+            }
+        };
+    }
+
+    /**
+     * Returns the URLs that are not known to be queued for the job, in their original order.
+     * These still need to be checked against the database.
+     */
+    public List<String> filterUnseen(CrawlJob job, Collection<String> urls) {
+        return filterUnseen(job.getId(), job.getMaxPages(), urls);
+    }
+
+    /**
+     * Same as {@link #filterUnseen(CrawlJob, Collection)}, for callers that only hold the job's id
+     * and page limit, such as a fetch running outside the transaction that loaded the job.
+     */
+    public List<String> filterUnseen(UUID jobId, int maxPages, Collection<String> urls) {
+        JobFilter filter = filterFor(jobId, maxPages);
+        List<String> unseen = new ArrayList<>(urls.size());
+        synchronized (filter) {
+            for (String url : urls) {
+                if (!filter.contains(UrlFingerprint.of(url))) {
+                    unseen.add(url);
+                }
+            }
+        }
+        return unseen;
+    }
+
+    /**
+     * Records URLs as queued for the job. If the surrounding transaction rolls back, the job's
+     * filter is dropped and loaded again on next use so no URL stays wrongly marked as seen.
+     */
+    public void record(CrawlJob job, Collection<String> urls) {
+        if (urls.isEmpty()) {
+            return;
+        }
+        JobFilter filter = filterFor(job.getId(), job.getMaxPages());
+        synchronized (filter) {
+            for (String url : urls) {
+                filter.add(UrlFingerprint.of(url));
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            UUID jobId = job.getId();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        invalidate(jobId);
+                    }
+                }
+            });
+        }
+    }
+
+    public void invalidate(UUID jobId) {
+        synchronized (jobs) {
+            jobs.remove(jobId);
+        }
+    }
+
+    private JobFilter filterFor(UUID jobId, int maxPages) {
+        JobFilter filter;
+        synchronized (jobs) {
+            filter = jobs.computeIfAbsent(jobId, ignored -> new JobFilter(
+                Math.min(Math.max(maxPages, 1024), settings.getBloomCapacity()),
+                settings.getFalsePositiveRate(),
+                settings.getExactCapacity()
+            ));
+        }
+        synchronized (filter) {
+            if (!filter.warmed) {
+                List<Long> urlHashes = crawlTaskRepository.findUrlHashesByJobId(jobId);
+                urlHashes.forEach(filter::add);
+                filter.warmed = true;
+                log.debug("Loaded {} seen URLs for job {}", urlHashes.size(), jobId);
+            }
+        }
+        return filter;
+    }
+
+    /**
+     * Bloom filter plus exact fingerprint set of one job. A Bloom miss is a definite miss; a hit
+     * is only trusted once the exact set confirms it, or once the exact set is full and can no
+     * longer tell.
+     */
+    static final class JobFilter {
+
+        private final long[] bloom;
+        private final int bloomBits;
+        private final int hashes;
+        private final LongSet exact;
+        private boolean warmed;
+
+        JobFilter(int expectedUrls, double falsePositiveRate, int exactCapacity) {
+            double ln2 = Math.log(2);
+            long bits = (long) Math.ceil(-expectedUrls * Math.log(falsePositiveRate) / (ln2 * ln2));
+            this.bloomBits = (int) Math.min(Math.max(bits, 64), Integer.MAX_VALUE - 63);
+            this.bloom = new long[(bloomBits + 63) >>> 6];
+            this.hashes = Math.max(1, (int) Math.round((double) bloomBits / expectedUrls * ln2));
+            this.exact = new LongSet(exactCapacity);
+        }
+
+        boolean contains(long fingerprint) {
+            if (!bloomContains(fingerprint)) {
+                return false;
+            }
+            return exact.contains(fingerprint) || exact.isFull();
+        }
+
+        void add(long fingerprint) {
+            int h1 = (int) fingerprint;
+            int h2 = (int) (fingerprint >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bloomBits);
+                bloom[bit >>> 6] |= 1L << bit;
+            }
+            exact.add(fingerprint);
+        }
+
+        private boolean bloomContains(long fingerprint) {
+            // Kirsch-Mitzenmacher: k probes derived from the two halves of one 64-bit hash.
+            int h1 = (int) fingerprint;
+            int h2 = (int) (fingerprint >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bloomBits);
+                if ((bloom[bit >>> 6] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Open-addressing set of non-zero longs with linear probing, stopping at a fixed capacity.
+     */
+    static final class LongSet {
+
+        private final int capacity;
+        private long[] slots = new long[64];
+        private int size;
+        private boolean full;
+
+        LongSet(int capacity) {
+            this.capacity = capacity;
+        }
+
+        boolean contains(long value) {
+            long key = value == 0 ? 1 : value;
+            int mask = slots.length - 1;
+            for (int i = (int) key & mask; slots[i] != 0; i = (i + 1) & mask) {
+                if (slots[i] == key) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void add(long value) {
+            if (contains(value)) {
+                return;
+            }
+            if (size >= capacity) {
+                full = true;
+                return;
+            }
+            if ((size + 1) * 2 > slots.length) {
+                rehash(slots.length * 2);
+            }
+            insert(slots, value == 0 ? 1 : value);
+            size++;
+        }
+
+        boolean isFull() {
+            return full;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void rehash(int length) {
+            long[] grown = new long[length];
+            for (long key : slots) {
+                if (key != 0) {
+                    insert(grown, key);
+                }
+            }
+            slots = grown;
+        }
+
+        private static void insert(long[] table, long key) {
+            int mask = table.length - 1;
+            int i = (int) key & mask;
+            while (table[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            table[i] = key;
+        }
+    }
+}
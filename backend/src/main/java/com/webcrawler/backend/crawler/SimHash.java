@@ -0,0 +1,90 @@
+package com.webcrawler.backend.crawler;
+
+/**
+ * Incremental 64-bit SimHash of a page's text over three-word shingles. Words are runs of letters
+ * and digits, compared case-insensitively. Pages whose texts share most shingles end up with
+ * fingerprints a few bits apart, which is what near-duplicate lookups rely on.
+ */
+public final class SimHash {
+
+    private static final int SHINGLE_SIZE = 3;
+
+    private final int[] weights = new int[64];
+    private final long[] window = new long[SHINGLE_SIZE];
+    private final StringBuilder word = new StringBuilder(32);
+    private int words;
+    private int shingles;
+
+    public void append(char ch) {
+        if (Character.isLetterOrDigit(ch)) {
+            word.append(Character.toLowerCase(ch));
+        } else if (!word.isEmpty()) {
+            endWord();
+        }
+    }
+
+    public void append(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            append(text.charAt(i));
+        }
+    }
+
+    /**
+     * Returns the fingerprint, or {@code null} if the text had no words. Texts shorter than one
+     * shingle are fingerprinted by their words alone.
+     */
+    public Long finish() {
+        if (!word.isEmpty()) {
+            endWord();
+        }
+        if (shingles == 0) {
+            if (words == 0) {
+                return null;
+            }
+            for (int i = SHINGLE_SIZE - words; i < SHINGLE_SIZE; i++) {
+                add(mix(window[i]));
+            }
+        }
+        long fingerprint = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    private void endWord() {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < word.length(); i++) {
+            hash = (hash ^ word.charAt(i)) * 0x100000001b3L;
+        }
+        word.setLength(0);
+        System.arraycopy(window, 1, window, 0, SHINGLE_SIZE - 1);
+        window[SHINGLE_SIZE - 1] = hash;
+        words++;
+        if (words >= SHINGLE_SIZE) {
+            add(mix(Long.rotateLeft(window[0], 2) ^ Long.rotateLeft(window[1], 1) ^ window[2]));
+            shingles++;
+        }
+    }
+
+    private void add(long hash) {
+        for (int bit = 0; bit < 64; bit++) {
+            weights[bit] += ((hash >>> bit) & 1) != 0 ? 1 : -1;
+        }
+    }
+
+    private static long mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,98 @@
+package com.webcrawler.backend.crawler;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Reads sitemap and sitemap index files with a StAX pull parser, handing each {@code <loc>} to a
+ * {@link Handler} as soon as it is read, so a file never has to fit in memory. Gzipped files are
+ * recognised by their magic bytes, whether they came as {@code .xml.gz} or with a gzip content
+ * encoding. DTDs and external entities are disabled.
+ */
+public final class SitemapParser {
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private SitemapParser() {
+    }
+
+    /**
+     * Callbacks for the entries of a file. Returning {@code false} stops parsing.
+     */
+    public interface Handler {
+
+        /** A page listed in a {@code <urlset>}. */
+        boolean page(String loc);
+
+        /** A child sitemap listed in a {@code <sitemapindex>}. */
+        boolean sitemap(String loc);
+    }
+
+    public static void parse(InputStream input, Handler handler) throws IOException {
+        InputStream source = decompressIfGzipped(input);
+        XMLStreamReader reader = null;
+        try {
+            reader = FACTORY.createXMLStreamReader(source);
+            boolean index = false;
+            boolean rootSeen = false;
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                String name = reader.getLocalName();
+                if (!rootSeen) {
+                    rootSeen = true;
+                    index = name.equals("sitemapindex");
+                    continue;
+                }
+                if (!name.equals("loc")) {
+                    continue;
+                }
+                String loc = reader.getElementText().trim();
+                if (loc.isEmpty()) {
+                    continue;
+                }
+                boolean more = index ? handler.sitemap(loc) : handler.page(loc);
+                if (!more) {
+                    return;
+                }
+            }
+        } catch (XMLStreamException ex) {
+            throw new IOException("Malformed sitemap: " + ex.getMessage(), ex);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                    // Nothing left to release beyond the stream the caller closes.
+                }
+            }
+        }
+    }
+
+    private static InputStream decompressIfGzipped(InputStream input) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(input, 8192);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
+        if (first == 0x1f && second == 0x8b) {
+            return new GZIPInputStream(buffered, 8192);
+        }
+        return buffered;
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+}
@@ -0,0 +1,358 @@
+package com.webcrawler.backend.crawler;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.jsoup.parser.Parser;
+
+/**
+ * Pulls the title, the {@code <base>} and the anchor hrefs out of an HTML stream in a single pass,
+ * without building a DOM. Comments and the raw text of {@code <script>} and {@code <style>} are
+ * skipped; everything else that is not one of those tags is passed over. Hrefs are resolved the
+ * way {@code abs:href} would resolve them; when {@code collectLinks} is off they are only counted.
+ * The text between tags is fed to a {@link ContentFingerprint} and a {@link SimHash} as it streams
+ * past; entities are left as written, so both are stable for a page but differ from ones computed
+ * over Jsoup's text.
+ */
+public final class StreamingLinkExtractor {
+
+    /** How far into the body a {@code <meta>} charset declaration is looked for. */
+    private static final int CHARSET_SNIFF_LIMIT = 1024;
+
+    private static final Pattern META_CHARSET = Pattern.compile(
+        "<meta[^>]+charset\\s*=\\s*[\"']?\\s*([A-Za-z0-9._:-]+)", Pattern.CASE_INSENSITIVE);
+
+    private StreamingLinkExtractor() {
+    }
+
+    public static Extracted extract(InputStream input, Charset declaredCharset, String url, boolean collectLinks) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(input, 8192);
+        Charset charset = declaredCharset != null ? declaredCharset : sniffCharset(buffered);
+        Scanner scanner = new Scanner(new InputStreamReader(buffered, charset));
+
+        String title = null;
+        String base = url;
+        boolean baseSeen = false;
+        int linkCount = 0;
+        List<String> links = collectLinks ? new ArrayList<>() : List.of();
+        ContentFingerprint fingerprint = new ContentFingerprint();
+        SimHash simHash = new SimHash();
+
+        int c;
+        while ((c = scanner.read()) >= 0) {
+            if (c != '<') {
+                fingerprint.append((char) c);
+                simHash.append((char) c);
+                continue;
+            }
+            // Tags separate words, as block elements would when rendered.
+            fingerprint.append(' ');
+            simHash.append(' ');
+            int next = scanner.peek();
+            if (next == '!') {
+                scanner.read();
+                if (scanner.consume("--")) {
+                    scanner.skipPast("-->");
+                } else {
+                    scanner.skipPast(">");
+                }
+                continue;
+            }
+            if (next == '/' || next == '?') {
+                scanner.skipPast(">");
+                continue;
+            }
+            if (!isAsciiLetter(next)) {
+                continue;
+            }
+
+            Tag tag = scanner.readTag();
+            switch (tag.name) {
+                case "a" -> {
+                    if (tag.href != null) {
+                        linkCount++;
+                        if (collectLinks) {
+                            links.add(resolve(base, tag.href));
+                        }
+                    }
+                }
+                case "base" -> {
+                    if (!baseSeen && tag.href != null) {
+                        baseSeen = true;
+                        String resolved = resolve(url, tag.href);
+                        if (!resolved.isEmpty()) {
+                            base = resolved;
+                        }
+                    }
+                }
+                case "title" -> {
+                    String text = scanner.readRawText("title");
+                    if (title == null && !tag.selfClosing) {
+                        title = normalizeWhitespace(Parser.unescapeEntities(text, false));
+                    }
+                }
+                case "script", "style" -> {
+                    if (!tag.selfClosing) {
+                        scanner.readRawText(tag.name);
+                    }
+                }
+                default -> {
+                    // Other elements carry nothing the crawler keeps.
+                }
+            }
+        }
+        return new Extracted(title != null ? title : "", linkCount, links, fingerprint.finish(), simHash.finish());
+    }
+
+    /**
+     * Title, number of anchors with an href, their absolute URLs if they were collected, and the
+     * exact and SimHash fingerprints of the page text ({@code null} when there was no text).
+     */
+    public record Extracted(String title, int linkCount, List<String> links, Long contentHash, Long simHash) {
+    }
+
+    private static Charset sniffCharset(BufferedInputStream input) throws IOException {
+        input.mark(CHARSET_SNIFF_LIMIT);
+        byte[] head = input.readNBytes(CHARSET_SNIFF_LIMIT);
+        input.reset();
+        if (head.length >= 2 && (head[0] & 0xFF) == 0xFE && (head[1] & 0xFF) == 0xFF) {
+            return StandardCharsets.UTF_16BE;
+        }
+        if (head.length >= 2 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xFE) {
+            return StandardCharsets.UTF_16LE;
+        }
+        Matcher matcher = META_CHARSET.matcher(new String(head, StandardCharsets.ISO_8859_1));
+        if (matcher.find()) {
+            try {
+                return Charset.forName(matcher.group(1));
+            } catch (IllegalArgumentException ignored) {
+                // Unknown or malformed name; fall through to the default.
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    /**
+     * Resolves an href against the base URL. Returns an empty string when it cannot be resolved,
+     * matching what {@code abs:href} gives for such links.
+     */
+    static String resolve(String base, String href) {
+        String relative = href.strip();
+        if (relative.isEmpty()) {
+            return base;
+        }
+        try {
+            return resolveStrict(base, relative);
+        } catch (IllegalArgumentException ex) {
+            try {
+                return resolveStrict(base, relative.replace(" ", "%20").replace("|", "%7C"));
+            } catch (IllegalArgumentException again) {
+                return "";
+            }
+        }
+    }
+
+    private static String resolveStrict(String base, String relative) {
+        URI baseUri = URI.create(base);
+        if (baseUri.getHost() != null && (baseUri.getRawPath() == null || baseUri.getRawPath().isEmpty())) {
+            baseUri = baseUri.resolve("/");
+        }
+        if (relative.startsWith("?")) {
+            // RFC 3986 keeps the whole base path for a query-only reference; URI.resolve drops the last segment.
+            relative = baseUri.getRawPath() + relative;
+        }
+        return baseUri.resolve(URI.create(relative)).toString();
+    }
+
+    private static String normalizeWhitespace(String text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (Character.isWhitespace(ch) || ch == '\u00A0') {
+                pendingSpace = normalized.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                }
+                normalized.append(ch);
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static boolean isAsciiLetter(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private record Tag(String name, String href, boolean selfClosing) {
+    }
+
+    /**
+     * A small buffered reader with one character of lookahead and the few scanning primitives the
+     * extractor needs.
+     */
+    private static final class Scanner {
+
+        private final Reader reader;
+        private final char[] buffer = new char[8192];
+        private int position;
+        private int limit;
+
+        Scanner(Reader reader) {
+            this.reader = reader;
+        }
+
+        int read() throws IOException {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            return buffer[position++];
+        }
+
+        int peek() throws IOException {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            return buffer[position];
+        }
+
+        boolean consume(String expected) throws IOException {
+            for (int i = 0; i < expected.length(); i++) {
+                if (peek() != expected.charAt(i)) {
+                    return false;
+                }
+                read();
+            }
+            return true;
+        }
+
+        void skipPast(String terminator) throws IOException {
+            int matched = 0;
+            int c;
+            while ((c = read()) >= 0) {
+                if (c == terminator.charAt(matched)) {
+                    matched++;
+                    if (matched == terminator.length()) {
+                        return;
+                    }
+                } else {
+                    matched = c == terminator.charAt(0) ? 1 : 0;
+                }
+            }
+        }
+
+        /**
+         * Reads a start tag whose {@code <} has been consumed, up to and including its {@code >}.
+         * Only the name and the href attribute are kept.
+         */
+        Tag readTag() throws IOException {
+            String name = readName().toLowerCase(Locale.ROOT);
+            String href = null;
+            boolean selfClosing = false;
+            while (true) {
+                int c = read();
+                if (c < 0 || c == '>') {
+                    break;
+                }
+                if (c == '/') {
+                    selfClosing = peek() == '>';
+                    continue;
+                }
+                if (Character.isWhitespace(c)) {
+                    continue;
+                }
+                StringBuilder attribute = new StringBuilder().append((char) c);
+                attribute.append(readName());
+                skipWhitespace();
+                String value = "";
+                if (peek() == '=') {
+                    read();
+                    skipWhitespace();
+                    value = readAttributeValue();
+                }
+                if (href == null && attribute.toString().equalsIgnoreCase("href")) {
+                    href = Parser.unescapeEntities(value, true);
+                }
+            }
+            return new Tag(name, href, selfClosing);
+        }
+
+        /**
+         * Returns the text up to the closing tag of a raw-text element and consumes that tag.
+         */
+        String readRawText(String element) throws IOException {
+            StringBuilder text = new StringBuilder();
+            String closing = "</" + element;
+            int c;
+            while ((c = read()) >= 0) {
+                text.append((char) c);
+                int start = text.length() - closing.length();
+                if (start >= 0 && Character.toLowerCase(c) == closing.charAt(closing.length() - 1)
+                    && text.substring(start).equalsIgnoreCase(closing)) {
+                    int after = peek();
+                    if (after < 0 || after == '>' || after == '/' || Character.isWhitespace(after)) {
+                        skipPast(">");
+                        text.setLength(start);
+                        return text.toString();
+                    }
+                }
+            }
+            return text.toString();
+        }
+
+        private String readName() throws IOException {
+            StringBuilder name = new StringBuilder();
+            int c;
+            while ((c = peek()) >= 0 && c != '>' && c != '/' && c != '=' && !Character.isWhitespace(c)) {
+                name.append((char) read());
+            }
+            return name.toString();
+        }
+
+        private String readAttributeValue() throws IOException {
+            int quote = peek();
+            StringBuilder value = new StringBuilder();
+            if (quote == '"' || quote == '\'') {
+                read();
+                int c;
+                while ((c = read()) >= 0 && c != quote) {
+                    value.append((char) c);
+                }
+                return value.toString();
+            }
+            int c;
+            while ((c = peek()) >= 0 && c != '>' && !Character.isWhitespace(c)) {
+                value.append((char) read());
+            }
+            return value.toString();
+        }
+
+        private void skipWhitespace() throws IOException {
+            while (peek() >= 0 && Character.isWhitespace(peek())) {
+                read();
+            }
+        }
+
+        private boolean fill() throws IOException {
+            int read = reader.read(buffer, 0, buffer.length);
+            if (read <= 0) {
+                return false;
+            }
+            position = 0;
+            limit = read;
+            return true;
+        }
+    }
+}
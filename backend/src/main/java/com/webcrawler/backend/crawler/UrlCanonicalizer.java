@@ -0,0 +1,444 @@
+package com.webcrawler.backend.crawler;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import java.net.IDN;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rewrites absolute http(s) URLs into a single spelling so that variants of the same address are
+ * only crawled once: the scheme and host are lowercased, default ports, userinfo, dot segments
+ * and a bare root path removed, percent-encoding normalized, tracking and session parameters dropped and the query
+ * sorted. Every extracted link goes through here, so the URL is scanned once into a
+ * {@link StringBuilder} and malformed input yields {@code null} instead of an exception.
+ */
+@Component
+public class UrlCanonicalizer {
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    private static final boolean[] UNRESERVED = charTable("-._~");
+    private static final boolean[] PATH_CHARS = charTable("-._~!$&'()*+,;=:@");
+    private static final boolean[] QUERY_CHARS = charTable("-._~!$&'()*+,;=:@/?");
+
+    private final boolean stripFragment;
+    private final boolean lowercaseHost;
+    private final boolean removeDefaultPort;
+    private final boolean normalizeEncoding;
+    private final boolean sortQuery;
+    private final Set<String> removedNames = new HashSet<>();
+    private final List<String> removedPrefixes = new ArrayList<>();
+
+    public UrlCanonicalizer(CrawlerProperties crawlerProperties) {
+        CrawlerProperties.Canonicalization settings = crawlerProperties.getCanonicalization();
+        this.stripFragment = settings.isStripFragment();
+        this.lowercaseHost = settings.isLowercaseHost();
+        this.removeDefaultPort = settings.isRemoveDefaultPort();
+        this.normalizeEncoding = settings.isNormalizeEncoding();
+        this.sortQuery = settings.isSortQuery();
+        for (String name : settings.getRemoveParameters()) {
+            String normalized = name.trim().toLowerCase(Locale.ROOT);
+            if (normalized.endsWith("*")) {
+                removedPrefixes.add(normalized.substring(0, normalized.length() - 1));
+            } else if (!normalized.isEmpty()) {
+                removedNames.add(normalized);
+            }
+        }
+    }
+
+    /**
+     * Returns the canonical form of an absolute http or https URL, or {@code null} if the URL has
+     * another scheme or cannot be requested, e.g. because the host or port is invalid.
+     */
+    public String canonicalize(String url) {
+        if (url == null) {
+            return null;
+        }
+        int start = 0;
+        int end = url.length();
+        while (start < end && url.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && url.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        boolean secure;
+        int pos;
+        if (url.regionMatches(true, start, "https://", 0, 8)) {
+            secure = true;
+            pos = start + 8;
+        } else if (url.regionMatches(true, start, "http://", 0, 7)) {
+            secure = false;
+            pos = start + 7;
+        } else {
+            return null;
+        }
+        StringBuilder out = new StringBuilder(end - start + 8);
+        out.append(secure ? "https://" : "http://");
+
+        pos = appendAuthority(out, url, pos, end, secure);
+        if (pos < 0) {
+            return null;
+        }
+        pos = appendPath(out, url, pos, end);
+        if (pos < end && url.charAt(pos) == '?') {
+            pos = appendQuery(out, url, pos + 1, end);
+        }
+        if (pos < end && url.charAt(pos) == '#' && !stripFragment && pos + 1 < end) {
+            out.append('#');
+            for (int i = pos + 1; i < end; ) {
+                i = appendEncoded(out, url, i, end, QUERY_CHARS);
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Appends host and port and returns the index where the path starts, or -1 if the authority
+     * is not usable.
+     */
+    private int appendAuthority(StringBuilder out, String url, int pos, int end, boolean secure) {
+        int authorityEnd = pos;
+        while (authorityEnd < end) {
+            char c = url.charAt(authorityEnd);
+            if (c == '/' || c == '\\' || c == '?' || c == '#') {
+                break;
+            }
+            authorityEnd++;
+        }
+        int hostStart = pos;
+        for (int i = authorityEnd - 1; i >= pos; i--) {
+            if (url.charAt(i) == '@') {
+                // Credentials are never sent by the fetcher and would only split the same page into variants.
+                hostStart = i + 1;
+                break;
+            }
+        }
+        int hostEnd;
+        int portStart;
+        if (hostStart < authorityEnd && url.charAt(hostStart) == '[') {
+            int close = url.indexOf(']', hostStart);
+            if (close < 0 || close >= authorityEnd || !isIpv6Literal(url, hostStart + 1, close)) {
+                return -1;
+            }
+            hostEnd = close + 1;
+            if (hostEnd < authorityEnd && url.charAt(hostEnd) != ':') {
+                return -1;
+            }
+            portStart = hostEnd;
+            appendLowercase(out, url, hostStart, hostEnd);
+        } else {
+            hostEnd = hostStart;
+            boolean ascii = true;
+            while (hostEnd < authorityEnd && url.charAt(hostEnd) != ':') {
+                char c = url.charAt(hostEnd);
+                if (c >= 0x80) {
+                    ascii = false;
+                } else if (!isHostChar(c)) {
+                    return -1;
+                }
+                hostEnd++;
+            }
+            portStart = hostEnd;
+            if (hostEnd > hostStart && url.charAt(hostEnd - 1) == '.') {
+                hostEnd--;
+            }
+            if (hostEnd == hostStart) {
+                return -1;
+            }
+            if (ascii) {
+                if (lowercaseHost) {
+                    appendLowercase(out, url, hostStart, hostEnd);
+                } else {
+                    out.append(url, hostStart, hostEnd);
+                }
+            } else if (!appendIdn(out, url.substring(hostStart, hostEnd))) {
+                return -1;
+            }
+        }
+
+        if (portStart < authorityEnd) {
+            int port = 0;
+            for (int i = portStart + 1; i < authorityEnd; i++) {
+                char c = url.charAt(i);
+                if (c < '0' || c > '9') {
+                    return -1;
+                }
+                port = port * 10 + (c - '0');
+                if (port > 65535) {
+                    return -1;
+                }
+            }
+            boolean empty = portStart + 1 == authorityEnd;
+            boolean defaultPort = port == (secure ? 443 : 80);
+            if (!empty && !(defaultPort && removeDefaultPort)) {
+                out.append(':').append(port);
+            }
+        }
+        return authorityEnd;
+    }
+
+    /**
+     * Appends the path, resolving {@code .} and {@code ..} segments as they are closed and
+     * dropping removed {@code ;name=value} parameters, and returns the index of the query or
+     * fragment.
+     */
+    private int appendPath(StringBuilder out, String url, int pos, int end) {
+        int pathStart = out.length();
+        out.append('/');
+        int segmentStart = out.length();
+        int i = pos;
+        if (i < end && (url.charAt(i) == '/' || url.charAt(i) == '\\')) {
+            i++;
+        }
+        while (i < end) {
+            char c = url.charAt(i);
+            if (c == '?' || c == '#') {
+                break;
+            }
+            if (c == '/' || c == '\\') {
+                segmentStart = closeSegment(out, pathStart, segmentStart, true);
+                i++;
+            } else if (c == ';' && isRemovedPathParameter(url, i + 1, end)) {
+                i++;
+                while (i < end && ";/\\?#".indexOf(url.charAt(i)) < 0) {
+                    i++;
+                }
+            } else {
+                i = appendEncoded(out, url, i, end, PATH_CHARS);
+            }
+        }
+        closeSegment(out, pathStart, segmentStart, false);
+        if (out.length() == pathStart + 1) {
+            // The root path is written as an empty one, the way seeds are usually typed.
+            out.setLength(pathStart);
+        }
+        return i;
+    }
+
+    private static int closeSegment(StringBuilder out, int pathStart, int segmentStart, boolean slash) {
+        int length = out.length() - segmentStart;
+        if (length == 1 && out.charAt(segmentStart) == '.') {
+            out.setLength(segmentStart);
+            return segmentStart;
+        }
+        if (length == 2 && out.charAt(segmentStart) == '.' && out.charAt(segmentStart + 1) == '.') {
+            out.setLength(segmentStart);
+            if (segmentStart > pathStart + 1) {
+                // segmentStart - 1 is the slash before "..", so look for the one before that.
+                out.setLength(out.lastIndexOf("/", segmentStart - 2) + 1);
+            }
+            return out.length();
+        }
+        if (slash) {
+            out.append('/');
+        }
+        return out.length();
+    }
+
+    /**
+     * Appends the parameters between {@code pos} and the fragment, without removed ones and
+     * sorted if configured, and returns the index of the fragment or the end.
+     */
+    private int appendQuery(StringBuilder out, String url, int pos, int end) {
+        int queryEnd = url.indexOf('#', pos);
+        if (queryEnd < 0 || queryEnd > end) {
+            queryEnd = end;
+        }
+        List<String> sorted = sortQuery ? new ArrayList<>() : null;
+        int mark = out.length();
+        out.append('?');
+        int paramStart = pos;
+        while (paramStart < queryEnd) {
+            int paramEnd = url.indexOf('&', paramStart);
+            if (paramEnd < 0 || paramEnd > queryEnd) {
+                paramEnd = queryEnd;
+            }
+            if (paramEnd > paramStart && !isRemoved(url, paramStart, nameEnd(url, paramStart, paramEnd))) {
+                if (sorted != null) {
+                    StringBuilder param = new StringBuilder(paramEnd - paramStart);
+                    for (int i = paramStart; i < paramEnd; ) {
+                        i = appendEncoded(param, url, i, paramEnd, QUERY_CHARS);
+                    }
+                    sorted.add(param.toString());
+                } else {
+                    if (out.length() > mark + 1) {
+                        out.append('&');
+                    }
+                    for (int i = paramStart; i < paramEnd; ) {
+                        i = appendEncoded(out, url, i, paramEnd, QUERY_CHARS);
+                    }
+                }
+            }
+            paramStart = paramEnd + 1;
+        }
+        if (sorted != null) {
+            // List.sort is stable, so repeated names keep the order the page gave them.
+            sorted.sort(UrlCanonicalizer::compareNames);
+            for (int i = 0; i < sorted.size(); i++) {
+                if (i > 0) {
+                    out.append('&');
+                }
+                out.append(sorted.get(i));
+            }
+        }
+        if (out.length() == mark + 1) {
+            out.setLength(mark);
+        }
+        return queryEnd;
+    }
+
+    /**
+     * Appends the character at {@code i} and returns the index after it. Illegal characters are
+     * always percent-encoded (as UTF-8) so the result can be requested; with
+     * {@code normalizeEncoding} escapes are uppercased and escaped unreserved characters decoded.
+     */
+    private int appendEncoded(StringBuilder out, String url, int i, int end, boolean[] allowed) {
+        char c = url.charAt(i);
+        if (c == '%') {
+            if (i + 2 < end && isHex(url.charAt(i + 1)) && isHex(url.charAt(i + 2))) {
+                if (!normalizeEncoding) {
+                    out.append(url, i, i + 3);
+                    return i + 3;
+                }
+                int value = Character.digit(url.charAt(i + 1), 16) << 4 | Character.digit(url.charAt(i + 2), 16);
+                if (value < 0x80 && UNRESERVED[value]) {
+                    out.append((char) value);
+                } else {
+                    appendEscape(out, value);
+                }
+                return i + 3;
+            }
+            out.append("%25");
+            return i + 1;
+        }
+        if (c < 0x80) {
+            if (allowed[c]) {
+                out.append(c);
+            } else {
+                appendEscape(out, c);
+            }
+            return i + 1;
+        }
+        int codePoint = url.codePointAt(i);
+        int next = i + Character.charCount(codePoint);
+        if (codePoint <= 0xFFFF && Character.isSurrogate((char) codePoint)) {
+            // An unpaired surrogate, which has no UTF-8 encoding.
+            codePoint = 0xFFFD;
+        }
+        if (codePoint < 0x800) {
+            appendEscape(out, 0xC0 | codePoint >> 6);
+        } else if (codePoint < 0x10000) {
+            appendEscape(out, 0xE0 | codePoint >> 12);
+            appendEscape(out, 0x80 | codePoint >> 6 & 0x3F);
+        } else {
+            appendEscape(out, 0xF0 | codePoint >> 18);
+            appendEscape(out, 0x80 | codePoint >> 12 & 0x3F);
+            appendEscape(out, 0x80 | codePoint >> 6 & 0x3F);
+        }
+        appendEscape(out, 0x80 | codePoint & 0x3F);
+        return next;
+    }
+
+    private boolean isRemovedPathParameter(String url, int start, int end) {
+        int nameEnd = start;
+        while (nameEnd < end && ";=/\\?#".indexOf(url.charAt(nameEnd)) < 0) {
+            nameEnd++;
+        }
+        return isRemoved(url, start, nameEnd);
+    }
+
+    private boolean isRemoved(String url, int start, int end) {
+        if (start == end || (removedNames.isEmpty() && removedPrefixes.isEmpty())) {
+            return false;
+        }
+        String name = url.substring(start, end).toLowerCase(Locale.ROOT);
+        if (removedNames.contains(name)) {
+            return true;
+        }
+        for (String prefix : removedPrefixes) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int nameEnd(String url, int start, int end) {
+        int equals = url.indexOf('=', start);
+        return equals < 0 || equals > end ? end : equals;
+    }
+
+    private static int compareNames(String a, String b) {
+        int aEnd = nameEnd(a, 0, a.length());
+        int bEnd = nameEnd(b, 0, b.length());
+        int length = Math.min(aEnd, bEnd);
+        for (int i = 0; i < length; i++) {
+            int diff = a.charAt(i) - b.charAt(i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return aEnd - bEnd;
+    }
+
+    private static boolean appendIdn(StringBuilder out, String host) {
+        try {
+            // Only reached for non-ASCII hosts, which are rare enough that the exception path does not matter.
+            out.append(IDN.toASCII(host, IDN.ALLOW_UNASSIGNED).toLowerCase(Locale.ROOT));
+            return true;
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    private static void appendLowercase(StringBuilder out, String url, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = url.charAt(i);
+            out.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+        }
+    }
+
+    private static void appendEscape(StringBuilder out, int value) {
+        out.append('%').append(HEX[value >> 4 & 0xF]).append(HEX[value & 0xF]);
+    }
+
+    private static boolean isIpv6Literal(String url, int start, int end) {
+        if (start == end) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = url.charAt(i);
+            if (!isHex(c) && c != ':' && c != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isHostChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '.' || c == '_';
+    }
+
+    private static boolean isHex(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    private static boolean[] charTable(String extra) {
+        boolean[] table = new boolean[128];
+        for (char c = 'a'; c <= 'z'; c++) {
+            table[c] = true;
+            table[c - 'a' + 'A'] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            table[c] = true;
+        }
+        for (char c : extra.toCharArray()) {
+            table[c] = true;
+        }
+        return table;
+    }
+}
@@ -0,0 +1,31 @@
+package com.webcrawler.backend.crawler;
+
+/**
+ * Fixed-width fingerprint of a canonical URL, stored as {@code url_hash} on tasks and results so
+ * that lookups and the per-job uniqueness constraint compare a {@code BIGINT} instead of a
+ * 2048-character string. At 64 bits, a job of a million URLs has a collision chance around
+ * 10<sup>-8</sup>.
+ */
+public final class UrlFingerprint {
+
+    private UrlFingerprint() {
+    }
+
+    /**
+     * FNV-1a over the URL's characters, finished with the MurmurHash3 mixer so that every bit
+     * depends on the whole URL.
+     */
+    public static long of(String url) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < url.length(); i++) {
+            hash ^= url.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,14 @@
+package com.webcrawler.backend.crawler;
+
+/**
+ * Cache validators remembered from an earlier fetch of a URL. Sent back as conditional request
+ * headers so an unchanged page is answered with {@code 304 Not Modified} and no body.
+ */
+public record Validators(String etag, String lastModified) {
+
+    public static final Validators NONE = new Validators(null, null);
+
+    public boolean isEmpty() {
+        return etag == null && lastModified == null;
+    }
+}
@@ -36,6 +36,44 @@ public class CrawlJob {
     @Column(nullable = false)
     private int maxPages;
 
+    private Integer hostDelayMs;
+
+    private Integer maxConnectionsPerHost;
+
+    /**
+     * Tasks queued for the job so far, reserved against {@code maxPages} by a conditional bulk
+     * update. Never written from the entity, so saving a stale copy cannot undo a reservation.
+     */
+    @Column(nullable = false, updatable = false)
+    private int enqueuedCount;
+
+    /** Tasks that finished with a stored result. Like the other counters, only bulk updates change it. */
+    @Column(nullable = false, updatable = false)
+    private int processedCount;
+
+    /** Tasks that finished as failed. */
+    @Column(nullable = false, updatable = false)
+    private int failedCount;
+
+    /**
+     * Tasks handed to a worker and not finished yet, plus one for each running piece of work that
+     * may still queue tasks, such as sitemap ingestion. The job cannot complete while it is above zero.
+     */
+    @Column(nullable = false, updatable = false)
+    private int inFlightCount;
+
+    /** Whether the site's sitemaps are read to seed the job with more URLs. */
+    @Column(nullable = false)
+    private boolean useSitemaps;
+
+    /**
+     * When the job's sitemap ingestion must have finished, set while it holds its in-flight unit.
+     * Whoever clears it releases the unit: the ingestion when it is done, or the leader once the
+     * deadline has passed because the node running the ingestion died.
+     */
+    @Column(updatable = false)
+    private LocalDateTime sitemapDeadline;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 40)
     private CrawlStatus status = CrawlStatus.PENDING;
@@ -86,6 +124,70 @@ public class CrawlJob {
         this.maxPages = maxPages;
     }
 
+    public Integer getHostDelayMs() {
+        return hostDelayMs;
+    }
+
+    public void setHostDelayMs(Integer hostDelayMs) {
+        this.hostDelayMs = hostDelayMs;
+    }
+
+    public int getEnqueuedCount() {
+        return enqueuedCount;
+    }
+
+    public void setEnqueuedCount(int enqueuedCount) {
+        this.enqueuedCount = enqueuedCount;
+    }
+
+    public int getProcessedCount() {
+        return processedCount;
+    }
+
+    public void setProcessedCount(int processedCount) {
+        this.processedCount = processedCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(int failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public int getInFlightCount() {
+        return inFlightCount;
+    }
+
+    public void setInFlightCount(int inFlightCount) {
+        this.inFlightCount = inFlightCount;
+    }
+
+    public boolean isUseSitemaps() {
+        return useSitemaps;
+    }
+
+    public void setUseSitemaps(boolean useSitemaps) {
+        this.useSitemaps = useSitemaps;
+    }
+
+    public Integer getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    public void setMaxConnectionsPerHost(Integer maxConnectionsPerHost) {
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
+    public LocalDateTime getSitemapDeadline() {
+        return sitemapDeadline;
+    }
+
+    public void setSitemapDeadline(LocalDateTime sitemapDeadline) {
+        this.sitemapDeadline = sitemapDeadline;
+    }
+
     public CrawlStatus getStatus() {
         return status;
     }
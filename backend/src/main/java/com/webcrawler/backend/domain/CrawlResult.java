@@ -1,20 +1,27 @@
 package com.webcrawler.backend.domain;
 
+import com.webcrawler.backend.crawler.UrlFingerprint;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
 @Entity
-@Table(name = "crawl_results")
+@Table(name = "crawl_results", indexes = {
+    @Index(name = "idx_result_job_content_hash", columnList = "job_id, content_hash"),
+    @Index(name = "idx_result_url_hash", columnList = "url_hash, crawled_at")
+})
 public class CrawlResult {
 
     @Id
@@ -28,6 +35,9 @@ public class CrawlResult {
     @Column(nullable = false, length = 2048)
     private String url;
 
+    /** {@link UrlFingerprint} of {@code url}, kept in step by {@link #setUrl}. */
+    private Long urlHash;
+
     @Column(nullable = false)
     private int statusCode;
 
@@ -43,6 +53,46 @@ public class CrawlResult {
     @Column(nullable = false)
     private LocalDateTime crawledAt = LocalDateTime.now();
 
+    @Column(length = 512)
+    private String etag;
+
+    @Column(length = 64)
+    private String lastModified;
+
+    private Long contentLength;
+
+    /** Body bytes received on the wire, before any content decoding. */
+    private Long compressedBytes;
+
+    /** Body bytes after content decoding, as handed to the parser. */
+    private Long uncompressedBytes;
+
+    /** Fingerprint of the page text, see {@code ContentFingerprint}. */
+    private Long contentHash;
+
+    /** The earlier result in the same job with identical content, if this page is a copy. */
+    private UUID duplicateOf;
+
+    /** SimHash of the page text's shingles, see {@code SimHash}. */
+    private Long simHash;
+
+    /** Whether an earlier page of the job was within the near-duplicate distance of this one. */
+    @Column(nullable = false)
+    private boolean nearDuplicate;
+
+    @Column(nullable = false)
+    private boolean truncated;
+
+    @Column(length = 255)
+    private String skippedReason;
+
+    /**
+     * Newline-separated outlinks, kept only for pages with validators so that a later
+     * {@code 304 Not Modified} revisit can expand the same links without downloading the page.
+     */
+    @Lob
+    private String outlinks;
+
     public UUID getId() {
         return id;
     }
@@ -65,6 +115,11 @@ public class CrawlResult {
 
     public void setUrl(String url) {
         this.url = url;
+        this.urlHash = url != null ? UrlFingerprint.of(url) : null;
+    }
+
+    public Long getUrlHash() {
+        return urlHash;
     }
 
     public int getStatusCode() {
@@ -107,6 +162,114 @@ public class CrawlResult {
         this.crawledAt = crawledAt;
     }
 
+    public String getEtag() {
+        return etag;
+    }
+
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(String lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public Long getContentLength() {
+        return contentLength;
+    }
+
+    public void setContentLength(Long contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    public Long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    public void setCompressedBytes(Long compressedBytes) {
+        this.compressedBytes = compressedBytes;
+    }
+
+    public Long getUncompressedBytes() {
+        return uncompressedBytes;
+    }
+
+    public void setUncompressedBytes(Long uncompressedBytes) {
+        this.uncompressedBytes = uncompressedBytes;
+    }
+
+    public Long getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(Long contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public UUID getDuplicateOf() {
+        return duplicateOf;
+    }
+
+    public void setDuplicateOf(UUID duplicateOf) {
+        this.duplicateOf = duplicateOf;
+    }
+
+    public Long getSimHash() {
+        return simHash;
+    }
+
+    public void setSimHash(Long simHash) {
+        this.simHash = simHash;
+    }
+
+    public boolean isNearDuplicate() {
+        return nearDuplicate;
+    }
+
+    public void setNearDuplicate(boolean nearDuplicate) {
+        this.nearDuplicate = nearDuplicate;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    public String getSkippedReason() {
+        return skippedReason;
+    }
+
+    public void setSkippedReason(String skippedReason) {
+        this.skippedReason = skippedReason;
+    }
+
+    public String getOutlinks() {
+        return outlinks;
+    }
+
+    public void setOutlinks(String outlinks) {
+        this.outlinks = outlinks;
+    }
+
+    public List<String> getOutlinkList() {
+        return outlinks == null || outlinks.isEmpty() ? List.of() : List.of(outlinks.split("\n"));
+    }
+
+    public void setOutlinkList(List<String> links) {
+        this.outlinks = links == null || links.isEmpty() ? null : String.join("\n", links);
+    }
+
+    public boolean hasValidators() {
+        return etag != null || lastModified != null;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -1,5 +1,9 @@
 package com.webcrawler.backend.domain;
 
+import com.webcrawler.backend.crawler.FrontierScorer;
+import com.webcrawler.backend.crawler.HostShardRing;
+import com.webcrawler.backend.crawler.Hosts;
+import com.webcrawler.backend.crawler.UrlFingerprint;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -17,7 +21,13 @@ import java.util.UUID;
 @Entity
 @Table(name = "crawl_tasks", indexes = {
     @Index(name = "idx_task_job_id", columnList = "job_id"),
-    @Index(name = "idx_task_assigned_node", columnList = "assigned_node_id, status")
+    @Index(name = "idx_task_assigned_node", columnList = "assigned_node_id, status"),
+    @Index(name = "idx_task_host_status", columnList = "host, status"),
+    @Index(name = "idx_task_status_next_attempt", columnList = "status, next_attempt_at"),
+    @Index(name = "idx_task_status_lease", columnList = "status, lease_expires_at"),
+    @Index(name = "idx_task_status_bucket", columnList = "status, host_bucket"),
+    @Index(name = "idx_task_status_priority", columnList = "status, priority"),
+    @Index(name = "uk_task_job_url_hash", columnList = "job_id, url_hash", unique = true)
 })
 public class CrawlTask {
 
@@ -32,26 +42,59 @@ public class CrawlTask {
     @Column(nullable = false, length = 2048)
     private String url;
 
+    /** {@link UrlFingerprint} of {@code url}; unique per job, so a URL is queued at most once. */
+    private Long urlHash;
+
+    @Column(length = 255)
+    private String host;
+
+    /** {@link HostShardRing} bucket of {@code host}, which decides the node the task goes to. */
+    private Integer hostBucket;
+
     @Column(nullable = false)
     private int depth;
 
+    /** {@link FrontierScorer} priority; pending tasks are claimed highest first. */
+    @Column(nullable = false)
+    private double priority;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private TaskStatus status;
 
     private UUID assignedNodeId;
 
+    @Column(nullable = false)
+    private int attempts;
+
+    /** Earliest time the task may be assigned again; {@code null} means right away. */
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1024)
+    private String lastError;
+
     private LocalDateTime createdAt;
     private LocalDateTime assignedAt;
     private LocalDateTime completedAt;
 
+    /** Until when the assigned node holds the task; after that it may be given to another node. */
+    private LocalDateTime leaseExpiresAt;
+
     public CrawlTask() {
     }
 
     public CrawlTask(CrawlJob job, String url, int depth) {
+        this(job, url, depth, 0);
+    }
+
+    public CrawlTask(CrawlJob job, String url, int depth, double priority) {
         this.job = job;
         this.url = url;
+        this.urlHash = UrlFingerprint.of(url);
+        this.host = Hosts.hostOf(url);
+        this.hostBucket = HostShardRing.bucketOf(host);
         this.depth = depth;
+        this.priority = priority;
         this.status = TaskStatus.PENDING;
         this.createdAt = LocalDateTime.now();
     }
@@ -80,6 +123,30 @@ public class CrawlTask {
         this.url = url;
     }
 
+    public Long getUrlHash() {
+        return urlHash;
+    }
+
+    public void setUrlHash(Long urlHash) {
+        this.urlHash = urlHash;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public Integer getHostBucket() {
+        return hostBucket;
+    }
+
+    public void setHostBucket(Integer hostBucket) {
+        this.hostBucket = hostBucket;
+    }
+
     public int getDepth() {
         return depth;
     }
@@ -88,6 +155,14 @@ public class CrawlTask {
         this.depth = depth;
     }
 
+    public double getPriority() {
+        return priority;
+    }
+
+    public void setPriority(double priority) {
+        this.priority = priority;
+    }
+
     public TaskStatus getStatus() {
         return status;
     }
@@ -104,6 +179,30 @@ public class CrawlTask {
         this.assignedNodeId = assignedNodeId;
     }
 
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -127,4 +226,12 @@ public class CrawlTask {
     public void setCompletedAt(LocalDateTime completedAt) {
         this.completedAt = completedAt;
     }
+
+    public LocalDateTime getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
 }
@@ -32,6 +32,21 @@ public class CrawlerNode {
 
     private boolean isLeader;
 
+    /** Maximum number of fetches the node runs at once; 0 until its first heartbeat reports it. */
+    private int capacity;
+
+    /** Fetches running on the node at its last heartbeat. */
+    private int inFlightTasks;
+
+    /** Tasks assigned to the node but not yet started, e.g. waiting on their host, at its last heartbeat. */
+    private int backlog;
+
+    /** Pages the node finished per second, smoothed over recent heartbeats. */
+    private double pagesPerSecond;
+
+    /** Heap the node could still allocate at its last heartbeat. */
+    private long freeHeapBytes;
+
     public CrawlerNode() {
     }
 
@@ -92,6 +107,46 @@ public class CrawlerNode {
         isLeader = leader;
     }
 
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getInFlightTasks() {
+        return inFlightTasks;
+    }
+
+    public void setInFlightTasks(int inFlightTasks) {
+        this.inFlightTasks = inFlightTasks;
+    }
+
+    public int getBacklog() {
+        return backlog;
+    }
+
+    public void setBacklog(int backlog) {
+        this.backlog = backlog;
+    }
+
+    public double getPagesPerSecond() {
+        return pagesPerSecond;
+    }
+
+    public void setPagesPerSecond(double pagesPerSecond) {
+        this.pagesPerSecond = pagesPerSecond;
+    }
+
+    public long getFreeHeapBytes() {
+        return freeHeapBytes;
+    }
+
+    public void setFreeHeapBytes(long freeHeapBytes) {
+        this.freeHeapBytes = freeHeapBytes;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,66 @@
+package com.webcrawler.backend.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A named lease that at most one node holds at a time. Each new holder starts a term with a
+ * higher fencing token, so writes made under an older term can be told apart and refused.
+ */
+@Entity
+@Table(name = "leader_leases")
+public class LeaderLease {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    /** Node holding the lease; {@code null} while nobody does. */
+    private UUID holderId;
+
+    /** Until when the holder may act without renewing the lease. */
+    private LocalDateTime expiresAt;
+
+    /** Number of the current term; increased every time the lease changes hands. */
+    @Column(nullable = false)
+    private long fencingToken;
+
+    public LeaderLease() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public UUID getHolderId() {
+        return holderId;
+    }
+
+    public void setHolderId(UUID holderId) {
+        this.holderId = holderId;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public long getFencingToken() {
+        return fencingToken;
+    }
+
+    public void setFencingToken(long fencingToken) {
+        this.fencingToken = fencingToken;
+    }
+}
@@ -2,11 +2,15 @@ package com.webcrawler.backend.repository;
 
 import com.webcrawler.backend.domain.CrawlJob;
 import com.webcrawler.backend.domain.CrawlStatus;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 public interface CrawlJobRepository extends JpaRepository<CrawlJob, UUID> {
 
@@ -16,4 +20,98 @@ public interface CrawlJobRepository extends JpaRepository<CrawlJob, UUID> {
     List<CrawlJob> findByOwnerUsernameOrderByCreatedAtDesc(String username);
 
     List<CrawlJob> findByStatus(CrawlStatus status);
+
+    @Query("SELECT j.maxPages - j.enqueuedCount FROM CrawlJob j WHERE j.id = :jobId")
+    Optional<Integer> findRemainingBudget(UUID jobId);
+
+    /**
+     * Reads the remaining budget with a locking read, which sees the latest committed count
+     * rather than the transaction's snapshot and holds the row until commit.
+     */
+    @Query(value = "SELECT max_pages - enqueued_count FROM crawl_jobs WHERE id = :jobId FOR UPDATE", nativeQuery = true)
+    Optional<Integer> lockRemainingBudget(UUID jobId);
+
+    /**
+     * Reserves {@code count} task slots if the job still has that many left; the condition keeps
+     * the budget safe even without the lock from {@link #lockRemainingBudget}.
+     *
+     * @return 1 if the slots were reserved, 0 if not
+     */
+    @Modifying
+    @Query("UPDATE CrawlJob j SET j.enqueuedCount = j.enqueuedCount + :count "
+        + "WHERE j.id = :jobId AND j.enqueuedCount + :count <= j.maxPages")
+    int reserveTasks(UUID jobId, int count);
+
+    @Modifying
+    @Query("UPDATE CrawlJob j SET j.enqueuedCount = j.enqueuedCount - :count WHERE j.id = :jobId")
+    int releaseTasks(UUID jobId, int count);
+
+    @Query("SELECT new com.webcrawler.backend.repository.JobCounters(j.enqueuedCount, j.processedCount, j.failedCount, j.inFlightCount) "
+        + "FROM CrawlJob j WHERE j.id = :jobId")
+    Optional<JobCounters> findCounters(UUID jobId);
+
+    @Modifying
+    @Query("UPDATE CrawlJob j SET j.inFlightCount = j.inFlightCount + :delta WHERE j.id = :jobId")
+    int addInFlight(UUID jobId, int delta);
+
+    @Modifying
+    @Query("UPDATE CrawlJob j SET j.processedCount = j.processedCount + 1, j.inFlightCount = j.inFlightCount - 1 WHERE j.id = :jobId")
+    int recordProcessed(UUID jobId);
+
+    @Modifying
+    @Query("UPDATE CrawlJob j SET j.failedCount = j.failedCount + 1, j.inFlightCount = j.inFlightCount - 1 WHERE j.id = :jobId")
+    int recordFailed(UUID jobId);
+
+    @Modifying
+    @Query("UPDATE CrawlJob j SET j.failedCount = j.failedCount + :count, j.inFlightCount = j.inFlightCount - :count WHERE j.id = :jobId")
+    int recordFailed(UUID jobId, int count);
+
+    /**
+     * Releases the in-flight unit held by the job's sitemap ingestion. Only the call that clears
+     * the deadline releases it, so the ingestion and the leader can both try.
+     *
+     * @return 1 if this call released the unit, 0 if it was already released
+     */
+    @Modifying
+    @Query("UPDATE CrawlJob j SET j.sitemapDeadline = NULL, j.inFlightCount = j.inFlightCount - 1 "
+        + "WHERE j.id = :jobId AND j.sitemapDeadline IS NOT NULL")
+    int releaseSitemapIngestion(UUID jobId);
+
+    @Query("SELECT j FROM CrawlJob j WHERE j.sitemapDeadline < :cutoff")
+    List<CrawlJob> findWithSitemapDeadlineBefore(LocalDateTime cutoff);
+
+    /**
+     * Completes a running job once nothing is in flight and every queued task has finished, or
+     * its page budget has been used up.
+     *
+     * @return 1 if this call completed the job, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE CrawlJob j SET j.status = 'COMPLETED', j.completedAt = :now "
+        + "WHERE j.id = :jobId AND j.status = 'RUNNING' AND j.inFlightCount <= 0 "
+        + "AND (j.processedCount + j.failedCount >= j.enqueuedCount OR j.processedCount + j.failedCount >= j.maxPages)")
+    int completeIfDone(UUID jobId, LocalDateTime now);
+
+    /** Starts the still-pending jobs that the given tasks belong to. */
+    @Modifying
+    @Query("UPDATE CrawlJob j SET j.status = 'RUNNING', j.startedAt = :now WHERE j.status = 'PENDING' "
+        + "AND j.id IN (SELECT t.job.id FROM CrawlTask t WHERE t.id IN :taskIds)")
+    int startJobsOfTasks(Collection<UUID> taskIds, LocalDateTime now);
+
+    @Query("SELECT j FROM CrawlJob j WHERE j.status = 'RUNNING' AND j.inFlightCount <= 0 "
+        + "AND (j.processedCount + j.failedCount >= j.enqueuedCount OR j.processedCount + j.failedCount >= j.maxPages)")
+    List<CrawlJob> findCompletable();
+
+    /**
+     * Fills in the counters of jobs created before they existed, which is every unfinished job
+     * without even its seed task counted.
+     */
+    @Modifying
+    @Query("UPDATE CrawlJob j SET "
+        + "j.enqueuedCount = (SELECT count(t) FROM CrawlTask t WHERE t.job = j), "
+        + "j.processedCount = (SELECT count(t) FROM CrawlTask t WHERE t.job = j AND t.status = 'COMPLETED'), "
+        + "j.failedCount = (SELECT count(t) FROM CrawlTask t WHERE t.job = j AND t.status = 'FAILED'), "
+        + "j.inFlightCount = (SELECT count(t) FROM CrawlTask t WHERE t.job = j AND t.status = 'ASSIGNED') "
+        + "WHERE j.enqueuedCount = 0 AND j.status IN ('PENDING', 'RUNNING')")
+    int backfillCounters();
 }
@@ -3,8 +3,24 @@ package com.webcrawler.backend.repository;
 import com.webcrawler.backend.domain.CrawlResult;
 import java.util.List;
 import java.util.UUID;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface CrawlResultRepository extends JpaRepository<CrawlResult, UUID> {
     List<CrawlResult> findByJobIdOrderByCrawledAtAsc(UUID jobId);
+
+    /**
+     * Goes through the URL hash index; the URL itself is only compared to rule out collisions.
+     */
+    @Query("SELECT r FROM CrawlResult r WHERE r.urlHash = :urlHash AND r.url = :url AND r.statusCode IN (200, 304) "
+        + "AND (r.etag IS NOT NULL OR r.lastModified IS NOT NULL) ORDER BY r.crawledAt DESC")
+    List<CrawlResult> findLatestWithValidators(long urlHash, String url, Pageable pageable);
+
+    @Query("SELECT r.id FROM CrawlResult r WHERE r.job.id = :jobId AND r.contentHash = :contentHash "
+        + "AND r.duplicateOf IS NULL ORDER BY r.crawledAt ASC")
+    List<UUID> findOriginalByContentHash(UUID jobId, long contentHash, Pageable pageable);
+
+    @Query("SELECT r.simHash FROM CrawlResult r WHERE r.job.id = :jobId AND r.simHash IS NOT NULL")
+    List<Long> findSimHashesByJobId(UUID jobId);
 }
@@ -2,24 +2,107 @@ package com.webcrawler.backend.repository;
 
 import com.webcrawler.backend.domain.CrawlTask;
 import com.webcrawler.backend.domain.TaskStatus;
+import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface CrawlTaskRepository extends JpaRepository<CrawlTask, UUID> {
-    boolean existsByJobIdAndUrl(UUID jobId, String url);
-    
+public interface CrawlTaskRepository extends JpaRepository<CrawlTask, UUID>, CrawlTaskRepositoryCustom {
+    @Query("SELECT t.urlHash FROM CrawlTask t WHERE t.job.id = :jobId AND t.urlHash IN :urlHashes")
+    List<Long> findExistingUrlHashes(UUID jobId, Collection<Long> urlHashes);
+
+    @Query("SELECT t.urlHash FROM CrawlTask t WHERE t.job.id = :jobId AND t.urlHash IS NOT NULL")
+    List<Long> findUrlHashesByJobId(UUID jobId);
+
+    @Query("SELECT t FROM CrawlTask t JOIN FETCH t.job WHERE t.assignedNodeId = :assignedNodeId AND t.status = :status "
+        + "ORDER BY t.priority DESC")
     List<CrawlTask> findByAssignedNodeIdAndStatus(UUID assignedNodeId, TaskStatus status);
-    
-    List<CrawlTask> findByStatus(TaskStatus status, Pageable pageable);
 
-    @Query("SELECT count(t) FROM CrawlTask t WHERE t.job.id = :jobId AND t.status = 'COMPLETED'")
-    long countCompletedByJobId(UUID jobId);
-    
+    /** Assignable pending tasks, highest priority first. */
+    @Query("SELECT t.id FROM CrawlTask t WHERE t.status = 'PENDING' AND (t.nextAttemptAt IS NULL OR t.nextAttemptAt <= :now) "
+        + "ORDER BY t.priority DESC")
+    List<UUID> findClaimableIds(LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT t.id FROM CrawlTask t WHERE t.status = 'PENDING' AND (t.nextAttemptAt IS NULL OR t.nextAttemptAt <= :now) "
+        + "AND (t.hostBucket IN :buckets OR t.hostBucket IS NULL) ORDER BY t.priority DESC")
+    List<UUID> findClaimableIdsInBuckets(LocalDateTime now, Collection<Integer> buckets, Pageable pageable);
+
+    /**
+     * Assigns the given tasks to a node under a lease, skipping any that are no longer pending
+     * because another node claimed them first. Clears the persistence context so the claimed
+     * tasks are read back as updated.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE CrawlTask t SET t.status = 'ASSIGNED', t.assignedNodeId = :nodeId, t.assignedAt = :now, "
+        + "t.leaseExpiresAt = :leaseExpiresAt WHERE t.id IN :taskIds AND t.status = 'PENDING'")
+    int claim(Collection<UUID> taskIds, UUID nodeId, LocalDateTime now, LocalDateTime leaseExpiresAt);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM CrawlTask t WHERE t.id = :id")
+    Optional<CrawlTask> findByIdForUpdate(UUID id);
+
+    /** Extends the leases of every task the node holds, whether already fetching or still waiting. */
+    @Modifying
+    @Query("UPDATE CrawlTask t SET t.leaseExpiresAt = :until WHERE t.assignedNodeId = :nodeId AND t.status = 'ASSIGNED'")
+    int renewLeases(UUID nodeId, LocalDateTime until);
+
+    @Query("SELECT new com.webcrawler.backend.repository.TaskCount(t.job.id, count(t)) FROM CrawlTask t "
+        + "WHERE t.id IN :taskIds AND t.attempts + 1 < :maxAttempts GROUP BY t.job.id")
+    List<TaskCount> countRetryableByJob(Collection<UUID> taskIds, int maxAttempts);
+
+    @Query("SELECT new com.webcrawler.backend.repository.TaskCount(t.job.id, count(t)) FROM CrawlTask t "
+        + "WHERE t.id IN :taskIds AND t.attempts + 1 >= :maxAttempts GROUP BY t.job.id")
+    List<TaskCount> countExhaustedByJob(Collection<UUID> taskIds, int maxAttempts);
+
+    /** Returns tasks whose lease expired to the queue, counting the lost lease as an attempt. */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE CrawlTask t SET t.status = 'PENDING', t.assignedNodeId = NULL, t.assignedAt = NULL, "
+        + "t.leaseExpiresAt = NULL, t.nextAttemptAt = NULL, t.attempts = t.attempts + 1, t.lastError = 'Lease expired' "
+        + "WHERE t.id IN :taskIds AND t.attempts + 1 < :maxAttempts")
+    int requeueExpired(Collection<UUID> taskIds, int maxAttempts);
+
+    /** Gives up on tasks whose lease expired on their last allowed attempt. */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE CrawlTask t SET t.status = 'FAILED', t.leaseExpiresAt = NULL, t.attempts = t.attempts + 1, "
+        + "t.lastError = 'Lease expired', t.completedAt = :now WHERE t.id IN :taskIds AND t.attempts + 1 >= :maxAttempts")
+    int failExpired(Collection<UUID> taskIds, int maxAttempts, LocalDateTime now);
+
+    @Query("SELECT t FROM CrawlTask t JOIN FETCH t.job WHERE t.id IN :taskIds AND t.assignedNodeId = :nodeId "
+        + "AND t.status = 'ASSIGNED' ORDER BY t.priority DESC")
+    List<CrawlTask> findClaimed(Collection<UUID> taskIds, UUID nodeId);
+
+    @Query("SELECT new com.webcrawler.backend.repository.TaskCount(t.job.id, count(t)) FROM CrawlTask t "
+        + "WHERE t.id IN :taskIds AND t.status = 'ASSIGNED' GROUP BY t.job.id")
+    List<TaskCount> countAssignedByJob(Collection<UUID> taskIds);
+
+    /** Tasks each node holds, whether already fetching or still waiting to start. */
+    @Query("SELECT new com.webcrawler.backend.repository.TaskCount(t.assignedNodeId, count(t)) FROM CrawlTask t "
+        + "WHERE t.status = 'ASSIGNED' GROUP BY t.assignedNodeId")
+    List<TaskCount> countAssignedByNode();
+
+    /**
+     * Holds back every pending task of a host until the given time, e.g. while its circuit is open.
+     */
+    @Modifying
+    @Query("UPDATE CrawlTask t SET t.nextAttemptAt = :until WHERE t.host = :host AND t.status = 'PENDING' "
+        + "AND (t.nextAttemptAt IS NULL OR t.nextAttemptAt < :until)")
+    int parkPendingByHost(String host, LocalDateTime until);
+
+    /** Adds link credit to the job's queued tasks with the given URL hashes. */
+    @Modifying
+    @Query("UPDATE CrawlTask t SET t.priority = t.priority + :credit WHERE t.job.id = :jobId AND t.urlHash IN :urlHashes "
+        + "AND t.status = 'PENDING'")
+    int addCredit(UUID jobId, Collection<Long> urlHashes, double credit);
+
     @Query("SELECT count(t) FROM CrawlTask t WHERE t.job.id = :jobId")
     long countTotalByJobId(UUID jobId);
 }
@@ -0,0 +1,42 @@
+package com.webcrawler.backend.repository;
+
+import com.webcrawler.backend.domain.CrawlTask;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface CrawlTaskRepositoryCustom {
+
+    /**
+     * Inserts new tasks, silently skipping any whose URL hash the job already has, e.g. because
+     * another node queued the same link a moment earlier.
+     *
+     * @return the number of tasks actually inserted
+     */
+    int insertIgnoringDuplicates(List<CrawlTask> tasks);
+
+    /**
+     * Locks up to {@code limit} assignable pending tasks, highest priority first, with {@code FOR UPDATE SKIP LOCKED}, so
+     * that concurrent claimers each get a disjoint set without waiting on each other. The locks
+     * are held until the surrounding transaction ends.
+     *
+     * @return the ids of the locked tasks
+     */
+    List<UUID> lockClaimable(LocalDateTime now, int limit);
+
+    /**
+     * Like {@link #lockClaimable}, but only tasks in the given host buckets, plus tasks queued
+     * before buckets existed.
+     */
+    List<UUID> lockClaimableInBuckets(LocalDateTime now, Collection<Integer> buckets, int limit);
+
+    /**
+     * Locks up to {@code limit} assigned tasks whose lease ran out, skipping rows a worker is
+     * completing right now. Tasks assigned before leases existed count as expired once they were
+     * assigned before {@code assignedBefore}.
+     *
+     * @return the ids of the locked tasks
+     */
+    List<UUID> lockExpiredLeases(LocalDateTime now, LocalDateTime assignedBefore, int limit);
+}
@@ -0,0 +1,105 @@
+package com.webcrawler.backend.repository;
+
+import com.webcrawler.backend.domain.CrawlTask;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Native statements for the task queue. New tasks go in with a multi-row {@code INSERT IGNORE}:
+ * the unique {@code (job_id, url_hash)} index turns a concurrent duplicate into a skipped row
+ * instead of a constraint violation that would roll back the whole completion. Claiming locks
+ * the highest-priority pending rows and the reaper locks expired ones with {@code SKIP LOCKED}, which JPQL cannot
+ * express.
+ */
+class CrawlTaskRepositoryImpl implements CrawlTaskRepositoryCustom {
+
+    /** Rows per statement, keeping the placeholder count far below the driver's limit. */
+    private static final int ROWS_PER_STATEMENT = 500;
+
+    private static final String INSERT = "INSERT IGNORE INTO crawl_tasks "
+        + "(id, job_id, url, url_hash, host, host_bucket, depth, priority, status, attempts, created_at) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int COLUMNS = 11;
+
+    private static final String LOCK_CLAIMABLE = "SELECT id FROM crawl_tasks WHERE status = 'PENDING' "
+        + "AND (next_attempt_at IS NULL OR next_attempt_at <= :now) %s ORDER BY priority DESC LIMIT :limit FOR UPDATE SKIP LOCKED";
+    private static final String IN_BUCKETS = "AND (host_bucket IN (:buckets) OR host_bucket IS NULL)";
+
+    private static final String LOCK_EXPIRED = "SELECT id FROM crawl_tasks WHERE status = 'ASSIGNED' "
+        + "AND (lease_expires_at < ? OR (lease_expires_at IS NULL AND assigned_at < ?)) LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int insertIgnoringDuplicates(List<CrawlTask> tasks) {
+        int inserted = 0;
+        for (int from = 0; from < tasks.size(); from += ROWS_PER_STATEMENT) {
+            List<CrawlTask> chunk = tasks.subList(from, Math.min(tasks.size(), from + ROWS_PER_STATEMENT));
+            StringBuilder sql = new StringBuilder(INSERT.length() + chunk.size() * (ROW.length() + 2)).append(INSERT);
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "" : ", ").append(ROW);
+            }
+            Query query = entityManager.createNativeQuery(sql.toString());
+            int position = 1;
+            for (CrawlTask task : chunk) {
+                if (task.getId() == null) {
+                    task.setId(UUID.randomUUID());
+                }
+                query.setParameter(position, task.getId());
+                query.setParameter(position + 1, task.getJob().getId());
+                query.setParameter(position + 2, task.getUrl());
+                query.setParameter(position + 3, task.getUrlHash());
+                query.setParameter(position + 4, task.getHost());
+                query.setParameter(position + 5, task.getHostBucket());
+                query.setParameter(position + 6, task.getDepth());
+                query.setParameter(position + 7, task.getPriority());
+                query.setParameter(position + 8, task.getStatus().name());
+                query.setParameter(position + 9, task.getAttempts());
+                query.setParameter(position + 10, task.getCreatedAt());
+                position += COLUMNS;
+            }
+            inserted += query.executeUpdate();
+        }
+        return inserted;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<UUID> lockClaimable(LocalDateTime now, int limit) {
+        return entityManager.createNativeQuery(LOCK_CLAIMABLE.formatted(""), UUID.class)
+            .setParameter("now", now)
+            .setParameter("limit", limit)
+            .getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<UUID> lockClaimableInBuckets(LocalDateTime now, Collection<Integer> buckets, int limit) {
+        if (buckets.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createNativeQuery(LOCK_CLAIMABLE.formatted(IN_BUCKETS), UUID.class)
+            .setParameter("now", now)
+            .setParameter("buckets", buckets)
+            .setParameter("limit", limit)
+            .getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<UUID> lockExpiredLeases(LocalDateTime now, LocalDateTime assignedBefore, int limit) {
+        return entityManager.createNativeQuery(LOCK_EXPIRED, UUID.class)
+            .setParameter(1, now)
+            .setParameter(2, assignedBefore)
+            .setParameter(3, limit)
+            .getResultList();
+    }
+}
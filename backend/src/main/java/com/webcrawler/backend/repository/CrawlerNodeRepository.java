@@ -23,6 +23,4 @@ public interface CrawlerNodeRepository extends JpaRepository<CrawlerNode, UUID>
     @Modifying
     @Query("UPDATE CrawlerNode n SET n.status = 'OFFLINE', n.isLeader = false WHERE n.lastHeartbeat < :threshold AND n.status = 'ACTIVE'")
     int markInactiveNodes(LocalDateTime threshold);
-    
-    Optional<CrawlerNode> findFirstByIsLeaderTrue();
 }
@@ -0,0 +1,15 @@
+package com.webcrawler.backend.repository;
+
+/**
+ * Snapshot of a job's task counters, read without loading the job.
+ */
+public record JobCounters(int enqueued, int processed, int failed, int inFlight) {
+
+    /**
+     * Tasks queued but not yet handed to a worker. Approximate while a sitemap is being read,
+     * since that holds an in-flight unit without being a task.
+     */
+    public int pending() {
+        return Math.max(0, enqueued - processed - failed - inFlight);
+    }
+}
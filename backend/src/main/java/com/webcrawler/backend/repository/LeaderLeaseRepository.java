@@ -0,0 +1,51 @@
+package com.webcrawler.backend.repository;
+
+import com.webcrawler.backend.domain.LeaderLease;
+import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LeaderLeaseRepository extends JpaRepository<LeaderLease, String> {
+
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO leader_leases (name, fencing_token) VALUES (:name, 0)", nativeQuery = true)
+    int createIfAbsent(String name);
+
+    /**
+     * Takes the lease if nobody holds it or its holder let it expire, starting a new term. Only
+     * one of several nodes trying at once can match the condition.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE LeaderLease l SET l.holderId = :holderId, l.expiresAt = :expiresAt, l.fencingToken = l.fencingToken + 1 "
+        + "WHERE l.name = :name AND (l.holderId IS NULL OR l.expiresAt IS NULL OR l.expiresAt < :now)")
+    int acquire(String name, UUID holderId, LocalDateTime now, LocalDateTime expiresAt);
+
+    /** Extends the lease, but only within the holder's own unexpired term. */
+    @Modifying
+    @Query("UPDATE LeaderLease l SET l.expiresAt = :expiresAt WHERE l.name = :name AND l.holderId = :holderId "
+        + "AND l.fencingToken = :fencingToken AND l.expiresAt >= :now")
+    int renew(String name, UUID holderId, long fencingToken, LocalDateTime now, LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("UPDATE LeaderLease l SET l.holderId = NULL, l.expiresAt = NULL WHERE l.name = :name AND l.holderId = :holderId "
+        + "AND l.fencingToken = :fencingToken")
+    int release(String name, UUID holderId, long fencingToken);
+
+    @Query("SELECT l.fencingToken FROM LeaderLease l WHERE l.name = :name")
+    Optional<Long> findFencingToken(String name);
+
+    /**
+     * Reads the lease with a shared lock held until the transaction ends, so that the lease cannot
+     * change hands while a write checked against it is still in progress.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT l FROM LeaderLease l WHERE l.name = :name")
+    Optional<LeaderLease> findForFence(String name);
+}
@@ -0,0 +1,9 @@
+package com.webcrawler.backend.repository;
+
+import java.util.UUID;
+
+/**
+ * Number of tasks per job or per node, as returned by a grouped count.
+ */
+public record TaskCount(UUID key, long count) {
+}
@@ -0,0 +1,75 @@
+package com.webcrawler.backend.service;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import com.webcrawler.backend.domain.CrawlerNode;
+
+/**
+ * Decides how many tasks each active node gets in an assignment round, from the load the nodes
+ * reported in their last heartbeats.
+ */
+final class AssignmentPlanner {
+
+    private AssignmentPlanner() {
+    }
+
+    /**
+     * Number of new tasks the node can take: its capacity minus the tasks it already holds. A node
+     * that reported tasks waiting is behind, so it may also hold no more than
+     * {@code backlogHorizon} worth of its recent throughput; a node with nothing waiting is not
+     * limited that way, because its throughput then only reflects how much work it was given.
+     * Nodes that have not reported a capacity yet are assumed to have {@code assumedCapacity}.
+     */
+    static int spareCapacity(CrawlerNode node, long held, int assumedCapacity, CrawlerProperties.Assignment settings) {
+        if (node.getCapacity() <= 0) {
+            return (int) Math.max(0, assumedCapacity - held);
+        }
+        if (node.getFreeHeapBytes() < settings.getMinFreeHeap().toBytes()) {
+            return 0;
+        }
+        long spare = node.getCapacity() - held;
+        if (node.getBacklog() > 0 && node.getPagesPerSecond() > 0) {
+            double horizonSeconds = settings.getBacklogHorizon().toMillis() / 1000.0;
+            long keepsUpWith = (long) Math.ceil(node.getPagesPerSecond() * horizonSeconds);
+            spare = Math.min(spare, keepsUpWith - held);
+        }
+        return (int) Math.max(0, spare);
+    }
+
+    /**
+     * Splits {@code tasks} in proportion to the nodes' spare capacity, never giving a node more
+     * than its spare. Rounding leftovers go to the largest remainders.
+     */
+    static int[] split(int tasks, int[] spare) {
+        int[] shares = new int[spare.length];
+        long total = 0;
+        for (int value : spare) {
+            total += value;
+        }
+        if (total == 0 || tasks <= 0) {
+            return shares;
+        }
+        if (tasks >= total) {
+            return spare.clone();
+        }
+        long[] remainders = new long[spare.length];
+        int assigned = 0;
+        for (int i = 0; i < spare.length; i++) {
+            long scaled = (long) tasks * spare[i];
+            shares[i] = (int) (scaled / total);
+            remainders[i] = scaled % total;
+            assigned += shares[i];
+        }
+        while (assigned < tasks) {
+            int best = -1;
+            for (int i = 0; i < spare.length; i++) {
+                if (shares[i] < spare[i] && (best < 0 || remainders[i] > remainders[best])) {
+                    best = i;
+                }
+            }
+            shares[best]++;
+            remainders[best] = -1;
+            assigned++;
+        }
+        return shares;
+    }
+}
@@ -0,0 +1,43 @@
+package com.webcrawler.backend.service;
+
+import com.webcrawler.backend.crawler.Hosts;
+import com.webcrawler.backend.domain.CrawlTask;
+import java.util.UUID;
+
+/**
+ * Immutable view of a task a worker has taken on. Workers hand this between threads instead of
+ * the managed {@link CrawlTask} entity, which is only valid inside the transaction that loaded it.
+ */
+public record ClaimedTask(
+    UUID taskId,
+    UUID jobId,
+    UUID assignedNodeId,
+    String url,
+    String host,
+    int depth,
+    int maxDepth,
+    int maxPages,
+    Integer hostDelayMs,
+    Integer maxConnectionsPerHost
+) {
+
+    /** Whether the task's links would be dropped anyway because it sits at the job's maximum depth. */
+    public boolean isLeaf() {
+        return depth >= maxDepth;
+    }
+
+    public static ClaimedTask from(CrawlTask task) {
+        return new ClaimedTask(
+            task.getId(),
+            task.getJob().getId(),
+            task.getAssignedNodeId(),
+            task.getUrl(),
+            task.getHost() != null ? task.getHost() : Hosts.hostOf(task.getUrl()),
+            task.getDepth(),
+            task.getJob().getMaxDepth(),
+            task.getJob().getMaxPages(),
+            task.getJob().getHostDelayMs(),
+            task.getJob().getMaxConnectionsPerHost()
+        );
+    }
+}
@@ -0,0 +1,29 @@
+package com.webcrawler.backend.service;
+
+import com.webcrawler.backend.domain.CrawlJob;
+import com.webcrawler.backend.web.dto.CrawlProgressMessage;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+@Service
+public class CrawlProgressPublisher {
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public CrawlProgressPublisher(SimpMessagingTemplate messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    public void sendStatus(CrawlJob job, int processed, int pending, String message) {
+        CrawlProgressMessage progressMessage = new CrawlProgressMessage(
+            job.getId(),
+            job.getSeedUrl(),
+            job.getStatus(),
+            processed,
+            pending,
+            message
+        );
+        messagingTemplate.convertAndSend("/topic/crawls", progressMessage);
+        messagingTemplate.convertAndSend("/topic/crawls/" + job.getId(), progressMessage);
+    }
+}
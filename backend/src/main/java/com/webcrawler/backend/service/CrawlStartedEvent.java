@@ -0,0 +1,10 @@
+package com.webcrawler.backend.service;
+
+import java.util.UUID;
+
+/**
+ * Published when a crawl job and its seed task have been created. Listeners that need the job to
+ * be visible to other transactions should handle it after commit.
+ */
+public record CrawlStartedEvent(UUID jobId) {
+}
@@ -0,0 +1,552 @@
+package com.webcrawler.backend.service;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import com.webcrawler.backend.crawler.ContentFingerprint;
+import com.webcrawler.backend.crawler.FetchedBody;
+import com.webcrawler.backend.crawler.FrontierScorer;
+import com.webcrawler.backend.crawler.HostCircuitBreaker;
+import com.webcrawler.backend.crawler.NearDuplicateIndex;
+import com.webcrawler.backend.crawler.PageFetcher;
+import com.webcrawler.backend.crawler.RobotsService;
+import com.webcrawler.backend.crawler.RobotsService.Access;
+import com.webcrawler.backend.crawler.SeenUrlFilter;
+import com.webcrawler.backend.crawler.SimHash;
+import com.webcrawler.backend.crawler.StreamingLinkExtractor;
+import com.webcrawler.backend.crawler.UrlCanonicalizer;
+import com.webcrawler.backend.crawler.UrlFingerprint;
+import com.webcrawler.backend.crawler.Validators;
+import com.webcrawler.backend.domain.CrawlJob;
+import com.webcrawler.backend.domain.CrawlResult;
+import com.webcrawler.backend.domain.CrawlTask;
+import com.webcrawler.backend.domain.TaskStatus;
+import com.webcrawler.backend.repository.CrawlResultRepository;
+import com.webcrawler.backend.repository.CrawlTaskRepository;
+import jakarta.transaction.Transactional;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.select.Elements;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs a single crawl task in two phases: the fetch, which runs outside any transaction and only
+ * reads the URL's previous fetch and what it needs to decide which outlinks to check against
+ * robots.txt, and the completion, which persists the result and expands child tasks in its own
+ * short transaction. The non-blocking fetch does those reads on a virtual thread so it does not
+ * hold up the dispatcher or the HTTP client; the completion blocks on the database, and
+ * {@link TaskDispatcher} runs it on a virtual thread as well, off the HTTP client's threads.
+ * Transient failures put the task back in the queue with a backoff instead of failing it, and
+ * feed the host's circuit in {@link HostCircuitBreaker}.
+ */
+@Service
+public class CrawlTaskProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(CrawlTaskProcessor.class);
+
+    /** URL hashes per existence lookup or credit update, keeping the IN list well below driver and database limits. */
+    private static final int EXISTING_URL_BATCH = 500;
+
+    private final CrawlResultRepository crawlResultRepository;
+    private final CrawlTaskRepository crawlTaskRepository;
+    private final PageFetcher pageFetcher;
+    private final RobotsService robotsService;
+    private final RetryPolicy retryPolicy;
+    private final HostCircuitBreaker circuitBreaker;
+    private final NearDuplicateIndex nearDuplicateIndex;
+    private final UrlCanonicalizer urlCanonicalizer;
+    private final SeenUrlFilter seenUrlFilter;
+    private final PageBudget pageBudget;
+    private final JobProgressTracker progressTracker;
+    private final FrontierScorer frontierScorer;
+    private final long maxBodyBytes;
+    private final CrawlerProperties.HtmlParser htmlParser;
+    private final Executor lookupExecutor;
+
+    public CrawlTaskProcessor(
+        CrawlResultRepository crawlResultRepository,
+        CrawlTaskRepository crawlTaskRepository,
+        PageFetcher pageFetcher,
+        RobotsService robotsService,
+        RetryPolicy retryPolicy,
+        HostCircuitBreaker circuitBreaker,
+        NearDuplicateIndex nearDuplicateIndex,
+        UrlCanonicalizer urlCanonicalizer,
+        SeenUrlFilter seenUrlFilter,
+        PageBudget pageBudget,
+        JobProgressTracker progressTracker,
+        FrontierScorer frontierScorer,
+        CrawlerProperties crawlerProperties,
+        @Qualifier("crawlerVirtualExecutor") Executor lookupExecutor
+    ) {
+        this.crawlResultRepository = crawlResultRepository;
+        this.crawlTaskRepository = crawlTaskRepository;
+        this.pageFetcher = pageFetcher;
+        this.robotsService = robotsService;
+        this.retryPolicy = retryPolicy;
+        this.circuitBreaker = circuitBreaker;
+        this.nearDuplicateIndex = nearDuplicateIndex;
+        this.urlCanonicalizer = urlCanonicalizer;
+        this.seenUrlFilter = seenUrlFilter;
+        this.pageBudget = pageBudget;
+        this.progressTracker = progressTracker;
+        this.frontierScorer = frontierScorer;
+        this.maxBodyBytes = crawlerProperties.getFetch().getMaxBodySize().toBytes();
+        this.htmlParser = crawlerProperties.getFetch().getParser();
+        this.lookupExecutor = lookupExecutor;
+    }
+
+    public PageProcessingResult fetch(ClaimedTask task) {
+        try {
+            Access access = robotsService.access(task.url());
+            if (access != Access.ALLOWED) {
+                return notAllowed(task, access);
+            }
+            Optional<CrawlResult> previous = findPreviousFetch(task);
+            PageProcessingResult page = processResponse(task, pageFetcher.fetch(task.url(), validatorsOf(previous)), previous);
+            return withoutDisallowedLinks(task, page).join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return failed(task, ex);
+        } catch (Exception ex) {
+            return failed(task, ex);
+        }
+    }
+
+    public CompletableFuture<PageProcessingResult> fetchAsync(ClaimedTask task) {
+        return robotsService.accessAsync(task.url())
+            .thenCompose(access -> access == Access.ALLOWED
+                ? fetchPageAsync(task)
+                : CompletableFuture.completedFuture(notAllowed(task, access)))
+            .exceptionally(ex -> failed(task, ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex));
+    }
+
+    private CompletableFuture<PageProcessingResult> fetchPageAsync(ClaimedTask task) {
+        return CompletableFuture.supplyAsync(() -> findPreviousFetch(task), lookupExecutor)
+            .thenCompose(previous -> pageFetcher.fetchAsync(task.url(), validatorsOf(previous))
+                .thenApply(response -> processResponse(task, response, previous)))
+            .thenComposeAsync(page -> withoutDisallowedLinks(task, page), lookupExecutor);
+    }
+
+    /**
+     * Finds the most recent successful fetch of the URL, in any job, that left validators behind.
+     * A fetch made at leaf depth did not keep its outlinks, so it cannot stand in for a page whose
+     * links are needed now.
+     */
+    private Optional<CrawlResult> findPreviousFetch(ClaimedTask task) {
+        return crawlResultRepository.findLatestWithValidators(UrlFingerprint.of(task.url()), task.url(), PageRequest.of(0, 1)).stream()
+            .findFirst()
+            .filter(previous -> task.isLeaf() || previous.getLinkCount() == 0 || previous.getOutlinks() != null);
+    }
+
+    private static Validators validatorsOf(Optional<CrawlResult> previous) {
+        return previous
+            .map(result -> new Validators(result.getEtag(), result.getLastModified()))
+            .orElse(Validators.NONE);
+    }
+
+    @Transactional
+    public void complete(ClaimedTask claimed, PageProcessingResult page) {
+        Optional<LocalDateTime> hostParkedUntil = updateCircuit(claimed.host(), page);
+
+        CrawlTask task = crawlTaskRepository.findByIdForUpdate(claimed.taskId()).orElse(null);
+        if (task == null || !isStillHeld(task, claimed)) {
+            // The lease ran out and the task went back to the queue; whoever holds it now reports it.
+            return;
+        }
+        CrawlJob job = task.getJob();
+        task.setAttempts(task.getAttempts() + 1);
+        if (page.failed() || page.retryable()) {
+            task.setLastError(truncate(page.result().getErrorMessage()));
+        }
+
+        if (page.retryable() && retryPolicy.canRetry(task.getAttempts())) {
+            LocalDateTime nextAttemptAt = LocalDateTime.now().plus(retryPolicy.backoff(task.getAttempts() + 1, page.retryAfter()));
+            if (hostParkedUntil.isPresent() && hostParkedUntil.get().isAfter(nextAttemptAt)) {
+                nextAttemptAt = hostParkedUntil.get();
+            }
+            requeue(task, nextAttemptAt);
+            return;
+        }
+
+        page.result().setJob(job);
+        boolean duplicate = !page.failed() && (markIfDuplicate(job, page.result()) || markIfNearDuplicate(job, page.result()));
+        crawlResultRepository.save(page.result());
+
+        if (page.failed()) {
+            task.setStatus(TaskStatus.FAILED);
+        } else {
+            // A copy links to the same pages as its original, which has already expanded them.
+            if (!duplicate && task.getDepth() < job.getMaxDepth()) {
+                createChildTasks(job, task, page.links());
+            }
+            task.setStatus(TaskStatus.COMPLETED);
+        }
+        task.setCompletedAt(LocalDateTime.now());
+        task.setLeaseExpiresAt(null);
+        crawlTaskRepository.save(task);
+        progressTracker.taskFinished(job, page.failed(), task.getUrl());
+    }
+
+    /**
+     * Points the result at the first result in the job with the same content hash, if there is one.
+     */
+    private boolean markIfDuplicate(CrawlJob job, CrawlResult result) {
+        if (result.getContentHash() == null) {
+            return false;
+        }
+        List<UUID> originals = crawlResultRepository.findOriginalByContentHash(job.getId(), result.getContentHash(), PageRequest.of(0, 1));
+        if (originals.isEmpty()) {
+            return false;
+        }
+        result.setDuplicateOf(originals.get(0));
+        return true;
+    }
+
+    /**
+     * Flags the result if an earlier page of the job is within the near-duplicate distance, e.g.
+     * the same article with a different timestamp or ad block.
+     */
+    private boolean markIfNearDuplicate(CrawlJob job, CrawlResult result) {
+        if (result.getSimHash() == null || !nearDuplicateIndex.isEnabled()) {
+            return false;
+        }
+        boolean near = nearDuplicateIndex.checkAndAdd(job.getId(), result.getSimHash());
+        result.setNearDuplicate(near);
+        return near;
+    }
+
+    /**
+     * Hands a task this node will not fetch now back to the queue, to be assigned again no
+     * earlier than {@code until}.
+     */
+    @Transactional
+    public void defer(ClaimedTask claimed, LocalDateTime until) {
+        crawlTaskRepository.findByIdForUpdate(claimed.taskId())
+            .filter(task -> isStillHeld(task, claimed))
+            .ifPresent(task -> requeue(task, until));
+    }
+
+    private static boolean isStillHeld(CrawlTask task, ClaimedTask claimed) {
+        return task.getStatus() == TaskStatus.ASSIGNED && Objects.equals(task.getAssignedNodeId(), claimed.assignedNodeId());
+    }
+
+    private void requeue(CrawlTask task, LocalDateTime nextAttemptAt) {
+        task.setStatus(TaskStatus.PENDING);
+        task.setAssignedNodeId(null);
+        task.setAssignedAt(null);
+        task.setLeaseExpiresAt(null);
+        task.setNextAttemptAt(nextAttemptAt);
+        crawlTaskRepository.save(task);
+        progressTracker.taskRequeued(task.getJob().getId());
+    }
+
+    /**
+     * Reports the outcome to the host's circuit. When this outcome opens the circuit, every
+     * pending task of the host is held back until the circuit may be probed again.
+     */
+    private Optional<LocalDateTime> updateCircuit(String host, PageProcessingResult page) {
+        if (page.retryable()) {
+            return circuitBreaker.recordFailure(host).map(until -> {
+                LocalDateTime parkedUntil = LocalDateTime.ofInstant(until, ZoneId.systemDefault());
+                int parked = crawlTaskRepository.parkPendingByHost(host, parkedUntil);
+                log.info("Circuit for {} opened until {}; parked {} pending tasks", host, parkedUntil, parked);
+                return parkedUntil;
+            });
+        }
+        if (page.result().getStatusCode() > 0) {
+            // The host answered, even if only with a 404: it is reachable.
+            circuitBreaker.recordSuccess(host);
+        } else {
+            // No request reached the host, e.g. because robots.txt disallowed the page.
+            circuitBreaker.releaseProbe(host);
+        }
+        return Optional.empty();
+    }
+
+    private static String truncate(String message) {
+        return message != null && message.length() > 1024 ? message.substring(0, 1024) : message;
+    }
+
+    /**
+     * Queues the links the job does not have yet, up to its page budget. Links this node already
+     * knows about are dropped by {@link SeenUrlFilter}; the rest are looked up by URL hash in
+     * batches, and whatever another node queues in between is skipped by the insert itself, which
+     * hands its slots back to {@link PageBudget}. Under an ordering that accumulates link credit,
+     * the links that are still queued get their share of the page's credit first. Robots.txt was
+     * already applied to the links in the fetch phase.
+     */
+    private void createChildTasks(CrawlJob job, CrawlTask parent, List<String> outlinks) {
+        if (frontierScorer.accumulatesCredit()) {
+            addCredit(job, outlinks, frontierScorer.credit(parent.getPriority(), outlinks.size()));
+        }
+        List<String> candidates = seenUrlFilter.filterUnseen(job, outlinks);
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        Set<Long> existingHashes = new HashSet<>();
+        for (int from = 0; from < candidates.size(); from += EXISTING_URL_BATCH) {
+            List<Long> batch = candidates.subList(from, Math.min(candidates.size(), from + EXISTING_URL_BATCH)).stream()
+                .map(UrlFingerprint::of)
+                .toList();
+            existingHashes.addAll(crawlTaskRepository.findExistingUrlHashes(job.getId(), batch));
+        }
+        Map<Boolean, List<String>> byExisting = candidates.stream()
+            .collect(Collectors.partitioningBy(url -> existingHashes.contains(UrlFingerprint.of(url))));
+        seenUrlFilter.record(job, byExisting.get(true));
+
+        int remaining = pageBudget.remaining(job.getId());
+        if (remaining <= 0) {
+            return;
+        }
+
+        int depth = parent.getDepth() + 1;
+        List<CrawlTask> newTasks = byExisting.get(false).stream()
+            .limit(remaining)
+            .map(url -> new CrawlTask(job, url, depth, frontierScorer.child(url, depth, parent.getPriority(), outlinks.size())))
+            .toList();
+
+        int granted = pageBudget.reserve(job.getId(), newTasks.size());
+        List<CrawlTask> reserved = newTasks.subList(0, granted);
+        int inserted = crawlTaskRepository.insertIgnoringDuplicates(reserved);
+        pageBudget.release(job.getId(), granted - inserted);
+        seenUrlFilter.record(job, reserved.stream().map(CrawlTask::getUrl).toList());
+    }
+
+    /**
+     * Drops the links that could be queued but robots.txt disallows. Only links this node has not
+     * seen, up to the job's remaining budget, could be queued, so only those are checked; links
+     * that are already queued stay for their credit, and new ones past the budget are dropped.
+     * Robots.txt of the remaining origins is looked up at once, so new hosts are fetched in
+     * parallel, and before the completion opens its transaction. Links of an origin whose
+     * robots.txt is unavailable are kept and checked again when they are fetched.
+     */
+    private CompletableFuture<PageProcessingResult> withoutDisallowedLinks(ClaimedTask task, PageProcessingResult page) {
+        List<String> links = page.links().stream()
+            .filter(url -> url.startsWith("http"))
+            .distinct()
+            .toList();
+        if (links.isEmpty()) {
+            return CompletableFuture.completedFuture(page);
+        }
+        List<String> unseen = seenUrlFilter.filterUnseen(task.jobId(), task.maxPages(), links);
+        List<String> candidates = unseen.isEmpty()
+            ? List.of()
+            : unseen.subList(0, Math.max(0, Math.min(unseen.size(), pageBudget.remaining(task.jobId()))));
+        List<CompletableFuture<Access>> access = candidates.stream()
+            .map(robotsService::accessAsync)
+            .toList();
+        return CompletableFuture.allOf(access.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            Set<String> dropped = new HashSet<>(unseen);
+            for (int i = 0; i < candidates.size(); i++) {
+                if (access.get(i).join() != Access.DISALLOWED) {
+                    dropped.remove(candidates.get(i));
+                }
+            }
+            List<String> kept = links.stream().filter(url -> !dropped.contains(url)).toList();
+            return new PageProcessingResult(page.result(), kept, page.failed(), page.retryable(), page.retryAfter());
+        });
+    }
+
+    private void addCredit(CrawlJob job, List<String> outlinks, double credit) {
+        if (credit <= 0) {
+            return;
+        }
+        for (int from = 0; from < outlinks.size(); from += EXISTING_URL_BATCH) {
+            List<Long> batch = outlinks.subList(from, Math.min(outlinks.size(), from + EXISTING_URL_BATCH)).stream()
+                .map(UrlFingerprint::of)
+                .toList();
+            crawlTaskRepository.addCredit(job.getId(), batch, credit);
+        }
+    }
+
+    private PageProcessingResult processResponse(ClaimedTask task, HttpResponse<FetchedBody> response, Optional<CrawlResult> previous) {
+        String url = task.url();
+        if (response.statusCode() == 304 && previous.isPresent()) {
+            return notModified(url, response, previous.get());
+        }
+
+        FetchedBody body = response.body();
+        CrawlResult result = new CrawlResult();
+        result.setUrl(url);
+        result.setStatusCode(response.statusCode());
+        if (response.statusCode() >= 400) {
+            result.setErrorMessage("HTTP " + response.statusCode());
+        }
+        if (RetryPolicy.isTransient(response.statusCode())) {
+            // The body of an overloaded or failing server is not worth parsing; try again later.
+            Duration retryAfter = RetryPolicy.parseRetryAfter(response.headers().firstValue("Retry-After").orElse(null)).orElse(null);
+            return PageProcessingResult.retryable(result, false, retryAfter);
+        }
+        result.setCrawledAt(LocalDateTime.now());
+        result.setEtag(response.headers().firstValue("ETag").orElse(null));
+        result.setLastModified(response.headers().firstValue("Last-Modified").orElse(null));
+        result.setContentLength(response.headers().firstValueAsLong("Content-Length").orElse(body.bytes().length));
+
+        if (body.isSkipped()) {
+            result.setSkippedReason(body.skippedReason());
+            result.setLinkCount(0);
+            return new PageProcessingResult(result, List.of(), false);
+        }
+
+        boolean collectLinks = !task.isLeaf();
+        ParsedPage page = parsePage(body, url, collectLinks);
+        result.setTitle(page.title());
+        result.setLinkCount(page.linkCount());
+        result.setTruncated(body.truncated() || page.decodedLimitReached());
+        result.setCompressedBytes((long) body.bytes().length);
+        result.setUncompressedBytes(page.decodedBytes());
+        result.setContentHash(page.contentHash());
+        result.setSimHash(page.simHash());
+
+        List<String> links = page.links().stream()
+            .map(urlCanonicalizer::canonicalize)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+        if (collectLinks && result.hasValidators() && response.statusCode() == 200) {
+            result.setOutlinkList(links);
+        }
+
+        return new PageProcessingResult(result, links, false);
+    }
+
+    /**
+     * Extracts the title and links with the configured parser. Links are only resolved when
+     * {@code collectLinks} is set; leaf pages just have their anchors counted.
+     */
+    private ParsedPage parsePage(FetchedBody body, String url, boolean collectLinks) {
+        if (htmlParser == CrawlerProperties.HtmlParser.STREAMING) {
+            FetchedBody.DecodedStream decoded = openDecoded(body);
+            try (decoded) {
+                StreamingLinkExtractor.Extracted extracted = StreamingLinkExtractor.extract(decoded, body.charset(), url, collectLinks);
+                return new ParsedPage(extracted.title(), extracted.linkCount(), extracted.links(), extracted.contentHash(),
+                    extracted.simHash(), decoded.getCount(), decoded.isLimitReached());
+            } catch (IOException | RuntimeException ex) {
+                log.debug("Streaming extraction failed for {}, falling back to Jsoup: {}", url, ex.getMessage());
+            }
+        }
+        FetchedBody.DecodedStream decoded = openDecoded(body);
+        Document document = parse(decoded, body, url);
+        Elements linkElements = document.select("a[href]");
+        List<String> links = collectLinks
+            ? linkElements.stream().map(element -> element.attr("abs:href")).toList()
+            : List.of();
+        String text = document.body() != null ? document.body().text() : "";
+        ContentFingerprint fingerprint = new ContentFingerprint();
+        fingerprint.append(text);
+        SimHash simHash = new SimHash();
+        simHash.append(text);
+        return new ParsedPage(document.title(), linkElements.size(), links, fingerprint.finish(),
+            simHash.finish(), decoded.getCount(), decoded.isLimitReached());
+    }
+
+    private FetchedBody.DecodedStream openDecoded(FetchedBody body) {
+        try {
+            return body.openDecoded(maxBodyBytes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static Document parse(FetchedBody.DecodedStream decoded, FetchedBody body, String url) {
+        String charsetName = body.charset() != null ? body.charset().name() : null;
+        try (decoded) {
+            // Without a declared charset Jsoup sniffs the BOM and <meta charset>, then falls back to UTF-8.
+            return Jsoup.parse(decoded, charsetName, url);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Builds the result of a revisit the server answered with {@code 304 Not Modified}: nothing was
+     * downloaded or parsed, so the title and outlinks are carried over from the earlier fetch.
+     */
+    private PageProcessingResult notModified(String url, HttpResponse<FetchedBody> response, CrawlResult previous) {
+        CrawlResult result = new CrawlResult();
+        result.setUrl(url);
+        result.setStatusCode(response.statusCode());
+        result.setTitle(previous.getTitle());
+        result.setLinkCount(previous.getLinkCount());
+        result.setCrawledAt(LocalDateTime.now());
+        result.setEtag(response.headers().firstValue("ETag").orElse(previous.getEtag()));
+        result.setLastModified(response.headers().firstValue("Last-Modified").orElse(previous.getLastModified()));
+        result.setContentLength(previous.getContentLength());
+        result.setOutlinks(previous.getOutlinks());
+        result.setContentHash(previous.getContentHash());
+        result.setSimHash(previous.getSimHash());
+        return new PageProcessingResult(result, previous.getOutlinkList(), false);
+    }
+
+    /**
+     * A disallowed page fails for good; a page whose robots.txt could not be fetched is retried
+     * once the robots.txt may be fetched again.
+     */
+    private PageProcessingResult notAllowed(ClaimedTask task, Access access) {
+        CrawlResult result = new CrawlResult();
+        result.setUrl(task.url());
+        result.setStatusCode(0);
+        result.setLinkCount(0);
+        result.setCrawledAt(LocalDateTime.now());
+        if (access == Access.UNAVAILABLE) {
+            result.setErrorMessage("robots.txt unavailable");
+            return PageProcessingResult.retryable(result, true, robotsService.unavailableRetryDelay());
+        }
+        result.setErrorMessage("Disallowed by robots.txt");
+        return new PageProcessingResult(result, List.of(), true);
+    }
+
+    private PageProcessingResult failed(ClaimedTask task, Throwable ex) {
+        CrawlResult result = new CrawlResult();
+        result.setUrl(task.url());
+        result.setStatusCode(0);
+        result.setLinkCount(0);
+        result.setErrorMessage(ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName());
+        result.setCrawledAt(LocalDateTime.now());
+        if (RetryPolicy.isTransient(ex)) {
+            log.info("Transient failure crawling {}: {}", task.url(), result.getErrorMessage());
+            return PageProcessingResult.retryable(result, true, null);
+        }
+        log.warn("Failed to crawl {}", task.url(), ex);
+        return new PageProcessingResult(result, List.of(), true);
+    }
+
+    /** What parsing a response body found: its title, links and content fingerprints. */
+    private record ParsedPage(String title, int linkCount, List<String> links, Long contentHash, Long simHash, long decodedBytes, boolean decodedLimitReached) {
+    }
+
+    /**
+     * Outcome of a fetch. A {@code retryable} outcome is requeued while the task has attempts
+     * left; once they are used up it is recorded like any other, as failed if {@code failed} is set.
+     */
+    public record PageProcessingResult(CrawlResult result, List<String> links, boolean failed, boolean retryable, Duration retryAfter) {
+
+        public PageProcessingResult(CrawlResult result, List<String> links, boolean failed) {
+            this(result, links, failed, false, null);
+        }
+
+        static PageProcessingResult retryable(CrawlResult result, boolean failed, Duration retryAfter) {
+            return new PageProcessingResult(result, List.of(), failed, true, retryAfter);
+        }
+    }
+}
@@ -1,38 +1,30 @@
 package com.webcrawler.backend.service;
 
+import com.webcrawler.backend.config.CrawlerProperties;
+import com.webcrawler.backend.crawler.FrontierScorer;
+import com.webcrawler.backend.crawler.UrlCanonicalizer;
 import com.webcrawler.backend.domain.AppUser;
 import com.webcrawler.backend.domain.CrawlJob;
-import com.webcrawler.backend.domain.CrawlResult;
 import com.webcrawler.backend.domain.CrawlStatus;
 import com.webcrawler.backend.domain.CrawlTask;
 import com.webcrawler.backend.domain.CrawlerNode;
 import com.webcrawler.backend.domain.TaskStatus;
 import com.webcrawler.backend.repository.CrawlJobRepository;
-import com.webcrawler.backend.repository.CrawlResultRepository;
 import com.webcrawler.backend.repository.CrawlTaskRepository;
 import com.webcrawler.backend.repository.CrawlerNodeRepository;
-import com.webcrawler.backend.web.dto.CrawlProgressMessage;
 import com.webcrawler.backend.web.dto.CrawlRequest;
 import jakarta.transaction.Transactional;
-import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
-import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.select.Elements;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
@@ -42,49 +34,94 @@ public class DefaultCrawlerService implements CrawlerService {
     private static final Logger log = LoggerFactory.getLogger(DefaultCrawlerService.class);
 
     private final CrawlJobRepository crawlJobRepository;
-    private final CrawlResultRepository crawlResultRepository;
     private final CrawlTaskRepository crawlTaskRepository;
     private final CrawlerNodeRepository crawlerNodeRepository;
     private final NodeService nodeService;
-    private final SimpMessagingTemplate messagingTemplate;
-    private final HttpClient httpClient;
+    private final LeaderElection leaderElection;
+    private final TaskDispatcher taskDispatcher;
+    private final CrawlProgressPublisher progressPublisher;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UrlCanonicalizer urlCanonicalizer;
+    private final FrontierScorer frontierScorer;
+    private final JobProgressTracker progressTracker;
+    private final TaskClaimer taskClaimer;
+    private final HostShardRouter shardRouter;
+    private final CrawlerProperties.Worker workerSettings;
+    private final CrawlerProperties.Assignment assignmentSettings;
+    private final CrawlerProperties.Lease leaseSettings;
+    private final CrawlerProperties.Sitemaps sitemapSettings;
+    private final WorkerMetrics workerMetrics;
 
     public DefaultCrawlerService(
         CrawlJobRepository crawlJobRepository,
-        CrawlResultRepository crawlResultRepository,
         CrawlTaskRepository crawlTaskRepository,
         CrawlerNodeRepository crawlerNodeRepository,
         NodeService nodeService,
-        SimpMessagingTemplate messagingTemplate
+        LeaderElection leaderElection,
+        TaskDispatcher taskDispatcher,
+        CrawlProgressPublisher progressPublisher,
+        ApplicationEventPublisher eventPublisher,
+        UrlCanonicalizer urlCanonicalizer,
+        FrontierScorer frontierScorer,
+        JobProgressTracker progressTracker,
+        TaskClaimer taskClaimer,
+        HostShardRouter shardRouter,
+        WorkerMetrics workerMetrics,
+        CrawlerProperties crawlerProperties
     ) {
         this.crawlJobRepository = crawlJobRepository;
-        this.crawlResultRepository = crawlResultRepository;
         this.crawlTaskRepository = crawlTaskRepository;
         this.crawlerNodeRepository = crawlerNodeRepository;
         this.nodeService = nodeService;
-        this.messagingTemplate = messagingTemplate;
-        this.httpClient = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(10))
-            .followRedirects(HttpClient.Redirect.NORMAL)
-            .build();
+        this.leaderElection = leaderElection;
+        this.taskDispatcher = taskDispatcher;
+        this.progressPublisher = progressPublisher;
+        this.eventPublisher = eventPublisher;
+        this.urlCanonicalizer = urlCanonicalizer;
+        this.frontierScorer = frontierScorer;
+        this.progressTracker = progressTracker;
+        this.taskClaimer = taskClaimer;
+        this.shardRouter = shardRouter;
+        this.workerSettings = crawlerProperties.getWorker();
+        this.assignmentSettings = crawlerProperties.getAssignment();
+        this.leaseSettings = crawlerProperties.getLease();
+        this.sitemapSettings = crawlerProperties.getSitemaps();
+        this.workerMetrics = workerMetrics;
     }
 
     @Override
     @Transactional
     public CrawlJob startCrawl(CrawlRequest request, AppUser owner) {
+        String seedUrl = urlCanonicalizer.canonicalize(request.getUrl());
+        if (seedUrl == null) {
+            throw new IllegalArgumentException("Seed URL must be an absolute http or https URL");
+        }
         CrawlJob job = new CrawlJob();
-        job.setSeedUrl(normalizeUrl(request.getUrl()));
+        job.setSeedUrl(seedUrl);
         job.setMaxDepth(request.getMaxDepth());
         job.setMaxPages(request.getMaxPages());
+        job.setHostDelayMs(request.getHostDelayMs());
+        job.setMaxConnectionsPerHost(request.getMaxConnectionsPerHost());
+        job.setUseSitemaps(request.isUseSitemaps());
         job.setOwner(owner);
         job.setStatus(CrawlStatus.PENDING);
+        // The seed task counts against the budget like every other task.
+        job.setEnqueuedCount(1);
+        if (job.isUseSitemaps()) {
+            // Held by the sitemap ingestion until it has queued everything it found, or its deadline passes.
+            job.setInFlightCount(1);
+            job.setSitemapDeadline(LocalDateTime.now().plus(sitemapSettings.getMaxDuration()));
+        }
         crawlJobRepository.save(job);
 
         // Create initial task
-        CrawlTask seedTask = new CrawlTask(job, job.getSeedUrl(), 0);
+        CrawlTask seedTask = new CrawlTask(job, job.getSeedUrl(), 0, frontierScorer.initial(job.getSeedUrl(), 0));
         crawlTaskRepository.save(seedTask);
 
-        sendStatus(job, 0, 0, "Crawl job queued");
+        progressPublisher.sendStatus(job, 0, 0, "Crawl job queued");
+        if (job.isUseSitemaps()) {
+            eventPublisher.publishEvent(new CrawlStartedEvent(job.getId()));
+        }
         return job;
     }
 
@@ -99,21 +136,19 @@ public class DefaultCrawlerService implements CrawlerService {
             .filter(job -> job.getOwner() != null && job.getOwner().getId().equals(owner.getId()));
     }
 
-    // Leader Task: Assign PENDING tasks to nodes
+    /**
+     * Leader task: hands pending tasks to active nodes in proportion to their spare capacity, as
+     * judged from the tasks each node holds and the load it reported in its last heartbeat. With
+     * host sharding on, a node's share is taken from the hosts it owns. Each node's share is
+     * assigned with one bulk update.
+     */
     @Scheduled(fixedRate = 2000)
     @Transactional
     public void assignTasks() {
-        if (!nodeService.isLeader()) {
+        if (taskClaimer.isEnabled() || !leaderElection.holdsFence()) {
             return;
         }
 
-        List<CrawlTask> pendingTasks = crawlTaskRepository.findByStatus(TaskStatus.PENDING, PageRequest.of(0, 50));
-        if (pendingTasks.isEmpty()) {
-            return;
-        }
-        
-        log.info("Found {} pending tasks. Assigning to active nodes...", pendingTasks.size());
-
         LocalDateTime threshold = LocalDateTime.now().minusSeconds(15); // Hardcoded timeout matching NodeService
         List<CrawlerNode> activeNodes = crawlerNodeRepository.findActiveNodesOrderedByHeartbeat(threshold);
         if (activeNodes.isEmpty()) {
@@ -121,170 +156,93 @@ public class DefaultCrawlerService implements CrawlerService {
             return;
         }
 
-        int nodeIndex = 0;
-        for (CrawlTask task : pendingTasks) {
-            CrawlerNode node = activeNodes.get(nodeIndex);
-            task.setAssignedNodeId(node.getId());
-            task.setStatus(TaskStatus.ASSIGNED);
-            task.setAssignedAt(LocalDateTime.now());
-            crawlTaskRepository.save(task);
-            
-            if (task.getJob().getStatus() == CrawlStatus.PENDING) {
-                task.getJob().setStatus(CrawlStatus.RUNNING);
-                task.getJob().setStartedAt(LocalDateTime.now());
-                crawlJobRepository.save(task.getJob());
-            }
-
-            nodeIndex = (nodeIndex + 1) % activeNodes.size();
-        }
-    }
-
-    // Worker Task: Process ASSIGNED tasks
-    @Scheduled(fixedRate = 1000)
-    @Transactional
-    public void processTasks() {
-        UUID myNodeId = nodeService.getCurrentNodeId();
-        List<CrawlTask> myTasks = crawlTaskRepository.findByAssignedNodeIdAndStatus(myNodeId, TaskStatus.ASSIGNED);
-
-        for (CrawlTask task : myTasks) {
-            processTask(task);
+        Map<UUID, Long> held = new HashMap<>();
+        crawlTaskRepository.countAssignedByNode().forEach(count -> held.put(count.key(), count.count()));
+        int[] spare = new int[activeNodes.size()];
+        int totalSpare = 0;
+        for (int i = 0; i < spare.length; i++) {
+            CrawlerNode node = activeNodes.get(i);
+            spare[i] = AssignmentPlanner.spareCapacity(
+                node, held.getOrDefault(node.getId(), 0L), workerMetrics.capacity(), assignmentSettings);
+            totalSpare += spare[i];
         }
-    }
-
-    private void processTask(CrawlTask task) {
-        CrawlJob job = task.getJob();
-        
-        long totalProcessed = crawlTaskRepository.countCompletedByJobId(job.getId());
-        if (totalProcessed >= job.getMaxPages()) {
-            task.setStatus(TaskStatus.COMPLETED);
-            task.setCompletedAt(LocalDateTime.now());
-            crawlTaskRepository.save(task);
+        if (totalSpare == 0) {
+            log.debug("All {} active nodes are at capacity", activeNodes.size());
             return;
         }
 
-        try {
-            PageProcessingResult pageResult = fetchAndProcess(job, task.getUrl());
-            crawlResultRepository.save(pageResult.result());
-
-            if (task.getDepth() < job.getMaxDepth()) {
-                createChildTasks(job, task.getDepth(), pageResult.links());
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseExpiresAt = now.plus(leaseSettings.getDuration());
+        int batch = Math.min(totalSpare, assignmentSettings.getBatchSize());
+        List<UUID> pendingTasks;
+        if (shardRouter.isEnabled()) {
+            // Each node only gets tasks of the hosts it owns, up to its share of the batch.
+            pendingTasks = new ArrayList<>();
+            int[] shares = AssignmentPlanner.split(batch, spare);
+            for (int i = 0; i < shares.length; i++) {
+                UUID nodeId = activeNodes.get(i).getId();
+                List<Integer> buckets = shares[i] > 0 ? shardRouter.bucketsOf(nodeId) : List.of();
+                if (!buckets.isEmpty()) {
+                    List<UUID> share = crawlTaskRepository.findClaimableIdsInBuckets(now, buckets, PageRequest.of(0, shares[i]));
+                    if (!share.isEmpty()) {
+                        crawlTaskRepository.claim(share, nodeId, now, leaseExpiresAt);
+                        pendingTasks.addAll(share);
+                    }
+                }
             }
-
-            task.setStatus(TaskStatus.COMPLETED);
-            sendStatus(job, (int)totalProcessed + 1, 0, "Processed " + task.getUrl());
-        } catch (Exception ex) {
-            log.warn("Failed to crawl {}", task.getUrl(), ex);
-            CrawlResult failedResult = buildFailedResult(job, task.getUrl(), ex.getMessage());
-            crawlResultRepository.save(failedResult);
-            task.setStatus(TaskStatus.FAILED);
-        } finally {
-            task.setCompletedAt(LocalDateTime.now());
-            crawlTaskRepository.save(task);
-        }
-    }
-
-    private void createChildTasks(CrawlJob job, int currentDepth, List<String> links) {
-        List<String> filtered = links.stream()
-            .filter(url -> url.startsWith("http"))
-            .distinct()
-            .collect(Collectors.toList());
-
-        for (String link : filtered) {
-            if (!crawlTaskRepository.existsByJobIdAndUrl(job.getId(), link)) {
-                long totalTasks = crawlTaskRepository.countTotalByJobId(job.getId());
-                if (totalTasks >= job.getMaxPages()) {
-                    break;
+        } else {
+            pendingTasks = crawlTaskRepository.findClaimableIds(now, PageRequest.of(0, batch));
+            int[] shares = AssignmentPlanner.split(pendingTasks.size(), spare);
+            int from = 0;
+            for (int i = 0; i < shares.length; i++) {
+                if (shares[i] > 0) {
+                    List<UUID> share = pendingTasks.subList(from, from + shares[i]);
+                    crawlTaskRepository.claim(share, activeNodes.get(i).getId(), now, leaseExpiresAt);
+                    from += shares[i];
                 }
-                
-                CrawlTask newTask = new CrawlTask(job, link, currentDepth + 1);
-                crawlTaskRepository.save(newTask);
             }
         }
-    }
-
-    private PageProcessingResult fetchAndProcess(CrawlJob job, String url) throws IOException, InterruptedException {
-        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
-            .GET()
-            .timeout(Duration.ofSeconds(15))
-            .build();
-
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
-
-        Document document = Jsoup.parse(response.body(), url);
-        Elements linkElements = document.select("a[href]");
-        int linkCount = linkElements.size();
-        String title = document.title();
-
-        CrawlResult result = new CrawlResult();
-        result.setJob(job);
-        result.setUrl(url);
-        result.setStatusCode(response.statusCode());
-        result.setTitle(title);
-        result.setLinkCount(linkCount);
-        if (response.statusCode() >= 400) {
-            result.setErrorMessage("HTTP " + response.statusCode());
+        if (pendingTasks.isEmpty()) {
+            return;
         }
-        result.setCrawledAt(LocalDateTime.now());
-
-        List<String> links = linkElements.stream()
-            .map(element -> element.attr("abs:href"))
-            .map(DefaultCrawlerService::normalizeUrl)
-            .collect(Collectors.toList());
-
-        return new PageProcessingResult(result, links);
-    }
-
-    private CrawlResult buildFailedResult(CrawlJob job, String url, String message) {
-        CrawlResult result = new CrawlResult();
-        result.setJob(job);
-        result.setUrl(url);
-        result.setStatusCode(0);
-        result.setLinkCount(0);
-        result.setErrorMessage(message);
-        result.setCrawledAt(LocalDateTime.now());
-        return result;
+        crawlJobRepository.startJobsOfTasks(pendingTasks, now);
+        crawlTaskRepository.countAssignedByJob(pendingTasks)
+            .forEach(count -> progressTracker.tasksAssigned(count.key(), (int) count.count()));
+        log.info("Assigned {} pending tasks across {} active nodes", pendingTasks.size(), activeNodes.size());
     }
 
-    private void sendStatus(CrawlJob job, int processed, int pending, String message) {
-        CrawlProgressMessage progressMessage = new CrawlProgressMessage(
-            job.getId(),
-            job.getSeedUrl(),
-            job.getStatus(),
-            processed,
-            pending,
-            message
-        );
-        messagingTemplate.convertAndSend("/topic/crawls", progressMessage);
-        messagingTemplate.convertAndSend("/topic/crawls/" + job.getId(), progressMessage);
+    // Worker Task: Process ASSIGNED tasks, claiming more first when nodes claim their own
+    @Scheduled(fixedRateString = "${crawler.worker.poll-interval:PT1S}")
+    public void processTasks() {
+        UUID myNodeId = nodeService.getCurrentNodeId();
+        List<CrawlTask> myTasks = new ArrayList<>(crawlTaskRepository.findByAssignedNodeIdAndStatus(myNodeId, TaskStatus.ASSIGNED));
+        if (taskClaimer.isEnabled()) {
+            // Only top up to what the node can have in flight, leaving the rest to other nodes.
+            int room = Math.min(workerSettings.getClaimBatchSize(), workerSettings.getMaxInFlight() - myTasks.size());
+            myTasks.addAll(taskClaimer.claim(myNodeId, room));
+        }
+        taskDispatcher.dispatch(myTasks);
     }
 
+    /**
+     * Safety net for completion, which workers normally detect themselves as the last task
+     * finishes: picks up jobs that became complete without a finishing task, e.g. when sitemap
+     * ingestion found nothing new, releases jobs from sitemap ingestions that never finished, and
+     * fills in counters of jobs that predate them.
+     */
     @Scheduled(fixedRate = 5000)
     @Transactional
     public void checkJobCompletion() {
-        if (!nodeService.isLeader()) {
+        if (!leaderElection.holdsFence()) {
             return;
         }
-        
-        List<CrawlJob> runningJobs = crawlJobRepository.findByStatus(CrawlStatus.RUNNING);
-        for (CrawlJob job : runningJobs) {
-            long completed = crawlTaskRepository.countCompletedByJobId(job.getId());
-            if (completed >= job.getMaxPages()) {
-                job.setStatus(CrawlStatus.COMPLETED);
-                job.setCompletedAt(LocalDateTime.now());
-                crawlJobRepository.save(job);
-                sendStatus(job, (int)completed, 0, "Crawl completed");
-            }
-        }
-    }
 
-    private static String normalizeUrl(String rawUrl) {
-        try {
-            return URI.create(rawUrl).normalize().toString();
-        } catch (Exception ex) {
-            return rawUrl;
+        int backfilled = crawlJobRepository.backfillCounters();
+        if (backfilled > 0) {
+            log.info("Filled in task counters of {} unfinished jobs", backfilled);
         }
-    }
-
-    private record PageProcessingResult(CrawlResult result, List<String> links) {
+        // A sitemap file being read at the deadline may take up to one more timeout to finish.
+        progressTracker.expireSitemapIngestions(LocalDateTime.now().minus(sitemapSettings.getTimeout()));
+        crawlJobRepository.findCompletable().forEach(progressTracker::completeIfDone);
     }
 }
@@ -0,0 +1,67 @@
+package com.webcrawler.backend.service;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import com.webcrawler.backend.crawler.HostShardRing;
+import com.webcrawler.backend.domain.CrawlerNode;
+import com.webcrawler.backend.repository.CrawlerNodeRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * This node's view of the {@link HostShardRing} over the active nodes, used to route each task to
+ * the node that owns its host. Every node builds the ring from the same node table, so they agree
+ * on the owners except for a few seconds after a node joins or leaves, when a host may briefly be
+ * crawled from two nodes.
+ */
+@Service
+public class HostShardRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(HostShardRouter.class);
+    private static final int NODE_TIMEOUT_SECONDS = 15;
+
+    private final CrawlerNodeRepository nodeRepository;
+    private final CrawlerProperties.Sharding settings;
+    private volatile Set<UUID> members = Set.of();
+    private volatile HostShardRing ring = HostShardRing.of(List.of(), 1);
+
+    public HostShardRouter(CrawlerNodeRepository nodeRepository, CrawlerProperties crawlerProperties) {
+        this.nodeRepository = nodeRepository;
+        this.settings = crawlerProperties.getSharding();
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    /** Rebuilds the ring when the set of active nodes has changed. */
+    @Scheduled(fixedRate = 5000)
+    public void refresh() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        LocalDateTime threshold = LocalDateTime.now().minusSeconds(NODE_TIMEOUT_SECONDS);
+        Set<UUID> active = nodeRepository.findActiveNodesOrderedByHeartbeat(threshold).stream()
+            .map(CrawlerNode::getId)
+            .collect(Collectors.toUnmodifiableSet());
+        if (!active.equals(members)) {
+            ring = HostShardRing.of(active, settings.getVirtualNodes());
+            members = active;
+            log.info("Host shard ring rebuilt for {} nodes: {}", active.size(), ring.bucketCounts());
+        }
+    }
+
+    /** The host buckets the node owns, refreshing the ring first if the node is not on it yet. */
+    public List<Integer> bucketsOf(UUID nodeId) {
+        if (!members.contains(nodeId)) {
+            refresh();
+        }
+        return ring.bucketsOf(nodeId);
+    }
+}
@@ -0,0 +1,128 @@
+package com.webcrawler.backend.service;
+
+import com.webcrawler.backend.domain.CrawlJob;
+import com.webcrawler.backend.domain.CrawlStatus;
+import com.webcrawler.backend.repository.CrawlJobRepository;
+import com.webcrawler.backend.repository.JobCounters;
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the task counters on {@link CrawlJob} up to date as tasks move through the queue and
+ * completes a job the moment its last piece of work finishes. Every change is a single-row update
+ * of the job, so progress and completion never need to count the job's tasks.
+ */
+@Service
+public class JobProgressTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(JobProgressTracker.class);
+
+    private final CrawlJobRepository crawlJobRepository;
+    private final CrawlProgressPublisher progressPublisher;
+
+    public JobProgressTracker(CrawlJobRepository crawlJobRepository, CrawlProgressPublisher progressPublisher) {
+        this.crawlJobRepository = crawlJobRepository;
+        this.progressPublisher = progressPublisher;
+    }
+
+    @Transactional
+    public void tasksAssigned(UUID jobId, int count) {
+        crawlJobRepository.addInFlight(jobId, count);
+    }
+
+    @Transactional
+    public void taskRequeued(UUID jobId) {
+        tasksRequeued(jobId, 1);
+    }
+
+    @Transactional
+    public void tasksRequeued(UUID jobId, int count) {
+        crawlJobRepository.addInFlight(jobId, -count);
+    }
+
+    /**
+     * Counts tasks that were given up on without a worker finishing them, e.g. after losing their
+     * lease too often, and completes the job if they were its last ones.
+     */
+    @Transactional
+    public void tasksAbandoned(UUID jobId, int count) {
+        crawlJobRepository.recordFailed(jobId, count);
+        crawlJobRepository.findById(jobId).ifPresent(this::completeIfDone);
+    }
+
+    /**
+     * Counts a finished task and completes the job if it was the last one; otherwise reports the
+     * new progress.
+     */
+    @Transactional
+    public void taskFinished(CrawlJob job, boolean failed, String url) {
+        if (failed) {
+            crawlJobRepository.recordFailed(job.getId());
+        } else {
+            crawlJobRepository.recordProcessed(job.getId());
+        }
+        if (!completeIfDone(job) && !failed) {
+            JobCounters counters = crawlJobRepository.findCounters(job.getId()).orElse(null);
+            if (counters != null) {
+                progressPublisher.sendStatus(job, counters.processed(), counters.pending(), "Processed " + url);
+            }
+        }
+    }
+
+    /**
+     * Releases the in-flight unit the job's sitemap ingestion held since the job was created, and
+     * completes the job if nothing else is left.
+     */
+    @Transactional
+    public void sitemapIngestionFinished(CrawlJob job) {
+        if (crawlJobRepository.releaseSitemapIngestion(job.getId()) > 0) {
+            job.setSitemapDeadline(null);
+            completeIfDone(job);
+        }
+    }
+
+    /**
+     * Releases the in-flight unit of sitemap ingestions whose deadline passed before
+     * {@code cutoff}, which happens when the node running one died, so their jobs can complete.
+     *
+     * @return the number of ingestions given up on
+     */
+    @Transactional
+    public int expireSitemapIngestions(LocalDateTime cutoff) {
+        List<CrawlJob> expired = crawlJobRepository.findWithSitemapDeadlineBefore(cutoff);
+        int released = 0;
+        for (CrawlJob job : expired) {
+            if (crawlJobRepository.releaseSitemapIngestion(job.getId()) > 0) {
+                log.warn("Sitemap ingestion for job {} did not finish by {}; releasing it", job.getId(), job.getSitemapDeadline());
+                job.setSitemapDeadline(null);
+                released++;
+                completeIfDone(job);
+            }
+        }
+        return released;
+    }
+
+    /**
+     * Completes the job if nothing is left to do. The check and the status change are one
+     * conditional update, so of several nodes finishing at once exactly one completes the job.
+     */
+    @Transactional
+    public boolean completeIfDone(CrawlJob job) {
+        LocalDateTime now = LocalDateTime.now();
+        if (crawlJobRepository.completeIfDone(job.getId(), now) == 0) {
+            return false;
+        }
+        // Mirror the bulk update on the loaded entity, which is what the message is built from.
+        job.setStatus(CrawlStatus.COMPLETED);
+        job.setCompletedAt(now);
+        JobCounters counters = crawlJobRepository.findCounters(job.getId()).orElse(new JobCounters(0, 0, 0, 0));
+        log.info("Crawl job {} completed: {} processed, {} failed", job.getId(), counters.processed(), counters.failed());
+        progressPublisher.sendStatus(job, counters.processed(), 0, "Crawl completed");
+        return true;
+    }
+}
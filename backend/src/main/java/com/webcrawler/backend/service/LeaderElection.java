@@ -0,0 +1,110 @@
+package com.webcrawler.backend.service;
+
+import com.webcrawler.backend.domain.LeaderLease;
+import com.webcrawler.backend.repository.LeaderLeaseRepository;
+import jakarta.transaction.Transactional;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Elects the cluster leader through a single {@link LeaderLease} row. Taking and renewing the
+ * lease are conditional updates, so only one node can hold a term at a time, and every new term
+ * gets a higher fencing token.
+ * <p>
+ * Whether this node leads is answered from memory until a little before the lease it last
+ * renewed runs out, so the scheduled leader tasks of the other nodes cost no query. Before it
+ * writes, a leader task calls {@link #holdsFence()} in its own transaction: that checks the stored
+ * token still matches this node's term and keeps the row share-locked until commit, so a node
+ * that lost its lease, e.g. after a long pause, cannot write alongside its successor.
+ * Expiry times come from the nodes' clocks, which are assumed to be roughly in sync.
+ */
+@Service
+public class LeaderElection {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderElection.class);
+    static final String LEADER_LEASE = "crawler-leader";
+    private static final Duration LEASE_DURATION = Duration.ofSeconds(15);
+    /** Leadership is given up locally this long before the lease expires, to allow for clock drift. */
+    private static final Duration SAFETY_MARGIN = Duration.ofSeconds(2);
+
+    private final LeaderLeaseRepository leaseRepository;
+    private volatile Term term;
+
+    public LeaderElection(LeaderLeaseRepository leaseRepository) {
+        this.leaseRepository = leaseRepository;
+    }
+
+    /**
+     * Renews this node's term if it has one, otherwise tries to start a new one. Called on every
+     * heartbeat, which is well within the lease duration.
+     */
+    @Transactional
+    public void renewOrAcquire(UUID nodeId) {
+        long startedNanos = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(LEASE_DURATION);
+        Term current = term;
+        if (current != null && current.holderId().equals(nodeId)) {
+            if (leaseRepository.renew(LEADER_LEASE, nodeId, current.fencingToken(), now, expiresAt) == 1) {
+                term = new Term(nodeId, current.fencingToken(), validUntil(startedNanos));
+                return;
+            }
+            log.warn("Node {} lost leadership of term {}", nodeId, current.fencingToken());
+            term = null;
+        }
+
+        leaseRepository.createIfAbsent(LEADER_LEASE);
+        if (leaseRepository.acquire(LEADER_LEASE, nodeId, now, expiresAt) == 1) {
+            long fencingToken = leaseRepository.findFencingToken(LEADER_LEASE).orElseThrow();
+            term = new Term(nodeId, fencingToken, validUntil(startedNanos));
+            log.info("Node {} elected as leader for term {}", nodeId, fencingToken);
+        }
+    }
+
+    public boolean isLeader() {
+        Term current = term;
+        return current != null && System.nanoTime() - current.validUntilNanos() < 0;
+    }
+
+    /**
+     * Whether this node may make leader writes in the current transaction. Must be called inside
+     * the transaction that makes them.
+     */
+    @Transactional
+    public boolean holdsFence() {
+        Term current = term;
+        if (current == null || !isLeader()) {
+            return false;
+        }
+        boolean holds = leaseRepository.findForFence(LEADER_LEASE)
+            .filter(lease -> current.holderId().equals(lease.getHolderId()))
+            .filter(lease -> lease.getFencingToken() == current.fencingToken())
+            .isPresent();
+        if (!holds) {
+            log.warn("Fencing token {} is stale; skipping leader work", current.fencingToken());
+            term = null;
+        }
+        return holds;
+    }
+
+    /** Hands the lease back so another node can take over without waiting for it to expire. */
+    @Transactional
+    public void resign() {
+        Term current = term;
+        term = null;
+        if (current != null) {
+            leaseRepository.release(LEADER_LEASE, current.holderId(), current.fencingToken());
+        }
+    }
+
+    private static long validUntil(long startedNanos) {
+        return startedNanos + LEASE_DURATION.minus(SAFETY_MARGIN).toNanos();
+    }
+
+    private record Term(UUID holderId, long fencingToken, long validUntilNanos) {
+    }
+}
@@ -9,8 +9,6 @@ import jakarta.transaction.Transactional;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,11 +23,15 @@ public class NodeService {
     private static final int NODE_TIMEOUT_SECONDS = 15;
 
     private final CrawlerNodeRepository nodeRepository;
+    private final WorkerMetrics workerMetrics;
+    private final LeaderElection leaderElection;
     private final UUID currentNodeUuid = UUID.randomUUID();
     private String currentNodeId;
 
-    public NodeService(CrawlerNodeRepository nodeRepository) {
+    public NodeService(CrawlerNodeRepository nodeRepository, WorkerMetrics workerMetrics, LeaderElection leaderElection) {
         this.nodeRepository = nodeRepository;
+        this.workerMetrics = workerMetrics;
+        this.leaderElection = leaderElection;
     }
 
     @PostConstruct
@@ -45,6 +47,7 @@ public class NodeService {
     @Transactional
     public void registerNode() {
         CrawlerNode node = new CrawlerNode(currentNodeUuid, currentNodeId, "localhost");
+        node.setCapacity(workerMetrics.capacity());
         nodeRepository.save(node);
         log.info("Registered node: {}", currentNodeId);
     }
@@ -52,13 +55,20 @@ public class NodeService {
     @Scheduled(fixedRate = HEARTBEAT_INTERVAL_MS)
     @Transactional
     public void sendHeartbeat() {
+        checkLeader();
         nodeRepository.findById(currentNodeUuid).ifPresentOrElse(node -> {
             node.setLastHeartbeat(LocalDateTime.now());
             node.setStatus(NodeStatus.ACTIVE);
+            // Load telemetry the leader sizes this node's assignments by.
+            WorkerMetrics.Sample sample = workerMetrics.sample();
+            node.setCapacity(sample.capacity());
+            node.setInFlightTasks(sample.inFlight());
+            node.setBacklog(sample.backlog());
+            node.setPagesPerSecond(sample.pagesPerSecond());
+            node.setFreeHeapBytes(sample.freeHeapBytes());
+            node.setLeader(leaderElection.isLeader());
             nodeRepository.save(node);
         }, this::registerNode);
-        
-        checkLeader();
     }
 
     @Scheduled(fixedRate = 10000)
@@ -71,39 +81,26 @@ public class NodeService {
         }
     }
 
+    /**
+     * Renews this node's leader lease, or tries to become leader if nobody holds it; see
+     * {@link LeaderElection}.
+     */
     @Transactional
     public void checkLeader() {
-        // 1. Check if current leader is alive
-        Optional<CrawlerNode> currentLeader = nodeRepository.findFirstByIsLeaderTrue();
-        if (currentLeader.isPresent()) {
-            CrawlerNode leader = currentLeader.get();
-            if (leader.getLastHeartbeat().isAfter(LocalDateTime.now().minusSeconds(NODE_TIMEOUT_SECONDS))) {
-                // Leader is healthy
-                return;
-            }
-            // Leader is dead, demote
-            leader.setLeader(false);
-            nodeRepository.save(leader);
-            log.info("Leader {} is dead. Initiating election.", leader.getNodeId());
-        }
-
-        // 2. Elect new leader (Oldest active node)
-        LocalDateTime threshold = LocalDateTime.now().minusSeconds(NODE_TIMEOUT_SECONDS);
-        List<CrawlerNode> activeNodes = nodeRepository.findActiveNodesOrderedByHeartbeat(threshold);
-        if (!activeNodes.isEmpty()) {
-            CrawlerNode newLeader = activeNodes.get(0);
-            newLeader.setLeader(true);
-            nodeRepository.save(newLeader);
-            log.info("Node {} elected as new leader", newLeader.getNodeId());
-        }
+        leaderElection.renewOrAcquire(currentNodeUuid);
     }
 
+    /** Answered from the locally cached lease, without a query. */
     public boolean isLeader() {
-        return nodeRepository.findById(currentNodeUuid)
-            .map(CrawlerNode::isLeader)
-            .orElse(false);
+        return leaderElection.isLeader();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Let another node take over right away instead of after the lease runs out.
+        leaderElection.resign();
     }
-    
+
     public UUID getCurrentNodeId() {
         return currentNodeUuid;
     }
@@ -0,0 +1,55 @@
+package com.webcrawler.backend.service;
+
+import com.webcrawler.backend.repository.CrawlJobRepository;
+import jakarta.transaction.Transactional;
+import java.util.UUID;
+import org.springframework.stereotype.Service;
+
+/**
+ * Hands out a job's {@code maxPages} budget to whoever queues tasks for it. Slots are taken with a
+ * conditional update on the job row, so concurrent completions on any node never queue more
+ * tasks than the budget allows, and no one has to count the job's tasks to find out.
+ */
+@Service
+public class PageBudget {
+
+    private final CrawlJobRepository crawlJobRepository;
+
+    public PageBudget(CrawlJobRepository crawlJobRepository) {
+        this.crawlJobRepository = crawlJobRepository;
+    }
+
+    /**
+     * Returns the unreserved budget without locking; good enough to skip work when it is gone.
+     */
+    public int remaining(UUID jobId) {
+        return crawlJobRepository.findRemainingBudget(jobId).orElse(0);
+    }
+
+    /**
+     * Reserves up to {@code wanted} task slots and returns how many were granted. The job row stays
+     * locked until the caller's transaction ends, so keep slow work such as robots.txt lookups
+     * before the reservation.
+     */
+    @Transactional
+    public int reserve(UUID jobId, int wanted) {
+        if (wanted <= 0) {
+            return 0;
+        }
+        int granted = Math.min(wanted, crawlJobRepository.lockRemainingBudget(jobId).orElse(0));
+        if (granted <= 0 || crawlJobRepository.reserveTasks(jobId, granted) == 0) {
+            return 0;
+        }
+        return granted;
+    }
+
+    /**
+     * Gives back slots that were reserved but not used, e.g. for links another node queued first.
+     */
+    @Transactional
+    public void release(UUID jobId, int count) {
+        if (count > 0) {
+            crawlJobRepository.releaseTasks(jobId, count);
+        }
+    }
+}
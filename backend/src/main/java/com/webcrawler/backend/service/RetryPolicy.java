@@ -0,0 +1,74 @@
+package com.webcrawler.backend.service;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import java.net.ConnectException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.stereotype.Service;
+
+/**
+ * Decides which fetch failures are worth another attempt and how long to wait before it.
+ * Timeouts, refused connections, {@code 5xx} and {@code 429} are treated as transient; the delay
+ * doubles with every attempt, with some jitter so retries of one host do not line up.
+ */
+@Service
+public class RetryPolicy {
+
+    private final CrawlerProperties.Retry settings;
+
+    public RetryPolicy(CrawlerProperties crawlerProperties) {
+        this.settings = crawlerProperties.getRetry();
+    }
+
+    public static boolean isTransient(Throwable error) {
+        return error instanceof HttpTimeoutException || error instanceof ConnectException;
+    }
+
+    public static boolean isTransient(int statusCode) {
+        return statusCode == 429 || statusCode >= 500;
+    }
+
+    public boolean canRetry(int attemptsSoFar) {
+        return attemptsSoFar < settings.getMaxAttempts();
+    }
+
+    /**
+     * Returns the delay before the given attempt (the second attempt is number 2). A delay the
+     * server asked for with {@code Retry-After} is honoured when it is longer.
+     */
+    public Duration backoff(int attempt, Duration retryAfter) {
+        long initial = settings.getInitialBackoff().toMillis();
+        long max = settings.getMaxBackoff().toMillis();
+        long exponential = initial << Math.min(Math.max(0, attempt - 2), 20);
+        long jittered = (long) (exponential * ThreadLocalRandom.current().nextDouble(0.8, 1.2));
+        long delay = retryAfter != null ? Math.max(jittered, retryAfter.toMillis()) : jittered;
+        return Duration.ofMillis(Math.min(delay, max));
+    }
+
+    /**
+     * Parses a {@code Retry-After} header, which holds either a number of seconds or an HTTP date.
+     */
+    public static Optional<Duration> parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return Optional.empty();
+        }
+        String trimmed = value.trim();
+        try {
+            return Optional.of(Duration.ofSeconds(Math.max(0, Long.parseLong(trimmed))));
+        } catch (NumberFormatException ignored) {
+            // Not delta-seconds; try the date form below.
+        }
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME);
+            Duration delay = Duration.between(ZonedDateTime.now(at.getZone()), at);
+            return Optional.of(delay.isNegative() ? Duration.ZERO : delay);
+        } catch (DateTimeParseException ex) {
+            return Optional.empty();
+        }
+    }
+}
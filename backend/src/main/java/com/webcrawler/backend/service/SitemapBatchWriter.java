@@ -0,0 +1,72 @@
+package com.webcrawler.backend.service;
+
+import com.webcrawler.backend.crawler.FrontierScorer;
+import com.webcrawler.backend.crawler.SeenUrlFilter;
+import com.webcrawler.backend.crawler.UrlFingerprint;
+import com.webcrawler.backend.domain.CrawlJob;
+import com.webcrawler.backend.domain.CrawlTask;
+import com.webcrawler.backend.repository.CrawlTaskRepository;
+import jakarta.transaction.Transactional;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.stereotype.Service;
+
+/**
+ * Queues a batch of URLs read from a job's sitemaps as depth-1 tasks. The budget reservation and
+ * the insert share one transaction, as they do for outlinks in {@link CrawlTaskProcessor}, so slots
+ * reserved for a batch whose insert fails are handed back by the rollback instead of being lost.
+ */
+@Service
+public class SitemapBatchWriter {
+
+    private final CrawlTaskRepository crawlTaskRepository;
+    private final SeenUrlFilter seenUrlFilter;
+    private final PageBudget pageBudget;
+    private final FrontierScorer frontierScorer;
+
+    public SitemapBatchWriter(
+        CrawlTaskRepository crawlTaskRepository,
+        SeenUrlFilter seenUrlFilter,
+        PageBudget pageBudget,
+        FrontierScorer frontierScorer
+    ) {
+        this.crawlTaskRepository = crawlTaskRepository;
+        this.seenUrlFilter = seenUrlFilter;
+        this.pageBudget = pageBudget;
+        this.frontierScorer = frontierScorer;
+    }
+
+    /**
+     * Queues the URLs the job does not have yet, up to its page budget.
+     */
+    @Transactional
+    public Written write(CrawlJob job, List<String> urls) {
+        int remaining = pageBudget.remaining(job.getId());
+        if (remaining <= 0) {
+            return new Written(0, 0);
+        }
+        List<String> unseen = seenUrlFilter.filterUnseen(job, urls);
+        Set<Long> existing = unseen.isEmpty()
+            ? Set.of()
+            : new HashSet<>(crawlTaskRepository.findExistingUrlHashes(job.getId(), unseen.stream().map(UrlFingerprint::of).toList()));
+        List<CrawlTask> tasks = unseen.stream()
+            .map(url -> new CrawlTask(job, url, 1, frontierScorer.initial(url, 1)))
+            .filter(task -> !existing.contains(task.getUrlHash()))
+            .limit(remaining)
+            .toList();
+        int granted = pageBudget.reserve(job.getId(), tasks.size());
+        List<CrawlTask> reserved = tasks.subList(0, granted);
+        int added = crawlTaskRepository.insertIgnoringDuplicates(reserved);
+        pageBudget.release(job.getId(), granted - added);
+        seenUrlFilter.record(job, unseen.stream().filter(url -> existing.contains(UrlFingerprint.of(url))).toList());
+        seenUrlFilter.record(job, reserved.stream().map(CrawlTask::getUrl).toList());
+        return new Written(added, granted < tasks.size() ? 0 : remaining - added);
+    }
+
+    /**
+     * Tasks a batch added, and the budget the job has left after it as far as this batch can tell.
+     */
+    public record Written(int added, int remaining) {
+    }
+}
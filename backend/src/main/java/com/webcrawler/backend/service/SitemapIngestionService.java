@@ -0,0 +1,211 @@
+package com.webcrawler.backend.service;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import com.webcrawler.backend.crawler.Hosts;
+import com.webcrawler.backend.crawler.PageFetcher;
+import com.webcrawler.backend.crawler.RobotsService;
+import com.webcrawler.backend.crawler.RobotsService.Access;
+import com.webcrawler.backend.crawler.SitemapParser;
+import com.webcrawler.backend.crawler.UrlCanonicalizer;
+import com.webcrawler.backend.domain.CrawlJob;
+import com.webcrawler.backend.repository.CrawlJobRepository;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Seeds a job with the URLs from its site's sitemaps. Sitemaps are taken from the seed origin's
+ * robots.txt, falling back to {@code /sitemap.xml}; index files are followed breadth first. URLs
+ * are streamed out of each file and inserted as depth-1 tasks in batches until the job's page
+ * budget is used up, so neither a large sitemap nor its URL list is ever held in memory. Only URLs
+ * on the seed's host that its robots.txt does not disallow are queued, as the sitemap protocol
+ * does not let a sitemap list pages of other hosts.
+ */
+@Service
+public class SitemapIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(SitemapIngestionService.class);
+
+    private static final int MAX_URL_LENGTH = 2048;
+
+    private final CrawlJobRepository crawlJobRepository;
+    private final PageFetcher pageFetcher;
+    private final RobotsService robotsService;
+    private final UrlCanonicalizer urlCanonicalizer;
+    private final PageBudget pageBudget;
+    private final SitemapBatchWriter batchWriter;
+    private final JobProgressTracker progressTracker;
+    private final CrawlerProperties.Sitemaps settings;
+
+    public SitemapIngestionService(
+        CrawlJobRepository crawlJobRepository,
+        PageFetcher pageFetcher,
+        RobotsService robotsService,
+        UrlCanonicalizer urlCanonicalizer,
+        PageBudget pageBudget,
+        SitemapBatchWriter batchWriter,
+        JobProgressTracker progressTracker,
+        CrawlerProperties crawlerProperties
+    ) {
+        this.crawlJobRepository = crawlJobRepository;
+        this.pageFetcher = pageFetcher;
+        this.robotsService = robotsService;
+        this.urlCanonicalizer = urlCanonicalizer;
+        this.pageBudget = pageBudget;
+        this.batchWriter = batchWriter;
+        this.progressTracker = progressTracker;
+        this.settings = crawlerProperties.getSitemaps();
+    }
+
+    @Async("crawlerVirtualExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCrawlStarted(CrawlStartedEvent event) {
+        crawlJobRepository.findById(event.jobId())
+            .filter(CrawlJob::isUseSitemaps)
+            .ifPresent(this::ingest);
+    }
+
+    /**
+     * Reads the job's sitemaps, then releases the in-flight unit the job was created with so it
+     * can complete once its tasks are done. Reading stops at the job's sitemap deadline, after
+     * which the leader may release the unit itself.
+     */
+    void ingest(CrawlJob job) {
+        try {
+            ingestSitemaps(job);
+        } finally {
+            progressTracker.sitemapIngestionFinished(job);
+        }
+    }
+
+    private void ingestSitemaps(CrawlJob job) {
+        Deque<String> pending = new ArrayDeque<>(discoverSitemaps(job.getSeedUrl()));
+        Set<String> visited = new HashSet<>();
+        Batch batch = new Batch(job);
+        int files = 0;
+        while (!pending.isEmpty() && files < settings.getMaxFiles() && batch.hasBudget() && batch.beforeDeadline()) {
+            String sitemapUrl = pending.poll();
+            if (!visited.add(sitemapUrl)) {
+                continue;
+            }
+            files++;
+            read(sitemapUrl, new SitemapParser.Handler() {
+                @Override
+                public boolean page(String loc) {
+                    return batch.add(loc);
+                }
+
+                @Override
+                public boolean sitemap(String loc) {
+                    if (!visited.contains(loc)) {
+                        pending.add(loc);
+                    }
+                    return true;
+                }
+            });
+        }
+        batch.flush();
+        log.info("Sitemap ingestion for job {} read {} files and queued {} tasks", job.getId(), files, batch.inserted);
+    }
+
+    private List<String> discoverSitemaps(String seedUrl) {
+        List<String> listed;
+        try {
+            listed = robotsService.sitemapsFor(seedUrl).join();
+        } catch (RuntimeException ex) {
+            listed = List.of();
+        }
+        if (!listed.isEmpty()) {
+            return listed;
+        }
+        URI seed = URI.create(seedUrl);
+        return List.of(seed.resolve("/sitemap.xml").toString());
+    }
+
+    private void read(String sitemapUrl, SitemapParser.Handler handler) {
+        try {
+            HttpResponse<InputStream> response = pageFetcher.fetchStream(sitemapUrl, settings.getTimeout());
+            try (InputStream body = response.body()) {
+                if (response.statusCode() != 200) {
+                    log.debug("Sitemap {} returned HTTP {}", sitemapUrl, response.statusCode());
+                    return;
+                }
+                SitemapParser.parse(body, handler);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | IllegalArgumentException ex) {
+            log.warn("Could not read sitemap {}: {}", sitemapUrl, ex.getMessage());
+        }
+    }
+
+    /**
+     * Collects URLs and hands them to {@link SitemapBatchWriter} in batches, stopping once
+     * {@link PageBudget} has no slots left for the job or the ingestion's deadline passes. URLs of
+     * other hosts and ones robots.txt disallows are dropped; ones whose robots.txt is unavailable
+     * are kept and checked again when they are fetched, as outlinks are.
+     */
+    private final class Batch {
+
+        private final CrawlJob job;
+        private final String seedHost;
+        private final LocalDateTime deadline;
+        private final List<String> urls = new ArrayList<>();
+        private final Set<String> queued = new HashSet<>();
+        private long remaining;
+        private int inserted;
+
+        Batch(CrawlJob job) {
+            this.job = job;
+            this.seedHost = Hosts.hostOf(job.getSeedUrl());
+            this.deadline = job.getSitemapDeadline();
+            this.remaining = pageBudget.remaining(job.getId());
+        }
+
+        boolean hasBudget() {
+            return remaining > 0;
+        }
+
+        boolean beforeDeadline() {
+            return deadline == null || LocalDateTime.now().isBefore(deadline);
+        }
+
+        boolean add(String loc) {
+            String url = urlCanonicalizer.canonicalize(loc);
+            if (url == null || url.length() > MAX_URL_LENGTH || !queued.add(url)) {
+                return true;
+            }
+            if (!Hosts.hostOf(url).equals(seedHost) || robotsService.access(url) == Access.DISALLOWED) {
+                return true;
+            }
+            urls.add(url);
+            if (urls.size() >= Math.min(settings.getBatchSize(), remaining)) {
+                flush();
+            }
+            return hasBudget() && beforeDeadline();
+        }
+
+        void flush() {
+            if (!urls.isEmpty() && beforeDeadline()) {
+                SitemapBatchWriter.Written written = batchWriter.write(job, List.copyOf(urls));
+                inserted += written.added();
+                remaining = written.remaining();
+            }
+            urls.clear();
+        }
+    }
+}
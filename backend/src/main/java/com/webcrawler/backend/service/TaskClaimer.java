@@ -0,0 +1,106 @@
+package com.webcrawler.backend.service;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import com.webcrawler.backend.config.CrawlerProperties.ClaimMode;
+import com.webcrawler.backend.domain.CrawlTask;
+import com.webcrawler.backend.repository.CrawlJobRepository;
+import com.webcrawler.backend.repository.CrawlTaskRepository;
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+/**
+ * Lets a node take pending tasks for itself instead of waiting for the leader to hand them out,
+ * so that assignment throughput grows with the number of nodes. A claim is one short transaction:
+ * pick pending task ids, mark them {@code ASSIGNED} to the node under a lease, and load them
+ * together with their jobs in a single query.
+ * <p>
+ * With {@code SKIP_LOCKED} the picked rows are locked and concurrent claimers skip them, so every
+ * claim gets a disjoint batch. With {@code CONDITIONAL_UPDATE} the picked rows are not locked and
+ * the update only takes those still pending; a node that loses a race for a task simply does not
+ * get it. With host sharding on, a node only claims tasks of the hosts it owns on the
+ * {@link HostShardRouter} ring.
+ */
+@Service
+public class TaskClaimer {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskClaimer.class);
+
+    private final CrawlTaskRepository crawlTaskRepository;
+    private final CrawlJobRepository crawlJobRepository;
+    private final JobProgressTracker progressTracker;
+    private final HostShardRouter shardRouter;
+    private final CrawlerProperties.Worker settings;
+    private final CrawlerProperties.Lease leaseSettings;
+
+    public TaskClaimer(
+        CrawlTaskRepository crawlTaskRepository,
+        CrawlJobRepository crawlJobRepository,
+        JobProgressTracker progressTracker,
+        HostShardRouter shardRouter,
+        CrawlerProperties crawlerProperties
+    ) {
+        this.crawlTaskRepository = crawlTaskRepository;
+        this.crawlJobRepository = crawlJobRepository;
+        this.progressTracker = progressTracker;
+        this.shardRouter = shardRouter;
+        this.settings = crawlerProperties.getWorker();
+        this.leaseSettings = crawlerProperties.getLease();
+    }
+
+    /** Whether nodes claim their own tasks, which takes over from the leader's assignment loop. */
+    public boolean isEnabled() {
+        return settings.getClaimMode() != ClaimMode.LEADER;
+    }
+
+    /**
+     * Claims up to {@code limit} pending tasks for the node.
+     *
+     * @return the claimed tasks with their jobs loaded
+     */
+    @Transactional
+    public List<CrawlTask> claim(UUID nodeId, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> taskIds = shardRouter.isEnabled() ? findOwnCandidates(nodeId, now, limit) : findCandidates(now, limit);
+        if (taskIds.isEmpty() || crawlTaskRepository.claim(taskIds, nodeId, now, now.plus(leaseSettings.getDuration())) == 0) {
+            return List.of();
+        }
+        crawlJobRepository.startJobsOfTasks(taskIds, now);
+        List<CrawlTask> claimed = crawlTaskRepository.findClaimed(taskIds, nodeId);
+
+        Map<UUID, Integer> claimedPerJob = new HashMap<>();
+        for (CrawlTask task : claimed) {
+            claimedPerJob.merge(task.getJob().getId(), 1, Integer::sum);
+        }
+        claimedPerJob.forEach(progressTracker::tasksAssigned);
+        log.debug("Node {} claimed {} of {} candidate tasks", nodeId, claimed.size(), taskIds.size());
+        return claimed;
+    }
+
+    private List<UUID> findCandidates(LocalDateTime now, int limit) {
+        return settings.getClaimMode() == ClaimMode.SKIP_LOCKED
+            ? crawlTaskRepository.lockClaimable(now, limit)
+            : crawlTaskRepository.findClaimableIds(now, PageRequest.of(0, limit));
+    }
+
+    /** Candidates among the hosts this node owns on the shard ring. */
+    private List<UUID> findOwnCandidates(UUID nodeId, LocalDateTime now, int limit) {
+        List<Integer> buckets = shardRouter.bucketsOf(nodeId);
+        if (buckets.isEmpty()) {
+            return List.of();
+        }
+        return settings.getClaimMode() == ClaimMode.SKIP_LOCKED
+            ? crawlTaskRepository.lockClaimableInBuckets(now, buckets, limit)
+            : crawlTaskRepository.findClaimableIdsInBuckets(now, buckets, PageRequest.of(0, limit));
+    }
+}
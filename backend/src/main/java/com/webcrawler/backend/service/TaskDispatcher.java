@@ -0,0 +1,192 @@
+package com.webcrawler.backend.service;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import com.webcrawler.backend.crawler.HostCircuitBreaker;
+import com.webcrawler.backend.crawler.HostPolitenessScheduler;
+import com.webcrawler.backend.crawler.HostPolitenessScheduler.HostPolicy;
+import com.webcrawler.backend.crawler.RobotsService;
+import com.webcrawler.backend.domain.CrawlTask;
+import com.webcrawler.backend.service.CrawlTaskProcessor.PageProcessingResult;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+/**
+ * Hands the tasks assigned to this node to {@link CrawlTaskProcessor} according to the
+ * configured worker mode. Tasks stay {@code ASSIGNED} while they are being fetched, so the
+ * dispatcher remembers which ones it already started and skips them on the next poll. Tasks whose
+ * host is not ready under {@link HostPolitenessScheduler} are left for a later poll; tasks whose
+ * host has an open circuit in {@link HostCircuitBreaker} go back to the queue until it may be
+ * probed again.
+ */
+@Service
+public class TaskDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskDispatcher.class);
+
+    private final CrawlTaskProcessor processor;
+    private final HostPolitenessScheduler politeness;
+    private final HostCircuitBreaker circuitBreaker;
+    private final RobotsService robotsService;
+    private final WorkerMetrics metrics;
+    private final CrawlerProperties.Worker settings;
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+    private final Semaphore fetchPermits;
+    private final Executor platformExecutor;
+    private final Executor virtualExecutor;
+
+    public TaskDispatcher(
+        CrawlTaskProcessor processor,
+        HostPolitenessScheduler politeness,
+        HostCircuitBreaker circuitBreaker,
+        RobotsService robotsService,
+        WorkerMetrics metrics,
+        CrawlerProperties crawlerProperties,
+        @Qualifier("crawlerExecutor") Executor platformExecutor,
+        @Qualifier("crawlerVirtualExecutor") Executor virtualExecutor
+    ) {
+        this.processor = processor;
+        this.politeness = politeness;
+        this.circuitBreaker = circuitBreaker;
+        this.robotsService = robotsService;
+        this.metrics = metrics;
+        this.settings = crawlerProperties.getWorker();
+        this.fetchPermits = new Semaphore(settings.getMaxInFlight());
+        this.platformExecutor = platformExecutor;
+        this.virtualExecutor = virtualExecutor;
+    }
+
+    public void dispatch(List<CrawlTask> tasks) {
+        try {
+            start(tasks);
+        } finally {
+            int waiting = (int) tasks.stream().filter(task -> !inFlight.contains(task.getId())).count();
+            metrics.recordQueue(inFlight.size(), waiting);
+        }
+    }
+
+    private void start(List<CrawlTask> tasks) {
+        boolean sequential = settings.getMode() == CrawlerProperties.WorkerMode.SEQUENTIAL;
+        for (CrawlTask task : tasks) {
+            ClaimedTask claimed = ClaimedTask.from(task);
+            if (!inFlight.add(claimed.taskId())) {
+                continue;
+            }
+            if (!sequential && !fetchPermits.tryAcquire()) {
+                // Node is saturated; the remaining tasks are picked up on a later poll.
+                inFlight.remove(claimed.taskId());
+                return;
+            }
+            HostPolicy policy = politeness.policyFor(claimed.hostDelayMs(), claimed.maxConnectionsPerHost());
+            policy = robotsService.cachedCrawlDelay(claimed.url()).map(policy::withMinDelayAtLeast).orElse(policy);
+            if (!politeness.tryAcquire(claimed.host(), policy)) {
+                // The host is still cooling down; move on to tasks for other hosts.
+                release(claimed, !sequential);
+                continue;
+            }
+            if (!circuitBreaker.allowRequest(claimed.host())) {
+                // While a probe is out the task just waits here; while the circuit is open it is requeued.
+                politeness.release(claimed.host());
+                circuitBreaker.openUntil(claimed.host())
+                    .ifPresent(until -> processor.defer(claimed, LocalDateTime.ofInstant(until, ZoneId.systemDefault())));
+                release(claimed, !sequential);
+                continue;
+            }
+
+            switch (settings.getMode()) {
+                case SEQUENTIAL -> runBlocking(claimed);
+                case ASYNC -> startAsync(claimed);
+                case VIRTUAL_THREADS -> startOn(virtualExecutor, claimed);
+                case PLATFORM_POOL -> startOn(platformExecutor, claimed);
+            }
+        }
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private void runBlocking(ClaimedTask claimed) {
+        try {
+            PageProcessingResult page;
+            try {
+                page = processor.fetch(claimed);
+            } finally {
+                politeness.release(claimed.host());
+            }
+            processor.complete(claimed, page);
+            metrics.pageCompleted();
+        } catch (Exception ex) {
+            log.warn("Failed to complete task {}", claimed.taskId(), ex);
+        } finally {
+            inFlight.remove(claimed.taskId());
+        }
+    }
+
+    /**
+     * Runs the blocking fetch-and-complete cycle of a task on the given executor. The permit is
+     * what bounds concurrency, so the executor itself can be unbounded (virtual threads).
+     */
+    private void startOn(Executor executor, ClaimedTask claimed) {
+        try {
+            executor.execute(() -> {
+                try {
+                    runBlocking(claimed);
+                } finally {
+                    fetchPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            politeness.release(claimed.host());
+            release(claimed, true);
+        }
+    }
+
+    /**
+     * Fetches without holding a thread, then completes the task on a virtual thread: the
+     * completion is a blocking transaction and must not run on the HTTP client's threads.
+     */
+    private void startAsync(ClaimedTask claimed) {
+        processor.fetchAsync(claimed)
+            .whenCompleteAsync((page, error) -> {
+                politeness.release(claimed.host());
+                try {
+                    if (page != null) {
+                        processor.complete(claimed, page);
+                        metrics.pageCompleted();
+                    }
+                } catch (Exception ex) {
+                    log.warn("Failed to complete task {}", claimed.taskId(), ex);
+                } finally {
+                    release(claimed, true);
+                }
+            }, virtualExecutor)
+            .exceptionally(ex -> {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                if (cause instanceof RejectedExecutionException) {
+                    // The completion never ran, e.g. during shutdown; the lease returns the task.
+                    politeness.release(claimed.host());
+                    release(claimed, true);
+                }
+                return null;
+            });
+    }
+
+    private void release(ClaimedTask claimed, boolean holdsPermit) {
+        if (holdsPermit) {
+            fetchPermits.release();
+        }
+        inFlight.remove(claimed.taskId());
+    }
+}
@@ -0,0 +1,89 @@
+package com.webcrawler.backend.service;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import com.webcrawler.backend.repository.CrawlTaskRepository;
+import com.webcrawler.backend.repository.TaskCount;
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps assigned tasks from being lost with the node that holds them. A task is assigned under a
+ * lease that its node keeps renewing while it is alive; once a lease runs out, the leader puts the
+ * task back in the queue for another node, so a failed node delays its tasks by at most one lease
+ * length. A lost lease counts as an attempt, and a task that runs out of attempts this way, e.g.
+ * a page that takes its node down every time, is failed instead of being handed out again.
+ */
+@Service
+public class TaskLeaseManager {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskLeaseManager.class);
+
+    private final CrawlTaskRepository crawlTaskRepository;
+    private final NodeService nodeService;
+    private final LeaderElection leaderElection;
+    private final JobProgressTracker progressTracker;
+    private final CrawlerProperties.Lease settings;
+    private final CrawlerProperties.Retry retrySettings;
+
+    public TaskLeaseManager(
+        CrawlTaskRepository crawlTaskRepository,
+        NodeService nodeService,
+        LeaderElection leaderElection,
+        JobProgressTracker progressTracker,
+        CrawlerProperties crawlerProperties
+    ) {
+        this.crawlTaskRepository = crawlTaskRepository;
+        this.nodeService = nodeService;
+        this.leaderElection = leaderElection;
+        this.progressTracker = progressTracker;
+        this.settings = crawlerProperties.getLease();
+        this.retrySettings = crawlerProperties.getRetry();
+    }
+
+    @Scheduled(fixedRateString = "${crawler.lease.renew-interval:PT15S}")
+    @Transactional
+    public void renewLeases() {
+        LocalDateTime until = LocalDateTime.now().plus(settings.getDuration());
+        crawlTaskRepository.renewLeases(nodeService.getCurrentNodeId(), until);
+    }
+
+    @Scheduled(fixedRateString = "${crawler.lease.reap-interval:PT15S}")
+    @Transactional
+    public void reapExpiredLeases() {
+        if (leaderElection.holdsFence()) {
+            reapExpiredLeases(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Returns tasks whose lease expired before {@code now} to the queue, or fails them if that was
+     * their last attempt.
+     *
+     * @return the number of tasks taken back
+     */
+    @Transactional
+    public int reapExpiredLeases(LocalDateTime now) {
+        LocalDateTime assignedBefore = now.minus(settings.getDuration());
+        List<UUID> expired = crawlTaskRepository.lockExpiredLeases(now, assignedBefore, settings.getReapBatchSize());
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        // The rows stay locked until commit, so the counts match what the updates below change.
+        int maxAttempts = retrySettings.getMaxAttempts();
+        List<TaskCount> retryable = crawlTaskRepository.countRetryableByJob(expired, maxAttempts);
+        List<TaskCount> exhausted = crawlTaskRepository.countExhaustedByJob(expired, maxAttempts);
+        int requeued = crawlTaskRepository.requeueExpired(expired, maxAttempts);
+        int failed = crawlTaskRepository.failExpired(expired, maxAttempts, now);
+
+        retryable.forEach(count -> progressTracker.tasksRequeued(count.key(), (int) count.count()));
+        exhausted.forEach(count -> progressTracker.tasksAbandoned(count.key(), (int) count.count()));
+        log.warn("Leases of {} tasks expired: {} requeued, {} failed", expired.size(), requeued, failed);
+        return expired.size();
+    }
+}
@@ -0,0 +1,73 @@
+package com.webcrawler.backend.service;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Service;
+
+/**
+ * Load of this node as reported in its heartbeat, which is what the leader sizes assignments by.
+ * {@link TaskDispatcher} records the in-flight and waiting task counts on every poll and each
+ * finished page; the throughput is the rate of finished pages between two samples, smoothed so
+ * one quiet interval does not make the node look idle.
+ */
+@Service
+public class WorkerMetrics {
+
+    /** Weight of the newest interval in the smoothed throughput. */
+    private static final double SMOOTHING = 0.5;
+
+    private final CrawlerProperties.Worker settings;
+    private final LongAdder pagesCompleted = new LongAdder();
+    private volatile int inFlight;
+    private volatile int backlog;
+    private long lastSampleCount;
+    private long lastSampleNanos = System.nanoTime();
+    private double pagesPerSecond;
+
+    public WorkerMetrics(CrawlerProperties crawlerProperties) {
+        this.settings = crawlerProperties.getWorker();
+    }
+
+    public void pageCompleted() {
+        pagesCompleted.increment();
+    }
+
+    /**
+     * Records how many tasks are being fetched and how many are assigned to the node but still
+     * waiting, as of the latest poll.
+     */
+    public void recordQueue(int inFlight, int backlog) {
+        this.inFlight = inFlight;
+        this.backlog = backlog;
+    }
+
+    /**
+     * Number of tasks the node can work on at once. A sequential node runs its whole batch one
+     * after another within a poll, so it is sized by the claim batch instead.
+     */
+    public int capacity() {
+        return settings.getMode() == CrawlerProperties.WorkerMode.SEQUENTIAL
+            ? settings.getClaimBatchSize()
+            : settings.getMaxInFlight();
+    }
+
+    /** Takes a sample for the heartbeat; the throughput covers the time since the previous one. */
+    public synchronized Sample sample() {
+        long now = System.nanoTime();
+        long count = pagesCompleted.sum();
+        double seconds = (now - lastSampleNanos) / 1_000_000_000.0;
+        if (seconds > 0) {
+            double rate = (count - lastSampleCount) / seconds;
+            pagesPerSecond = SMOOTHING * rate + (1 - SMOOTHING) * pagesPerSecond;
+        }
+        lastSampleCount = count;
+        lastSampleNanos = now;
+
+        Runtime runtime = Runtime.getRuntime();
+        long freeHeap = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        return new Sample(capacity(), inFlight, backlog, pagesPerSecond, freeHeap);
+    }
+
+    public record Sample(int capacity, int inFlight, int backlog, double pagesPerSecond, long freeHeapBytes) {
+    }
+}
@@ -1,5 +1,7 @@
 package com.webcrawler.backend.web;
 
+import com.webcrawler.backend.crawler.ConnectionStatistics;
+import com.webcrawler.backend.crawler.ConnectionStatistics.HostConnectionStats;
 import com.webcrawler.backend.domain.CrawlerNode;
 import com.webcrawler.backend.repository.CrawlerNodeRepository;
 import java.util.List;
@@ -12,13 +14,23 @@ import org.springframework.web.bind.annotation.RestController;
 public class NodeController {
 
     private final CrawlerNodeRepository nodeRepository;
+    private final ConnectionStatistics connectionStatistics;
 
-    public NodeController(CrawlerNodeRepository nodeRepository) {
+    public NodeController(CrawlerNodeRepository nodeRepository, ConnectionStatistics connectionStatistics) {
         this.nodeRepository = nodeRepository;
+        this.connectionStatistics = connectionStatistics;
     }
 
     @GetMapping
     public List<CrawlerNode> getNodes() {
         return nodeRepository.findAll();
     }
+
+    /**
+     * Connection setup statistics of the fetcher on this node, busiest hosts first.
+     */
+    @GetMapping("/connections")
+    public List<HostConnectionStats> getConnectionStatistics() {
+        return connectionStatistics.snapshot();
+    }
 }
@@ -13,7 +13,14 @@ public class CrawlJobResponse {
     private final String seedUrl;
     private final int maxDepth;
     private final int maxPages;
+    private final Integer hostDelayMs;
+    private final Integer maxConnectionsPerHost;
+    private final boolean useSitemaps;
     private final CrawlStatus status;
+    private final int enqueuedCount;
+    private final int processedCount;
+    private final int failedCount;
+    private final int inFlightCount;
 
     @JsonFormat(shape = JsonFormat.Shape.STRING)
     private final LocalDateTime createdAt;
@@ -31,7 +38,14 @@ public class CrawlJobResponse {
         this.seedUrl = job.getSeedUrl();
         this.maxDepth = job.getMaxDepth();
         this.maxPages = job.getMaxPages();
+        this.hostDelayMs = job.getHostDelayMs();
+        this.maxConnectionsPerHost = job.getMaxConnectionsPerHost();
+        this.useSitemaps = job.isUseSitemaps();
         this.status = job.getStatus();
+        this.enqueuedCount = job.getEnqueuedCount();
+        this.processedCount = job.getProcessedCount();
+        this.failedCount = job.getFailedCount();
+        this.inFlightCount = job.getInFlightCount();
         this.createdAt = job.getCreatedAt();
         this.startedAt = job.getStartedAt();
         this.completedAt = job.getCompletedAt();
@@ -54,10 +68,38 @@ public class CrawlJobResponse {
         return maxPages;
     }
 
+    public Integer getHostDelayMs() {
+        return hostDelayMs;
+    }
+
+    public Integer getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    public boolean isUseSitemaps() {
+        return useSitemaps;
+    }
+
     public CrawlStatus getStatus() {
         return status;
     }
 
+    public int getEnqueuedCount() {
+        return enqueuedCount;
+    }
+
+    public int getProcessedCount() {
+        return processedCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public int getInFlightCount() {
+        return inFlightCount;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -17,6 +17,19 @@ public class CrawlRequest {
     @Max(500)
     private int maxPages = 50;
 
+    /** Minimum delay between requests to the same host; the node default applies when unset. */
+    @Min(0)
+    @Max(60000)
+    private Integer hostDelayMs;
+
+    /** Maximum concurrent requests per host; the node default applies when unset. */
+    @Min(1)
+    @Max(16)
+    private Integer maxConnectionsPerHost;
+
+    /** Whether URLs listed in the site's sitemaps are queued alongside the seed. */
+    private boolean useSitemaps;
+
     public String getUrl() {
         return url;
     }
@@ -40,4 +53,28 @@ public class CrawlRequest {
     public void setMaxPages(int maxPages) {
         this.maxPages = maxPages;
     }
+
+    public Integer getHostDelayMs() {
+        return hostDelayMs;
+    }
+
+    public void setHostDelayMs(Integer hostDelayMs) {
+        this.hostDelayMs = hostDelayMs;
+    }
+
+    public Integer getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    public void setMaxConnectionsPerHost(Integer maxConnectionsPerHost) {
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
+    public boolean isUseSitemaps() {
+        return useSitemaps;
+    }
+
+    public void setUseSitemaps(boolean useSitemaps) {
+        this.useSitemaps = useSitemaps;
+    }
 }
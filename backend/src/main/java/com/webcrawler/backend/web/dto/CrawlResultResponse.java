@@ -13,6 +13,12 @@ public class CrawlResultResponse {
     private final String title;
     private final int linkCount;
     private final String errorMessage;
+    private final Long compressedBytes;
+    private final Long uncompressedBytes;
+    private final boolean truncated;
+    private final UUID duplicateOf;
+    private final boolean nearDuplicate;
+    private final String skippedReason;
 
     @JsonFormat(shape = JsonFormat.Shape.STRING)
     private final LocalDateTime crawledAt;
@@ -24,6 +30,12 @@ public class CrawlResultResponse {
         this.title = result.getTitle();
         this.linkCount = result.getLinkCount();
         this.errorMessage = result.getErrorMessage();
+        this.compressedBytes = result.getCompressedBytes();
+        this.uncompressedBytes = result.getUncompressedBytes();
+        this.truncated = result.isTruncated();
+        this.duplicateOf = result.getDuplicateOf();
+        this.nearDuplicate = result.isNearDuplicate();
+        this.skippedReason = result.getSkippedReason();
         this.crawledAt = result.getCrawledAt();
     }
 
@@ -51,6 +63,30 @@ public class CrawlResultResponse {
         return errorMessage;
     }
 
+    public Long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    public Long getUncompressedBytes() {
+        return uncompressedBytes;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public UUID getDuplicateOf() {
+        return duplicateOf;
+    }
+
+    public boolean isNearDuplicate() {
+        return nearDuplicate;
+    }
+
+    public String getSkippedReason() {
+        return skippedReason;
+    }
+
     public LocalDateTime getCrawledAt() {
         return crawledAt;
     }
@@ -0,0 +1,171 @@
+package com.webcrawler.backend.crawler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+import org.junit.jupiter.api.Test;
+
+public class BoundedBodyHandlerTest {
+
+    private final BoundedBodyHandler handler = new BoundedBodyHandler(10, List.of("text/html", "application/xhtml+xml"));
+
+    @Test
+    public void testBodyWithinCeilingIsReadCompletely() {
+        // given
+        Subscription subscription = new Subscription();
+        HttpResponse.BodySubscriber<FetchedBody> subscriber = handler.apply(info(200, "Content-Type", "text/html; charset=ISO-8859-1"));
+
+        // when
+        FetchedBody body = read(subscriber, subscription, "<p>", "hi</p>");
+
+        // then
+        assertEquals("<p>hi</p>", new String(body.bytes(), StandardCharsets.ISO_8859_1));
+        assertEquals(StandardCharsets.ISO_8859_1, body.charset());
+        assertFalse(body.truncated());
+        assertFalse(body.isSkipped());
+        assertFalse(subscription.cancelled);
+    }
+
+    @Test
+    public void testBodyIsCutOffAtCeiling() {
+        // given a body without a declared length that turns out to be larger than 10 bytes
+        Subscription subscription = new Subscription();
+        HttpResponse.BodySubscriber<FetchedBody> subscriber = handler.apply(info(200, "Content-Type", "text/html"));
+
+        // when
+        FetchedBody body = read(subscriber, subscription, "0123456", "789abc", "def");
+
+        // then the first 10 bytes are kept and the rest of the body is abandoned
+        assertEquals("0123456789", new String(body.bytes(), StandardCharsets.US_ASCII));
+        assertTrue(body.truncated());
+        assertTrue(subscription.cancelled);
+        assertEquals(2, subscription.requested);
+    }
+
+    @Test
+    public void testOversizedDeclaredLengthIsSkippedUnread() {
+        Subscription subscription = new Subscription();
+        HttpResponse.BodySubscriber<FetchedBody> subscriber = handler.apply(info(200, "Content-Type", "text/html", "Content-Length", "11"));
+
+        FetchedBody body = read(subscriber, subscription, "0123456789a");
+
+        assertTrue(body.isSkipped());
+        assertEquals("Skipped body of 11 bytes", body.skippedReason());
+        assertEquals(0, body.bytes().length);
+        assertTrue(subscription.cancelled);
+        assertEquals(0, subscription.requested);
+    }
+
+    @Test
+    public void testContentTypeGating() {
+        // a type that is not markup is skipped, whatever its parameters
+        FetchedBody pdf = read(handler.apply(info(200, "Content-Type", "application/pdf")), new Subscription(), "%PDF");
+        assertEquals("Skipped content type application/pdf", pdf.skippedReason());
+
+        // accepted types match case-insensitively, and a missing type is given the benefit of the doubt
+        assertFalse(read(handler.apply(info(200, "Content-Type", "Application/XHTML+XML; charset=utf-8")), new Subscription(), "x").isSkipped());
+        assertFalse(read(handler.apply(info(200)), new Subscription(), "x").isSkipped());
+    }
+
+    @Test
+    public void testUnsupportedEncodingIsSkipped() {
+        FetchedBody body = read(handler.apply(info(200, "Content-Type", "text/html", "Content-Encoding", "br")), new Subscription(), "x");
+
+        assertEquals("Skipped content encoding br", body.skippedReason());
+    }
+
+    @Test
+    public void testSupportedEncodingIsKeptForDecoding() {
+        FetchedBody body = read(handler.apply(info(200, "Content-Type", "text/html", "Content-Encoding", " GZIP ")), new Subscription(), "x");
+
+        assertEquals("gzip", body.contentEncoding());
+        assertNull(read(handler.apply(info(200, "Content-Encoding", "identity")), new Subscription(), "x").contentEncoding());
+    }
+
+    @Test
+    public void testNotModifiedHasNoBody() {
+        Subscription subscription = new Subscription();
+
+        FetchedBody body = read(handler.apply(info(304)), subscription);
+
+        assertFalse(body.isSkipped());
+        assertEquals(0, body.bytes().length);
+        assertTrue(subscription.cancelled);
+    }
+
+    @Test
+    public void testTruncatingSubscriberKeepsPrefixWhateverTheHeaders() {
+        // given a body that is neither markup nor within the ceiling
+        Subscription subscription = new Subscription();
+
+        // when
+        FetchedBody body = read(BoundedBodyHandler.truncating(10), subscription, "User-agent: *\n", "Disallow: /");
+
+        // then its first 10 bytes are kept
+        assertEquals("User-agent", new String(body.bytes(), StandardCharsets.US_ASCII));
+        assertTrue(body.truncated());
+        assertTrue(subscription.cancelled);
+    }
+
+    private static FetchedBody read(HttpResponse.BodySubscriber<FetchedBody> subscriber, Subscription subscription, String... chunks) {
+        subscriber.onSubscribe(subscription);
+        for (String chunk : chunks) {
+            if (subscription.cancelled) {
+                break;
+            }
+            subscriber.onNext(List.of(ByteBuffer.wrap(chunk.getBytes(StandardCharsets.ISO_8859_1))));
+        }
+        if (!subscription.cancelled) {
+            subscriber.onComplete();
+        }
+        return subscriber.getBody().toCompletableFuture().join();
+    }
+
+    private static HttpResponse.ResponseInfo info(int status, String... headers) {
+        Map<String, List<String>> map = new LinkedHashMap<>();
+        for (int i = 0; i < headers.length; i += 2) {
+            map.put(headers[i], List.of(headers[i + 1]));
+        }
+        HttpHeaders httpHeaders = HttpHeaders.of(map, (name, value) -> true);
+        return new HttpResponse.ResponseInfo() {
+            @Override
+            public int statusCode() {
+                return status;
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return httpHeaders;
+            }
+
+            @Override
+            public HttpClient.Version version() {
+                return HttpClient.Version.HTTP_1_1;
+            }
+        };
+    }
+
+    private static final class Subscription implements Flow.Subscription {
+
+        private long requested;
+        private boolean cancelled;
+
+        @Override
+        public void request(long n) {
+            requested += n;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.webcrawler.backend.crawler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+public class ContentFingerprintTest {
+
+    @Test
+    public void testWhitespaceIsNormalized() {
+        Long plain = fingerprint("Fish and chips, served daily.");
+
+        assertEquals(plain, fingerprint("  Fish\tand\n\n chips,   served daily.\r\n"));
+        assertEquals(plain, fingerprint("Fish\u00A0and\u00A0chips, served\u00A0\u00A0daily."));
+    }
+
+    @Test
+    public void testDifferentTextHasDifferentFingerprint() {
+        Long plain = fingerprint("Fish and chips, served daily.");
+
+        assertNotEquals(plain, fingerprint("Fish and chips, served nightly."));
+        assertNotEquals(plain, fingerprint("Fishand chips, served daily."));
+        assertNotEquals(plain, fingerprint("fish and chips, served daily."));
+    }
+
+    @Test
+    public void testFingerprintDoesNotDependOnHowTextIsFed() {
+        // given text long enough to span several 16-byte blocks, with multi-byte characters
+        String text = "Crème brûlée — 日本語のテキスト — " + "lorem ipsum ".repeat(20);
+        ContentFingerprint byChar = new ContentFingerprint();
+        for (char ch : text.toCharArray()) {
+            byChar.append(ch);
+        }
+
+        // then
+        assertEquals(fingerprint(text), byChar.finish());
+    }
+
+    @Test
+    public void testPageWithoutTextHasNoFingerprint() {
+        assertNull(new ContentFingerprint().finish());
+        assertNull(fingerprint(" \n\t\u00A0 "));
+    }
+
+    @Test
+    public void testMarkupIsNormalizedAway() throws IOException {
+        // given the same text in different markup; tags separate words like whitespace does
+        Long first = pageHash("<html><body><p>Fish and <b>chips</b></p>\n<p>served daily.</p></body></html>");
+        Long second = pageHash("<div class=menu>Fish   and chips\n  served <!-- soon --> daily.</div>");
+
+        // then
+        assertNotNull(first);
+        assertEquals(first, second);
+        assertNotEquals(first, pageHash("<p>Fish and chips served nightly.</p>"));
+    }
+
+    private static Long fingerprint(String text) {
+        ContentFingerprint fingerprint = new ContentFingerprint();
+        fingerprint.append(text);
+        return fingerprint.finish();
+    }
+
+    private static Long pageHash(String html) throws IOException {
+        return StreamingLinkExtractor.extract(
+            new ByteArrayInputStream(html.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, "https://example.com/", false).contentHash();
+    }
+}
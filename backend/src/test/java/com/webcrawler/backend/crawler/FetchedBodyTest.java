@@ -0,0 +1,102 @@
+package com.webcrawler.backend.crawler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+
+public class FetchedBodyTest {
+
+    private static final String PAGE = "<html><body>" + "<p>Hello, crawler!</p>".repeat(200) + "</body></html>";
+
+    @Test
+    public void testIdentityBodyIsReadAsIs() throws IOException {
+        FetchedBody body = body(PAGE.getBytes(StandardCharsets.UTF_8), null, false);
+
+        assertEquals(PAGE, decode(body, 1_000_000));
+    }
+
+    @Test
+    public void testGzipBodyIsDecoded() throws IOException {
+        FetchedBody body = body(gzip(PAGE), "gzip", false);
+
+        try (FetchedBody.DecodedStream decoded = body.openDecoded(1_000_000)) {
+            assertEquals(PAGE, new String(decoded.readAllBytes(), StandardCharsets.UTF_8));
+            assertEquals(PAGE.length(), decoded.getCount());
+            assertFalse(decoded.isLimitReached());
+        }
+    }
+
+    @Test
+    public void testZlibAndRawDeflateAreBothDecoded() throws IOException {
+        assertEquals(PAGE, decode(body(deflate(PAGE, false), "deflate", false), 1_000_000));
+        assertEquals(PAGE, decode(body(deflate(PAGE, true), "deflate", false), 1_000_000));
+    }
+
+    @Test
+    public void testDecodedSizeIsCapped() throws IOException {
+        // given a few kilobytes of gzip that expand to a megabyte
+        FetchedBody body = body(gzip("a".repeat(1_000_000)), "gzip", false);
+        assertTrue(body.bytes().length < 10_000);
+
+        // when
+        try (FetchedBody.DecodedStream decoded = body.openDecoded(4096)) {
+            byte[] bytes = decoded.readAllBytes();
+
+            // then decoding stops at the limit
+            assertEquals(4096, bytes.length);
+            assertEquals(4096, decoded.getCount());
+            assertTrue(decoded.isLimitReached());
+        }
+    }
+
+    @Test
+    public void testTruncatedGzipYieldsWhatCouldBeRecovered() throws IOException {
+        byte[] compressed = gzip(PAGE);
+        byte[] cut = Arrays.copyOf(compressed, compressed.length / 2);
+
+        // a body cut off at the ceiling ends early instead of failing
+        String recovered = decode(body(cut, "gzip", true), 1_000_000);
+        assertFalse(recovered.isEmpty());
+        assertTrue(PAGE.startsWith(recovered));
+
+        // while a body that arrived whole but is broken is an error
+        assertThrows(EOFException.class, () -> decode(body(cut, "gzip", false), 1_000_000));
+    }
+
+    private static String decode(FetchedBody body, long limit) throws IOException {
+        try (FetchedBody.DecodedStream decoded = body.openDecoded(limit)) {
+            return new String(decoded.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static FetchedBody body(byte[] bytes, String contentEncoding, boolean truncated) {
+        return new FetchedBody(bytes, StandardCharsets.UTF_8, contentEncoding, truncated, null);
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(String text, boolean raw) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, raw);
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(out, deflater)) {
+            deflate.write(text.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+}
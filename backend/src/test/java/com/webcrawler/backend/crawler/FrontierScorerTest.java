@@ -0,0 +1,62 @@
+package com.webcrawler.backend.crawler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import com.webcrawler.backend.config.CrawlerProperties.FrontierOrdering;
+import org.junit.jupiter.api.Test;
+
+public class FrontierScorerTest {
+
+    @Test
+    public void testBreadthFirstPrefersShallowerPages() {
+        FrontierScorer scorer = scorer(FrontierOrdering.BREADTH_FIRST);
+
+        assertTrue(scorer.initial("https://example.com", 0) > scorer.initial("https://example.com/sitemap-entry", 1));
+        assertTrue(scorer.child("https://example.com/a", 2, 5.0, 10) > scorer.child("https://example.com/a/b", 3, 5.0, 10));
+        assertFalse(scorer.accumulatesCredit());
+    }
+
+    @Test
+    public void testOpicSplitsCreditAmongLinks() {
+        FrontierScorer scorer = scorer(FrontierOrdering.OPIC);
+
+        // given the seed's credit
+        double seed = scorer.initial("https://example.com", 0);
+
+        // then each of its 4 links gets a quarter, whatever its depth
+        assertEquals(1.0, seed);
+        assertEquals(0.25, scorer.child("https://example.com/a", 1, seed, 4));
+        assertEquals(0.25, scorer.credit(seed, 4));
+        assertEquals(0, scorer.credit(-1.0, 4));
+        assertTrue(scorer.accumulatesCredit());
+    }
+
+    @Test
+    public void testPatternBoostsAddUp() {
+        // given a boost for articles and a penalty for paginated listings
+        CrawlerProperties properties = new CrawlerProperties();
+        properties.getFrontier().getBoosts().add(boost("/articles/", 2.0));
+        properties.getFrontier().getBoosts().add(boost("[?&]page=\\d+", -1.5));
+        FrontierScorer scorer = new FrontierScorer(properties);
+
+        // then matching URLs move up or down relative to their depth
+        assertEquals(1.0, scorer.child("https://example.com/articles/1", 1, 0, 1));
+        assertEquals(-2.5, scorer.child("https://example.com/list?page=2", 1, 0, 1));
+        assertEquals(-0.5, scorer.child("https://example.com/articles/?page=3", 1, 0, 1));
+        assertEquals(-1.0, scorer.child("https://example.com/about", 1, 0, 1));
+    }
+
+    private static FrontierScorer scorer(FrontierOrdering ordering) {
+        CrawlerProperties properties = new CrawlerProperties();
+        properties.getFrontier().setOrdering(ordering);
+        return new FrontierScorer(properties);
+    }
+
+    private static CrawlerProperties.Boost boost(String pattern, double weight) {
+        CrawlerProperties.Boost boost = new CrawlerProperties.Boost();
+        boost.setPattern(pattern);
+        boost.setWeight(weight);
+        return boost;
+    }
+}
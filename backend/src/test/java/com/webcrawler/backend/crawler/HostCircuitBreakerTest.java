@@ -0,0 +1,127 @@
+package com.webcrawler.backend.crawler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class HostCircuitBreakerTest {
+
+    private static final String HOST = "example.com";
+
+    private HostCircuitBreaker breaker;
+    private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    @BeforeEach
+    public void setUp() {
+        CrawlerProperties properties = new CrawlerProperties();
+        properties.getCircuitBreaker().setFailureThreshold(3);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofMinutes(1));
+        properties.getCircuitBreaker().setMaxOpenDuration(Duration.ofMinutes(3));
+        breaker = new HostCircuitBreaker(properties);
+        breaker.setClock(Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @Test
+    public void testCircuitOpensAfterConsecutiveFailures() {
+        // given a closed circuit
+        assertTrue(breaker.allowRequest(HOST));
+
+        // when the host fails up to the threshold
+        assertTrue(breaker.recordFailure(HOST).isEmpty());
+        assertTrue(breaker.recordFailure(HOST).isEmpty());
+        Optional<Instant> openUntil = breaker.recordFailure(HOST);
+
+        // then the circuit opens for the open duration
+        assertEquals(Optional.of(now.plus(Duration.ofMinutes(1))), openUntil);
+        assertFalse(breaker.allowRequest(HOST));
+        assertEquals(openUntil, breaker.openUntil(HOST));
+    }
+
+    @Test
+    public void testSuccessResetsFailureCount() {
+        breaker.recordFailure(HOST);
+        breaker.recordFailure(HOST);
+        breaker.recordSuccess(HOST);
+
+        assertTrue(breaker.recordFailure(HOST).isEmpty());
+        assertTrue(breaker.allowRequest(HOST));
+    }
+
+    @Test
+    public void testHalfOpenLetsOneProbeThroughAndSuccessCloses() {
+        // given an open circuit whose open period has ended
+        open();
+        advance(Duration.ofMinutes(1));
+
+        // then exactly one request goes out as the probe
+        assertTrue(breaker.allowRequest(HOST));
+        assertFalse(breaker.allowRequest(HOST));
+        assertTrue(breaker.openUntil(HOST).isEmpty());
+
+        // and its success closes the circuit
+        breaker.recordSuccess(HOST);
+        assertTrue(breaker.allowRequest(HOST));
+        assertTrue(breaker.allowRequest(HOST));
+    }
+
+    @Test
+    public void testFailedProbeReopensForTwiceAsLongUpToMaximum() {
+        open();
+
+        // first failed probe: 2 minutes
+        advance(Duration.ofMinutes(1));
+        assertTrue(breaker.allowRequest(HOST));
+        assertEquals(Optional.of(now.plus(Duration.ofMinutes(2))), breaker.recordFailure(HOST));
+        assertFalse(breaker.allowRequest(HOST));
+
+        // second failed probe: capped at 3 minutes
+        advance(Duration.ofMinutes(2));
+        assertTrue(breaker.allowRequest(HOST));
+        assertEquals(Optional.of(now.plus(Duration.ofMinutes(3))), breaker.recordFailure(HOST));
+    }
+
+    @Test
+    public void testReleasedProbeLetsNextRequestProbe() {
+        // given a probe that never reached the host, e.g. disallowed by robots.txt
+        open();
+        advance(Duration.ofMinutes(1));
+        assertTrue(breaker.allowRequest(HOST));
+
+        // when
+        breaker.releaseProbe(HOST);
+
+        // then the next request becomes the probe without waiting for the probe timeout
+        assertTrue(breaker.allowRequest(HOST));
+        assertFalse(breaker.allowRequest(HOST));
+    }
+
+    @Test
+    public void testAbandonedProbeTimesOut() {
+        open();
+        advance(Duration.ofMinutes(1));
+        assertTrue(breaker.allowRequest(HOST));
+
+        advance(Duration.ofMinutes(2));
+
+        assertTrue(breaker.allowRequest(HOST));
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure(HOST);
+        }
+        assertFalse(breaker.allowRequest(HOST));
+    }
+
+    private void advance(Duration duration) {
+        now = now.plus(duration);
+        breaker.setClock(Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,83 @@
+package com.webcrawler.backend.crawler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class HostLatencyTrackerTest {
+
+    private HostLatencyTracker tracker;
+
+    @BeforeEach
+    public void setUp() {
+        CrawlerProperties properties = new CrawlerProperties();
+        properties.getFetch().setRequestTimeout(Duration.ofSeconds(15));
+        properties.getFetch().setMinRequestTimeout(Duration.ofSeconds(1));
+        properties.getFetch().setMaxRequestTimeout(Duration.ofSeconds(30));
+        properties.getFetch().setLatencyMinSamples(10);
+        tracker = new HostLatencyTracker(properties);
+    }
+
+    @Test
+    public void testUnknownHostUsesDefaultTimeout() {
+        assertEquals(Duration.ofSeconds(15), tracker.timeoutFor("example.com"));
+    }
+
+    @Test
+    public void testFastHostGetsShortTimeout() {
+        // given
+        for (int i = 0; i < 50; i++) {
+            tracker.recordSuccess("fast.example", Duration.ofMillis(100));
+        }
+
+        // when
+        Duration timeout = tracker.timeoutFor("fast.example");
+
+        // then: three times the ~100 ms p99, raised to the 1 s floor
+        assertEquals(Duration.ofSeconds(1), timeout);
+    }
+
+    @Test
+    public void testSlowHostIsCappedAtMaximum() {
+        for (int i = 0; i < 50; i++) {
+            tracker.recordSuccess("slow.example", Duration.ofSeconds(20));
+        }
+
+        assertEquals(Duration.ofSeconds(30), tracker.timeoutFor("slow.example"));
+    }
+
+    @Test
+    public void testConsecutiveTimeoutsGrowTimeoutUpToMaximum() {
+        // given a host whose history says 1 s is plenty
+        for (int i = 0; i < 50; i++) {
+            tracker.recordSuccess("slowing.example", Duration.ofMillis(100));
+        }
+        assertEquals(Duration.ofSeconds(1), tracker.timeoutFor("slowing.example"));
+
+        // when it starts timing out, each timeout doubles its timeout
+        tracker.recordTimeout("slowing.example");
+        assertEquals(Duration.ofSeconds(2), tracker.timeoutFor("slowing.example"));
+        tracker.recordTimeout("slowing.example");
+        assertEquals(Duration.ofSeconds(4), tracker.timeoutFor("slowing.example"));
+
+        // up to the maximum
+        for (int i = 0; i < 20; i++) {
+            tracker.recordTimeout("slowing.example");
+        }
+        assertEquals(Duration.ofSeconds(30), tracker.timeoutFor("slowing.example"));
+
+        // and the next response brings it back to what the histogram says
+        tracker.recordSuccess("slowing.example", Duration.ofMillis(100));
+        assertEquals(Duration.ofSeconds(1), tracker.timeoutFor("slowing.example"));
+    }
+
+    @Test
+    public void testTimeoutOfUnknownHostNeverShrinks() {
+        tracker.recordTimeout("tarpit.example");
+
+        assertEquals(Duration.ofSeconds(30), tracker.timeoutFor("tarpit.example"));
+    }
+}
@@ -0,0 +1,132 @@
+package com.webcrawler.backend.crawler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import com.webcrawler.backend.crawler.HostPolitenessScheduler.HostPolicy;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class HostPolitenessSchedulerTest {
+
+    private final CrawlerProperties properties = new CrawlerProperties();
+    private long now = 1_000_000_000L;
+    private HostPolitenessScheduler scheduler;
+
+    @BeforeEach
+    public void setUp() {
+        properties.getPoliteness().setMinDelay(Duration.ofSeconds(1));
+        properties.getPoliteness().setMaxConnectionsPerHost(2);
+        properties.getPoliteness().setBurst(1);
+        scheduler = newScheduler();
+    }
+
+    @Test
+    public void testTokenRefillsAfterMinDelay() {
+        // given a host that just got its only token
+        HostPolicy policy = scheduler.policyFor(null, null);
+        assertTrue(scheduler.tryAcquire("example.com", policy));
+        scheduler.release("example.com");
+
+        // then it has to wait the full minimum delay for the next one
+        advance(Duration.ofMillis(999));
+        assertFalse(scheduler.tryAcquire("example.com", policy));
+        advance(Duration.ofMillis(1));
+        assertTrue(scheduler.tryAcquire("example.com", policy));
+    }
+
+    @Test
+    public void testHostsHaveSeparateBuckets() {
+        HostPolicy policy = scheduler.policyFor(null, null);
+
+        assertTrue(scheduler.tryAcquire("a.example", policy));
+        assertTrue(scheduler.tryAcquire("b.example", policy));
+        assertFalse(scheduler.tryAcquire("a.example", policy));
+    }
+
+    @Test
+    public void testBurstAllowsBackToBackRequestsUpToCapacity() {
+        // given a bucket of 3 tokens and room for 5 connections
+        properties.getPoliteness().setBurst(3);
+        scheduler = newScheduler();
+        HostPolicy policy = scheduler.policyFor(null, 5);
+
+        // then three requests go out at once, the fourth waits for a refill
+        assertTrue(scheduler.tryAcquire("example.com", policy));
+        assertTrue(scheduler.tryAcquire("example.com", policy));
+        assertTrue(scheduler.tryAcquire("example.com", policy));
+        assertFalse(scheduler.tryAcquire("example.com", policy));
+
+        // and a long idle period refills no more than the burst
+        advance(Duration.ofMinutes(1));
+        for (int i = 0; i < 3; i++) {
+            scheduler.release("example.com");
+        }
+        assertTrue(scheduler.tryAcquire("example.com", policy));
+        assertTrue(scheduler.tryAcquire("example.com", policy));
+        assertTrue(scheduler.tryAcquire("example.com", policy));
+        assertFalse(scheduler.tryAcquire("example.com", policy));
+    }
+
+    @Test
+    public void testJobDelayOverridesNodeDefault() {
+        // given a job asking for 5 s between requests
+        HostPolicy policy = scheduler.policyFor(5000, null);
+        assertEquals(Duration.ofSeconds(5), policy.minDelay());
+        assertEquals(2, policy.maxConnections());
+        assertTrue(scheduler.tryAcquire("example.com", policy));
+        scheduler.release("example.com");
+
+        // then the node's 1 s default is not enough
+        advance(Duration.ofSeconds(1));
+        assertFalse(scheduler.tryAcquire("example.com", policy));
+        advance(Duration.ofSeconds(4));
+        assertTrue(scheduler.tryAcquire("example.com", policy));
+    }
+
+    @Test
+    public void testCrawlDelayOnlyRaisesMinDelay() {
+        HostPolicy policy = scheduler.policyFor(2000, null);
+
+        assertEquals(Duration.ofSeconds(3), policy.withMinDelayAtLeast(Duration.ofSeconds(3)).minDelay());
+        assertSame(policy, policy.withMinDelayAtLeast(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    public void testMaxConnectionsCapsConcurrentRequests() {
+        // given a host without delay that allows one connection
+        HostPolicy policy = scheduler.policyFor(0, 1);
+
+        // then a second request waits until the first is released
+        assertTrue(scheduler.tryAcquire("example.com", policy));
+        assertFalse(scheduler.tryAcquire("example.com", policy));
+        scheduler.release("example.com");
+        assertTrue(scheduler.tryAcquire("example.com", policy));
+    }
+
+    @Test
+    public void testIdleHostsAreEvicted() {
+        // given a host that used its token and has been idle past the eviction period
+        HostPolicy policy = scheduler.policyFor(3_600_000, null);
+        assertTrue(scheduler.tryAcquire("example.com", policy));
+        scheduler.release("example.com");
+        advance(properties.getPoliteness().getIdleEviction().plusSeconds(1));
+
+        // when
+        scheduler.evictIdleHosts();
+
+        // then it starts over with a full bucket
+        assertTrue(scheduler.tryAcquire("example.com", policy));
+    }
+
+    private HostPolitenessScheduler newScheduler() {
+        HostPolitenessScheduler created = new HostPolitenessScheduler(properties);
+        created.setClock(() -> now);
+        return created;
+    }
+
+    private void advance(Duration duration) {
+        now += duration.toNanos();
+    }
+}
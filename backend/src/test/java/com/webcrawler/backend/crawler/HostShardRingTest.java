@@ -0,0 +1,92 @@
+package com.webcrawler.backend.crawler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+public class HostShardRingTest {
+
+    @Test
+    public void testEveryBucketHasExactlyOneOwner() {
+        // given
+        List<UUID> nodes = nodes(3);
+        HostShardRing ring = HostShardRing.of(nodes, 128);
+
+        // then the nodes' buckets partition the bucket space
+        int owned = 0;
+        for (UUID node : nodes) {
+            List<Integer> buckets = ring.bucketsOf(node);
+            buckets.forEach(bucket -> assertEquals(node, ring.ownerOf(bucket)));
+            owned += buckets.size();
+        }
+        assertEquals(HostShardRing.BUCKETS, owned);
+    }
+
+    @Test
+    public void testVirtualNodesSpreadBucketsEvenly() {
+        // given
+        List<UUID> nodes = nodes(4);
+
+        // when
+        Map<UUID, Long> counts = HostShardRing.of(nodes, 128).bucketCounts();
+
+        // then every node is within a third of its fair share of 256
+        assertEquals(4, counts.size());
+        counts.values().forEach(count -> assertTrue(count > 170 && count < 342, "bucket count " + count));
+    }
+
+    @Test
+    public void testOnlyBucketsOfJoiningNodeMove() {
+        // given
+        List<UUID> nodes = nodes(4);
+        HostShardRing before = HostShardRing.of(nodes, 128);
+        UUID joining = UUID.nameUUIDFromBytes("node-joining".getBytes());
+        List<UUID> grown = new ArrayList<>(nodes);
+        grown.add(joining);
+
+        // when
+        HostShardRing after = HostShardRing.of(grown, 128);
+
+        // then every bucket either stays where it was or moves to the new node
+        int moved = 0;
+        for (int bucket = 0; bucket < HostShardRing.BUCKETS; bucket++) {
+            if (!before.ownerOf(bucket).equals(after.ownerOf(bucket))) {
+                assertEquals(joining, after.ownerOf(bucket));
+                moved++;
+            }
+        }
+        assertTrue(moved > 0 && moved < HostShardRing.BUCKETS / 2, "moved " + moved);
+    }
+
+    @Test
+    public void testSameMembersGiveSameRing() {
+        List<UUID> nodes = nodes(3);
+        HostShardRing ring = HostShardRing.of(nodes, 64);
+        HostShardRing reordered = HostShardRing.of(List.of(nodes.get(2), nodes.get(0), nodes.get(1)), 64);
+
+        for (int bucket = 0; bucket < HostShardRing.BUCKETS; bucket++) {
+            assertEquals(ring.ownerOf(bucket), reordered.ownerOf(bucket));
+        }
+    }
+
+    @Test
+    public void testBucketOfHostIsStableAndInRange() {
+        int bucket = HostShardRing.bucketOf("example.com");
+
+        assertEquals(bucket, HostShardRing.bucketOf("example.com"));
+        assertTrue(bucket >= 0 && bucket < HostShardRing.BUCKETS);
+        assertTrue(HostShardRing.of(List.of(), 64).isEmpty());
+    }
+
+    private static List<UUID> nodes(int count) {
+        List<UUID> nodes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            nodes.add(UUID.nameUUIDFromBytes(("node-" + i).getBytes()));
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,62 @@
+package com.webcrawler.backend.crawler;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import com.webcrawler.backend.repository.CrawlResultRepository;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class NearDuplicateIndexTest {
+
+    private static final UUID JOB = UUID.randomUUID();
+    private static final long PAGE = 0x0123_4567_89AB_CDEFL;
+
+    private final NearDuplicateIndex index = new NearDuplicateIndex(mock(CrawlResultRepository.class), new CrawlerProperties());
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testPagesWithinDistanceAreNearDuplicates() {
+        assertFalse(index.checkAndAdd(JOB, PAGE));
+
+        assertTrue(index.checkAndAdd(JOB, PAGE ^ 0b101));
+        assertFalse(index.checkAndAdd(JOB, ~PAGE));
+        assertFalse(index.checkAndAdd(UUID.randomUUID(), PAGE));
+    }
+
+    @Test
+    public void testFingerprintIsAddedOnlyOnCommit() {
+        // given a page checked inside a transaction that rolls back
+        TransactionSynchronizationManager.initSynchronization();
+        assertFalse(index.checkAndAdd(JOB, PAGE));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // then it is not remembered
+        TransactionSynchronizationManager.initSynchronization();
+        assertFalse(index.checkAndAdd(JOB, PAGE));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        // while the committed one is
+        assertTrue(index.checkAndAdd(JOB, PAGE));
+    }
+
+    private static void complete(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
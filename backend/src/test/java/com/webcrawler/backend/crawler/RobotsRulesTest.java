@@ -0,0 +1,92 @@
+package com.webcrawler.backend.crawler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+public class RobotsRulesTest {
+
+    private static final String AGENT = "WebCrawlerBot/1.0";
+
+    @Test
+    public void testLongestMatchWins() {
+        RobotsRules rules = RobotsRules.parse("""
+            User-agent: *
+            Disallow: /private
+            Allow: /private/public
+            """, AGENT);
+
+        assertFalse(rules.isAllowed("/private/secret.html"));
+        assertTrue(rules.isAllowed("/private/public/page.html"));
+        assertTrue(rules.isAllowed("/index.html"));
+    }
+
+    @Test
+    public void testAllowWinsOnEqualLength() {
+        RobotsRules rules = RobotsRules.parse("""
+            User-agent: *
+            Disallow: /page
+            Allow: /page
+            """, AGENT);
+
+        assertTrue(rules.isAllowed("/page"));
+    }
+
+    @Test
+    public void testWildcardAndEndAnchor() {
+        RobotsRules rules = RobotsRules.parse("""
+            User-agent: *
+            Disallow: /*.pdf$
+            Disallow: /search*q=
+            """, AGENT);
+
+        assertFalse(rules.isAllowed("/files/report.pdf"));
+        assertTrue(rules.isAllowed("/files/report.pdf?download=1"));
+        assertFalse(rules.isAllowed("/search?page=2&q=test"));
+        assertTrue(rules.isAllowed("/search?page=2"));
+    }
+
+    @Test
+    public void testSpecificGroupOverridesWildcard() {
+        RobotsRules rules = RobotsRules.parse("""
+            User-agent: *
+            Disallow: /
+
+            User-agent: webcrawlerbot
+            Disallow: /admin
+            Crawl-delay: 2.5
+            """, AGENT);
+
+        assertTrue(rules.isAllowed("/articles"));
+        assertFalse(rules.isAllowed("/admin/login"));
+        assertEquals(Duration.ofMillis(2500), rules.getCrawlDelay().orElseThrow());
+    }
+
+    @Test
+    public void testEmptyDisallowAllowsEverything() {
+        RobotsRules rules = RobotsRules.parse("""
+            User-agent: *
+            Disallow:
+            """, AGENT);
+
+        assertTrue(rules.isAllowed("/anything"));
+        assertTrue(rules.getCrawlDelay().isEmpty());
+    }
+
+    @Test
+    public void testSitemapsApplyOutsideGroups() {
+        // given
+        RobotsRules rules = RobotsRules.parse("""
+            Sitemap: https://example.com/sitemap_index.xml
+            User-agent: OtherBot
+            Disallow: /
+            Sitemap: https://example.com/news.xml.gz
+            """, AGENT);
+
+        // then
+        assertTrue(rules.isAllowed("/page"));
+        assertEquals(2, rules.getSitemaps().size());
+        assertEquals("https://example.com/news.xml.gz", rules.getSitemaps().get(1));
+    }
+}
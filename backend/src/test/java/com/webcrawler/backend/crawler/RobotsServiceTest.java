@@ -0,0 +1,86 @@
+package com.webcrawler.backend.crawler;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import com.webcrawler.backend.crawler.RobotsService.Access;
+import java.net.ConnectException;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RobotsServiceTest {
+
+    private static final String ROBOTS_URL = "https://example.com/robots.txt";
+
+    private final CrawlerProperties properties = new CrawlerProperties();
+    private final PageFetcher pageFetcher = mock(PageFetcher.class);
+    private RobotsService robotsService;
+
+    @BeforeEach
+    public void setUp() {
+        robotsService = new RobotsService(properties, pageFetcher);
+    }
+
+    @Test
+    public void testRulesAreFetchedOncePerOrigin() {
+        // given
+        respond(200, "User-agent: *\nDisallow: /private\n");
+
+        // then
+        assertEquals(Access.DISALLOWED, robotsService.access("https://example.com/private/a"));
+        assertEquals(Access.ALLOWED, robotsService.access("https://example.com/public"));
+        verify(pageFetcher, times(1)).fetchTextAsync(eq(ROBOTS_URL), any(), eq(500L * 1024));
+    }
+
+    @Test
+    public void testMissingRobotsAllowsEverything() {
+        respond(404, "");
+
+        assertEquals(Access.ALLOWED, robotsService.access("https://example.com/private/a"));
+    }
+
+    @Test
+    public void testNetworkErrorMakesOriginUnavailableNotDisallowed() {
+        // given an unreachable host
+        when(pageFetcher.fetchTextAsync(eq(ROBOTS_URL), any(), anyLong()))
+            .thenReturn(CompletableFuture.failedFuture(new ConnectException("Connection refused")));
+
+        // then its pages are unavailable, to be retried after the error TTL
+        assertEquals(Access.UNAVAILABLE, robotsService.access("https://example.com/page"));
+        assertEquals(properties.getRobots().getErrorTtl(), robotsService.unavailableRetryDelay());
+    }
+
+    @Test
+    public void testServerErrorIsForgottenAfterErrorTtl() {
+        // given a robots.txt that fails once and is remembered for no time at all
+        properties.getRobots().setErrorTtl(Duration.ZERO);
+        robotsService = new RobotsService(properties, pageFetcher);
+        respond(503, "");
+        assertEquals(Access.UNAVAILABLE, robotsService.access("https://example.com/page"));
+
+        // when the site recovers
+        respond(200, "User-agent: *\nDisallow: /private\n");
+
+        // then the rules are fetched again instead of blocking the host
+        assertEquals(Access.ALLOWED, robotsService.access("https://example.com/page"));
+        assertEquals(Access.DISALLOWED, robotsService.access("https://example.com/private"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void respond(int status, String body) {
+        HttpResponse<String> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(status);
+        when(response.body()).thenReturn(body);
+        when(pageFetcher.fetchTextAsync(eq(ROBOTS_URL), any(), anyLong())).thenReturn(CompletableFuture.completedFuture(response));
+    }
+}
@@ -0,0 +1,57 @@
+package com.webcrawler.backend.crawler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class SeenUrlFilterTest {
+
+    @Test
+    public void testRecordedUrlsAreSeenAndOthersAreNot() {
+        // given
+        SeenUrlFilter.JobFilter filter = new SeenUrlFilter.JobFilter(10_000, 0.01, 10_000);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(UrlFingerprint.of("https://example.com/page/" + i));
+        }
+
+        // then: recorded URLs are all found; with the exact set intact there are no false positives
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.contains(UrlFingerprint.of("https://example.com/page/" + i)));
+        }
+        for (int i = 10_000; i < 20_000; i++) {
+            assertFalse(filter.contains(UrlFingerprint.of("https://example.com/page/" + i)));
+        }
+    }
+
+    @Test
+    public void testBloomFilterAnswersOnceExactSetIsFull() {
+        // given: room for only 100 exact fingerprints
+        SeenUrlFilter.JobFilter filter = new SeenUrlFilter.JobFilter(10_000, 0.01, 100);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(UrlFingerprint.of("https://example.com/page/" + i));
+        }
+
+        // then: everything recorded is still seen, and false positives stay near the configured rate
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.contains(UrlFingerprint.of("https://example.com/page/" + i)));
+            if (filter.contains(UrlFingerprint.of("https://example.com/other/" + i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @Test
+    public void testLongSetStopsAtCapacity() {
+        SeenUrlFilter.LongSet set = new SeenUrlFilter.LongSet(50);
+        for (long i = 0; i < 100; i++) {
+            set.add(i);
+        }
+
+        assertEquals(50, set.size());
+        assertTrue(set.isFull());
+        assertTrue(set.contains(0));
+        assertFalse(set.contains(99));
+    }
+}
@@ -0,0 +1,76 @@
+package com.webcrawler.backend.crawler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class SimHashTest {
+
+    private static final String ARTICLE = """
+        The city council approved the new budget on Tuesday after a long debate about public
+        transport, school funding and the renovation of the central library. Council members
+        said the plan would add three new bus lines and extend library opening hours, while
+        critics argued that road maintenance had been neglected for another year. The mayor
+        thanked residents for their feedback during the consultation period and promised a
+        review of the road programme before the summer.
+        """;
+
+    @Test
+    public void testSmallEditsStayClose() {
+        // given
+        long original = simHash(ARTICLE + " Updated 10:15. Advertisement: buy shoes.");
+        long variant = simHash(ARTICLE + " Updated 11:42. Advertisement: cheap flights.");
+
+        // then
+        assertTrue(SimHash.distance(original, variant) <= 8, "distance " + SimHash.distance(original, variant));
+    }
+
+    @Test
+    public void testUnrelatedTextsAreFarApart() {
+        long article = simHash(ARTICLE);
+        long other = simHash("""
+            Preheat the oven to two hundred degrees. Mix flour, sugar and butter until crumbly,
+            then add the eggs one at a time and fold in the chopped apples with a little cinnamon.
+            """);
+
+        assertTrue(SimHash.distance(article, other) > 10, "distance " + SimHash.distance(article, other));
+    }
+
+    @Test
+    public void testNoWordsGivesNoFingerprint() {
+        SimHash simHash = new SimHash();
+        simHash.append("  ... !! ");
+
+        assertNull(simHash.finish());
+    }
+
+    @Test
+    public void testBandedIndexFindsFingerprintsWithinDistance() {
+        // given
+        NearDuplicateIndex.BandedIndex index = new NearDuplicateIndex.BandedIndex(100);
+        long stored = 0x0123456789ABCDEFL;
+        index.add(stored);
+
+        // then: three flipped bits spread over three bands are still found, four are not
+        long threeBits = stored ^ (1L | (1L << 20) | (1L << 40));
+        long fourBits = threeBits ^ (1L << 60);
+        assertTrue(index.containsWithin(threeBits, 3));
+        assertFalse(index.containsWithin(fourBits, 3));
+    }
+
+    @Test
+    public void testBandedIndexStopsAtCapacity() {
+        NearDuplicateIndex.BandedIndex index = new NearDuplicateIndex.BandedIndex(20);
+        for (long i = 0; i < 50; i++) {
+            index.add(i * 0x9E3779B97F4A7C15L);
+        }
+
+        assertEquals(20, index.size());
+    }
+
+    private static long simHash(String text) {
+        SimHash simHash = new SimHash();
+        simHash.append(text);
+        return simHash.finish();
+    }
+}
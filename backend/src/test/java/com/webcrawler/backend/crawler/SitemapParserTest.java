@@ -0,0 +1,134 @@
+package com.webcrawler.backend.crawler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+
+public class SitemapParserTest {
+
+    private static final String URLSET = """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <urlset xmlns="http://www.sitemaps.org/schemas/sitemap/0.9">
+          <url><loc>https://example.com/</loc><lastmod>2024-01-01</lastmod></url>
+          <url><loc>
+            https://example.com/a?x=1&amp;y=2
+          </loc></url>
+          <url><loc></loc></url>
+          <url><loc>https://example.com/b</loc></url>
+        </urlset>
+        """;
+
+    @Test
+    public void testUrlsetListsPages() throws IOException {
+        Recorder recorder = new Recorder(Integer.MAX_VALUE);
+
+        SitemapParser.parse(stream(URLSET.getBytes(StandardCharsets.UTF_8)), recorder);
+
+        // entities are decoded, whitespace is trimmed and empty locations are skipped
+        assertEquals(List.of("https://example.com/", "https://example.com/a?x=1&y=2", "https://example.com/b"), recorder.pages);
+        assertTrue(recorder.sitemaps.isEmpty());
+    }
+
+    @Test
+    public void testSitemapIndexListsChildSitemaps() throws IOException {
+        String index = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <sitemapindex xmlns="http://www.sitemaps.org/schemas/sitemap/0.9">
+              <sitemap><loc>https://example.com/sitemap-1.xml</loc></sitemap>
+              <sitemap><loc>https://example.com/sitemap-2.xml.gz</loc></sitemap>
+            </sitemapindex>
+            """;
+        Recorder recorder = new Recorder(Integer.MAX_VALUE);
+
+        SitemapParser.parse(stream(index.getBytes(StandardCharsets.UTF_8)), recorder);
+
+        assertEquals(List.of("https://example.com/sitemap-1.xml", "https://example.com/sitemap-2.xml.gz"), recorder.sitemaps);
+        assertTrue(recorder.pages.isEmpty());
+    }
+
+    @Test
+    public void testGzippedSitemapIsRecognisedByMagicBytes() throws IOException {
+        Recorder recorder = new Recorder(Integer.MAX_VALUE);
+
+        SitemapParser.parse(stream(gzip(URLSET)), recorder);
+
+        assertEquals(3, recorder.pages.size());
+    }
+
+    @Test
+    public void testHandlerCanStopParsing() throws IOException {
+        Recorder recorder = new Recorder(2);
+
+        SitemapParser.parse(stream(URLSET.getBytes(StandardCharsets.UTF_8)), recorder);
+
+        assertEquals(List.of("https://example.com/", "https://example.com/a?x=1&y=2"), recorder.pages);
+    }
+
+    @Test
+    public void testMalformedXmlFailsAfterTheEntriesReadSoFar() {
+        String truncated = "<urlset><url><loc>https://example.com/</loc></url><url><loc>https://exa";
+        Recorder recorder = new Recorder(Integer.MAX_VALUE);
+
+        IOException ex = assertThrows(IOException.class,
+            () -> SitemapParser.parse(stream(truncated.getBytes(StandardCharsets.UTF_8)), recorder));
+
+        assertTrue(ex.getMessage().startsWith("Malformed sitemap"));
+        assertEquals(List.of("https://example.com/"), recorder.pages);
+    }
+
+    @Test
+    public void testExternalEntitiesAreNotResolved() {
+        String xxe = """
+            <?xml version="1.0"?>
+            <!DOCTYPE urlset [<!ENTITY secret SYSTEM "file:///etc/passwd">]>
+            <urlset><url><loc>&secret;</loc></url></urlset>
+            """;
+        Recorder recorder = new Recorder(Integer.MAX_VALUE);
+
+        assertThrows(IOException.class, () -> SitemapParser.parse(stream(xxe.getBytes(StandardCharsets.UTF_8)), recorder));
+        assertTrue(recorder.pages.isEmpty());
+    }
+
+    private static InputStream stream(byte[] bytes) {
+        return new ByteArrayInputStream(bytes);
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+
+    private static final class Recorder implements SitemapParser.Handler {
+
+        private final int limit;
+        private final List<String> pages = new ArrayList<>();
+        private final List<String> sitemaps = new ArrayList<>();
+
+        Recorder(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean page(String loc) {
+            pages.add(loc);
+            return pages.size() < limit;
+        }
+
+        @Override
+        public boolean sitemap(String loc) {
+            sitemaps.add(loc);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.webcrawler.backend.crawler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Test;
+
+public class StreamingLinkExtractorTest {
+
+    private static final String URL = "https://example.com/docs/page.html?x=1";
+
+    private static final String HTML = """
+        <!DOCTYPE html>
+        <html><head>
+        <title>  Fish &amp; Chips
+           menu </title>
+        <!-- <a href="/commented-out">no</a> -->
+        <script>var s = "<a href='/in-script'>no</a>";</script>
+        <style>a[href] { color: red }</style>
+        </head><body>
+        <a href="relative.html">one</a>
+        <A HREF='/absolute?a=1&amp;b=2'>two</A>
+        <a class=x href=unquoted.html>three</a>
+        <a href="?page=2">query</a>
+        <a href="#top">fragment</a>
+        <a href="https://other.example/">external</a>
+        <a name="anchor-without-href">skip</a>
+        <a href="">self</a>
+        </body></html>
+        """;
+
+    @Test
+    public void testMatchesJsoupTitleAndLinks() throws IOException {
+        // given
+        Document document = Jsoup.parse(HTML, URL);
+        List<String> expectedLinks = document.select("a[href]").stream().map(element -> element.attr("abs:href")).toList();
+
+        // when
+        StreamingLinkExtractor.Extracted extracted = extract(HTML, true);
+
+        // then
+        assertEquals(document.title(), extracted.title());
+        assertEquals(expectedLinks.size(), extracted.linkCount());
+        assertEquals(expectedLinks, extracted.links());
+    }
+
+    @Test
+    public void testBaseHrefChangesResolution() throws IOException {
+        StreamingLinkExtractor.Extracted extracted = extract(
+            "<head><base href=\"https://cdn.example/root/\"></head><a href=\"file.html\">f</a>", true);
+
+        assertEquals(List.of("https://cdn.example/root/file.html"), extracted.links());
+    }
+
+    @Test
+    public void testLeafPagesOnlyCountLinks() throws IOException {
+        StreamingLinkExtractor.Extracted extracted = extract(HTML, false);
+
+        assertEquals(7, extracted.linkCount());
+        assertTrue(extracted.links().isEmpty());
+        assertEquals("Fish & Chips menu", extracted.title());
+    }
+
+    private static StreamingLinkExtractor.Extracted extract(String html, boolean collectLinks) throws IOException {
+        return StreamingLinkExtractor.extract(
+            new ByteArrayInputStream(html.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, URL, collectLinks);
+    }
+}
@@ -0,0 +1,88 @@
+package com.webcrawler.backend.crawler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class UrlCanonicalizerTest {
+
+    private UrlCanonicalizer canonicalizer;
+
+    @BeforeEach
+    public void setUp() {
+        canonicalizer = new UrlCanonicalizer(new CrawlerProperties());
+    }
+
+    @Test
+    public void testSchemeHostPortAndFragment() {
+        assertEquals("http://example.com", canonicalizer.canonicalize("HTTP://Example.COM:80/"));
+        assertEquals("https://example.com/a", canonicalizer.canonicalize("https://user:pw@EXAMPLE.com.:443/a#top"));
+        assertEquals("https://example.com:8443", canonicalizer.canonicalize("  https://example.com:08443/  "));
+        assertEquals("http://[::1]:8080", canonicalizer.canonicalize("http://[::1]:8080"));
+        assertEquals("http://xn--bcher-kva.example", canonicalizer.canonicalize("http://bücher.example/"));
+    }
+
+    @Test
+    public void testPathNormalization() {
+        assertEquals("http://example.com/a/c/", canonicalizer.canonicalize("http://example.com/a/./b/../c/"));
+        assertEquals("http://example.com?q=1", canonicalizer.canonicalize("http://example.com/../../?q=1"));
+        assertEquals("http://example.com/a/", canonicalizer.canonicalize("http://example.com/a/b/%2E%2E"));
+        assertEquals("http://example.com/a/b", canonicalizer.canonicalize("http://example.com\\a\\b"));
+    }
+
+    @Test
+    public void testPercentEncoding() {
+        assertEquals("http://example.com/~user/a%2Fb", canonicalizer.canonicalize("http://example.com/%7euser/a%2fb"));
+        assertEquals("http://example.com/a%20b%25zz", canonicalizer.canonicalize("http://example.com/a b%zz"));
+        assertEquals("http://example.com/caf%C3%A9/%F0%9F%98%80", canonicalizer.canonicalize("http://example.com/café/😀"));
+    }
+
+    @Test
+    public void testSupplementaryCharactersAreEncodedWhole() {
+        // code points whose low 16 bits fall in the surrogate range are not unpaired surrogates
+        assertEquals("http://example.com/%F0%9D%A0%80", canonicalizer.canonicalize("http://example.com/\uD836\uDC00"));
+        assertEquals("http://example.com/%F0%AD%A0%80%F0%AD%BF%BF",
+            canonicalizer.canonicalize("http://example.com/\uD876\uDC00\uD877\uDFFF"));
+        assertEquals("http://example.com/%F0%A0%80%80", canonicalizer.canonicalize("http://example.com/\uD840\uDC00"));
+
+        // while a lone surrogate becomes the replacement character
+        assertEquals("http://example.com/a%EF%BF%BDb", canonicalizer.canonicalize("http://example.com/a\uD800b"));
+        assertEquals("http://example.com/a%EF%BF%BD", canonicalizer.canonicalize("http://example.com/a\uDC00"));
+    }
+
+    @Test
+    public void testQuerySortedAndTrackingParametersRemoved() {
+        assertEquals("http://example.com/p?a=1&b=2&b=1",
+            canonicalizer.canonicalize("http://example.com/p?b=2&utm_source=news&a=1&&b=1&FBCLID=x"));
+        assertEquals("http://example.com/p", canonicalizer.canonicalize("http://example.com/p?utm_medium=mail&gclid=1"));
+        assertEquals("http://example.com/cart/view?id=7",
+            canonicalizer.canonicalize("http://example.com/cart;jsessionid=ABC123/view?id=7"));
+    }
+
+    @Test
+    public void testRulesCanBeTurnedOff() {
+        // given
+        CrawlerProperties properties = new CrawlerProperties();
+        properties.getCanonicalization().setStripFragment(false);
+        properties.getCanonicalization().setSortQuery(false);
+        properties.getCanonicalization().setRemoveDefaultPort(false);
+        UrlCanonicalizer lenient = new UrlCanonicalizer(properties);
+
+        // then
+        assertEquals("http://example.com:80/p?b=2&a=1#top", lenient.canonicalize("http://example.com:80/p?b=2&a=1#top"));
+    }
+
+    @Test
+    public void testUnusableUrlsAreRejected() {
+        assertNull(canonicalizer.canonicalize("mailto:someone@example.com"));
+        assertNull(canonicalizer.canonicalize("javascript:void(0)"));
+        assertNull(canonicalizer.canonicalize("http://"));
+        assertNull(canonicalizer.canonicalize("http://exa mple.com/"));
+        assertNull(canonicalizer.canonicalize("http://example.com:99999/"));
+        assertNull(canonicalizer.canonicalize("http://example.com:80a/"));
+        assertNull(canonicalizer.canonicalize(""));
+        assertNull(canonicalizer.canonicalize(null));
+    }
+}
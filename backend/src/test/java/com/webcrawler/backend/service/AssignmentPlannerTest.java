@@ -0,0 +1,70 @@
+package com.webcrawler.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import com.webcrawler.backend.domain.CrawlerNode;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+public class AssignmentPlannerTest {
+
+    private final CrawlerProperties.Assignment settings = new CrawlerProperties().getAssignment();
+
+    @Test
+    public void testSplitIsProportionalToSpareCapacity() {
+        // when 10 tasks are split over nodes with 30, 10 and 0 spare slots
+        int[] shares = AssignmentPlanner.split(10, new int[] {30, 10, 0});
+
+        // then the busy node gets nothing and the rest is split 3:1
+        assertArrayEquals(new int[] {8, 2, 0}, shares);
+    }
+
+    @Test
+    public void testSplitNeverExceedsSpareCapacity() {
+        assertArrayEquals(new int[] {3, 1}, AssignmentPlanner.split(50, new int[] {3, 1}));
+        assertArrayEquals(new int[] {1, 1, 1}, AssignmentPlanner.split(3, new int[] {5, 5, 5}));
+        assertArrayEquals(new int[] {0, 0}, AssignmentPlanner.split(5, new int[] {0, 0}));
+    }
+
+    @Test
+    public void testSpareCapacityCountsHeldTasks() {
+        CrawlerNode node = node(100, 0, 0);
+
+        assertEquals(60, AssignmentPlanner.spareCapacity(node, 40, 256, settings));
+        assertEquals(0, AssignmentPlanner.spareCapacity(node, 120, 256, settings));
+    }
+
+    @Test
+    public void testNodeThatIsBehindIsLimitedByItsThroughput() {
+        // given a node with 10 tasks waiting that finishes 2 pages/s, against a 10 s horizon
+        CrawlerNode node = node(100, 10, 2.0);
+
+        // then it may hold 20 tasks in total
+        assertEquals(5, AssignmentPlanner.spareCapacity(node, 15, 256, settings));
+    }
+
+    @Test
+    public void testNodeLowOnHeapGetsNothing() {
+        CrawlerNode node = node(100, 0, 0);
+        node.setFreeHeapBytes(1024);
+
+        assertEquals(0, AssignmentPlanner.spareCapacity(node, 0, 256, settings));
+    }
+
+    @Test
+    public void testNodeWithoutTelemetryUsesAssumedCapacity() {
+        CrawlerNode node = new CrawlerNode(UUID.randomUUID(), "node", "localhost");
+
+        assertEquals(246, AssignmentPlanner.spareCapacity(node, 10, 256, settings));
+    }
+
+    private static CrawlerNode node(int capacity, int backlog, double pagesPerSecond) {
+        CrawlerNode node = new CrawlerNode(UUID.randomUUID(), "node", "localhost");
+        node.setCapacity(capacity);
+        node.setBacklog(backlog);
+        node.setPagesPerSecond(pagesPerSecond);
+        node.setFreeHeapBytes(Long.MAX_VALUE);
+        return node;
+    }
+}
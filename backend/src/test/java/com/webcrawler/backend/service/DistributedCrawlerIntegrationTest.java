@@ -2,15 +2,21 @@ package com.webcrawler.backend.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.webcrawler.backend.crawler.HostShardRing;
+import com.webcrawler.backend.crawler.UrlFingerprint;
 import com.webcrawler.backend.domain.AppUser;
 import com.webcrawler.backend.domain.CrawlJob;
 import com.webcrawler.backend.domain.CrawlStatus;
+import com.webcrawler.backend.domain.CrawlTask;
 import com.webcrawler.backend.domain.CrawlerNode;
 import com.webcrawler.backend.domain.NodeStatus;
+import com.webcrawler.backend.domain.TaskStatus;
 import com.webcrawler.backend.repository.AppUserRepository;
 import com.webcrawler.backend.repository.CrawlJobRepository;
 import com.webcrawler.backend.repository.CrawlResultRepository;
+import com.webcrawler.backend.repository.CrawlTaskRepository;
 import com.webcrawler.backend.repository.CrawlerNodeRepository;
+import com.webcrawler.backend.repository.JobCounters;
 import com.webcrawler.backend.web.dto.CrawlRequest;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -19,6 +25,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.transaction.annotation.Transactional;
@@ -47,6 +54,24 @@ public class DistributedCrawlerIntegrationTest {
     @Autowired
     private CrawlResultRepository crawlResultRepository;
 
+    @Autowired
+    private CrawlTaskRepository crawlTaskRepository;
+
+    @Autowired
+    private PageBudget pageBudget;
+
+    @Autowired
+    private JobProgressTracker progressTracker;
+
+    @Autowired
+    private TaskClaimer taskClaimer;
+
+    @Autowired
+    private TaskLeaseManager taskLeaseManager;
+
+    @Autowired
+    private SitemapBatchWriter sitemapBatchWriter;
+
     private AppUser testUser;
 
     @BeforeEach
@@ -234,4 +259,262 @@ public class DistributedCrawlerIntegrationTest {
         assertEquals(5, allNodes.size(), "All 5 nodes should be discoverable");
         assertTrue(allNodes.stream().allMatch(n -> n.getStatus() == NodeStatus.ACTIVE));
     }
+
+    @Test
+    public void testDuplicateTaskInsertsAreIgnored() {
+        // Given a job with its seed task
+        CrawlRequest request = new CrawlRequest();
+        request.setUrl("https://example.com");
+        CrawlJob job = crawlerService.startCrawl(request, testUser);
+
+        // When the seed and two new links are inserted, one of them twice
+        int inserted = crawlTaskRepository.insertIgnoringDuplicates(List.of(
+            new CrawlTask(job, "https://example.com", 1),
+            new CrawlTask(job, "https://example.com/a", 1),
+            new CrawlTask(job, "https://example.com/b", 1),
+            new CrawlTask(job, "https://example.com/a", 1)
+        ));
+
+        // Then only the two new URLs are added
+        assertEquals(2, inserted);
+        assertEquals(3, crawlTaskRepository.countTotalByJobId(job.getId()));
+        assertEquals(3, crawlTaskRepository.findUrlHashesByJobId(job.getId()).size());
+    }
+
+    @Test
+    public void testPageBudgetIsReservedAtomically() {
+        // Given a job of three pages whose seed already holds one slot
+        CrawlRequest request = new CrawlRequest();
+        request.setUrl("https://example.com");
+        request.setMaxPages(3);
+        CrawlJob job = crawlerService.startCrawl(request, testUser);
+
+        // When more slots are asked for than are left
+        int granted = pageBudget.reserve(job.getId(), 10);
+
+        // Then only the remaining two are granted, and nothing after that until slots are released
+        assertEquals(2, granted);
+        assertEquals(0, pageBudget.reserve(job.getId(), 1));
+        pageBudget.release(job.getId(), 1);
+        assertEquals(1, pageBudget.remaining(job.getId()));
+        assertEquals(1, pageBudget.reserve(job.getId(), 5));
+    }
+
+    @Test
+    public void testJobCompletesWhenLastTaskFinishes() {
+        // Given a running job with its seed and one child task queued and handed out
+        CrawlRequest request = new CrawlRequest();
+        request.setUrl("https://example.com");
+        request.setMaxPages(10);
+        CrawlJob job = crawlerService.startCrawl(request, testUser);
+        job.setStatus(CrawlStatus.RUNNING);
+        crawlJobRepository.saveAndFlush(job);
+        assertEquals(1, pageBudget.reserve(job.getId(), 1));
+        progressTracker.tasksAssigned(job.getId(), 2);
+
+        // When the first task finishes, the job is still waiting on the second
+        progressTracker.taskFinished(job, false, "https://example.com");
+        assertEquals(CrawlStatus.RUNNING, job.getStatus());
+
+        // Then finishing the last one completes it, with every task accounted for
+        progressTracker.taskFinished(job, true, "https://example.com/a");
+        assertEquals(CrawlStatus.COMPLETED, job.getStatus());
+        JobCounters counters = crawlJobRepository.findCounters(job.getId()).orElseThrow();
+        assertEquals(2, counters.enqueued());
+        assertEquals(1, counters.processed());
+        assertEquals(1, counters.failed());
+        assertEquals(0, counters.inFlight());
+    }
+
+    @Test
+    public void testSitemapIngestionHoldsJobOpenUntilReleasedOnce() {
+        // Given a running sitemap job whose seed task has finished
+        CrawlJob job = startSitemapJob();
+        progressTracker.tasksAssigned(job.getId(), 1);
+        progressTracker.taskFinished(job, false, "https://example.com");
+        assertEquals(CrawlStatus.RUNNING, job.getStatus());
+
+        // When the ingestion finishes, the job completes
+        progressTracker.sitemapIngestionFinished(job);
+        assertEquals(CrawlStatus.COMPLETED, job.getStatus());
+
+        // Then a second release, e.g. by the leader, changes nothing
+        progressTracker.sitemapIngestionFinished(job);
+        assertEquals(0, progressTracker.expireSitemapIngestions(LocalDateTime.now().plusDays(1)));
+        assertEquals(0, crawlJobRepository.findCounters(job.getId()).orElseThrow().inFlight());
+    }
+
+    @Test
+    public void testSitemapBatchIsQueuedWithinBudget() {
+        // Given a sitemap job with room for three more tasks besides its seed
+        CrawlRequest request = new CrawlRequest();
+        request.setUrl("https://example.com");
+        request.setMaxPages(4);
+        CrawlJob job = crawlerService.startCrawl(request, testUser);
+
+        // When a batch lists the seed again and more pages than fit
+        List<String> urls = List.of(
+            "https://example.com", "https://example.com/a", "https://example.com/b", "https://example.com/c", "https://example.com/d");
+        SitemapBatchWriter.Written written = sitemapBatchWriter.write(job, urls);
+
+        // Then only new pages are queued, up to the budget, and every slot is accounted for
+        assertEquals(3, written.added());
+        assertEquals(0, written.remaining());
+        assertEquals(4, crawlTaskRepository.findExistingUrlHashes(job.getId(), urls.stream().map(UrlFingerprint::of).toList()).size());
+        assertEquals(4, crawlJobRepository.findCounters(job.getId()).orElseThrow().enqueued());
+    }
+
+    @Test
+    public void testLeaderReleasesSitemapIngestionOfDeadNode() {
+        // Given a running sitemap job whose ingestion never reports back
+        CrawlJob job = startSitemapJob();
+        progressTracker.tasksAssigned(job.getId(), 1);
+        progressTracker.taskFinished(job, false, "https://example.com");
+        LocalDateTime deadline = crawlJobRepository.findById(job.getId()).orElseThrow().getSitemapDeadline();
+        assertNotNull(deadline);
+
+        // When the leader looks before the deadline, nothing happens
+        assertEquals(0, progressTracker.expireSitemapIngestions(deadline.minusSeconds(1)));
+
+        // Then once it has passed, the unit is released and the job completes
+        assertEquals(1, progressTracker.expireSitemapIngestions(deadline.plusSeconds(1)));
+        CrawlJob reloaded = crawlJobRepository.findById(job.getId()).orElseThrow();
+        assertEquals(CrawlStatus.COMPLETED, reloaded.getStatus());
+        assertNull(reloaded.getSitemapDeadline());
+        assertEquals(0, crawlJobRepository.findCounters(job.getId()).orElseThrow().inFlight());
+    }
+
+    @Test
+    public void testNodeClaimsPendingTasksOnce() {
+        // Given a new job whose seed task is pending
+        CrawlRequest request = new CrawlRequest();
+        request.setUrl("https://example.com");
+        CrawlJob job = crawlerService.startCrawl(request, testUser);
+        UUID nodeId = UUID.randomUUID();
+
+        // When a node claims tasks
+        List<CrawlTask> claimed = taskClaimer.claim(nodeId, 10);
+
+        // Then it gets the seed with its job, the job is started, and nothing is left to claim
+        assertEquals(1, claimed.size());
+        CrawlTask task = claimed.get(0);
+        assertEquals(TaskStatus.ASSIGNED, task.getStatus());
+        assertEquals(nodeId, task.getAssignedNodeId());
+        assertEquals(job.getId(), task.getJob().getId());
+        assertEquals(CrawlStatus.RUNNING, task.getJob().getStatus());
+        assertEquals(1, crawlJobRepository.findCounters(job.getId()).orElseThrow().inFlight());
+        assertTrue(taskClaimer.claim(UUID.randomUUID(), 10).isEmpty());
+    }
+
+    @Test
+    public void testConditionalClaimSkipsTasksAlreadyTaken() {
+        // Given a pending seed task that one node has already claimed
+        CrawlRequest request = new CrawlRequest();
+        request.setUrl("https://example.com");
+        crawlerService.startCrawl(request, testUser);
+        List<UUID> candidates = crawlTaskRepository.findClaimableIds(LocalDateTime.now(), PageRequest.of(0, 10));
+        UUID winner = UUID.randomUUID();
+        assertEquals(1, crawlTaskRepository.claim(candidates, winner, LocalDateTime.now(), LocalDateTime.now().plusMinutes(1)));
+
+        // When another node tries to claim the same candidates
+        UUID loser = UUID.randomUUID();
+        int taken = crawlTaskRepository.claim(candidates, loser, LocalDateTime.now(), LocalDateTime.now().plusMinutes(1));
+
+        // Then it gets nothing and the task stays with the first node
+        assertEquals(0, taken);
+        assertTrue(crawlTaskRepository.findClaimed(candidates, loser).isEmpty());
+        assertEquals(1, crawlTaskRepository.findClaimed(candidates, winner).size());
+    }
+
+    @Test
+    public void testOnlyTasksInOwnedBucketsAreClaimable() {
+        // Given a pending seed task for example.com
+        CrawlRequest request = new CrawlRequest();
+        request.setUrl("https://example.com");
+        crawlerService.startCrawl(request, testUser);
+        int bucket = HostShardRing.bucketOf("example.com");
+        int otherBucket = (bucket + 1) % HostShardRing.BUCKETS;
+        LocalDateTime now = LocalDateTime.now();
+
+        // Then only a node owning the host's bucket sees it
+        assertEquals(1, crawlTaskRepository.lockClaimableInBuckets(now, List.of(bucket), 10).size());
+        assertEquals(1, crawlTaskRepository.findClaimableIdsInBuckets(now, List.of(bucket), PageRequest.of(0, 10)).size());
+        assertTrue(crawlTaskRepository.lockClaimableInBuckets(now, List.of(otherBucket), 10).isEmpty());
+        assertTrue(crawlTaskRepository.findClaimableIdsInBuckets(now, List.of(otherBucket), PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    public void testHighestPriorityTaskIsClaimedFirst() {
+        // Given a seed at priority 0 and two links, one ranked above and one below it
+        CrawlRequest request = new CrawlRequest();
+        request.setUrl("https://example.com");
+        CrawlJob job = crawlerService.startCrawl(request, testUser);
+        crawlTaskRepository.insertIgnoringDuplicates(List.of(
+            new CrawlTask(job, "https://example.com/low", 1, -3.0),
+            new CrawlTask(job, "https://example.com/high", 1, 2.0)
+        ));
+
+        // When the low one gains link credit from other pages
+        crawlTaskRepository.addCredit(job.getId(), List.of(UrlFingerprint.of("https://example.com/low")), 4.0);
+
+        // Then tasks are claimed in priority order
+        assertEquals("https://example.com/high", taskClaimer.claim(UUID.randomUUID(), 1).get(0).getUrl());
+        assertEquals("https://example.com/low", taskClaimer.claim(UUID.randomUUID(), 1).get(0).getUrl());
+        assertEquals("https://example.com", taskClaimer.claim(UUID.randomUUID(), 1).get(0).getUrl());
+    }
+
+    @Test
+    public void testExpiredLeaseReturnsTaskToQueue() {
+        // Given a seed task claimed by a node that then stops renewing its lease
+        CrawlRequest request = new CrawlRequest();
+        request.setUrl("https://example.com");
+        CrawlJob job = crawlerService.startCrawl(request, testUser);
+        UUID deadNode = UUID.randomUUID();
+        CrawlTask task = taskClaimer.claim(deadNode, 10).get(0);
+        assertNotNull(task.getLeaseExpiresAt());
+
+        // When the reaper runs after the lease has run out
+        int reaped = taskLeaseManager.reapExpiredLeases(task.getLeaseExpiresAt().plusSeconds(1));
+
+        // Then the task is pending again with the lost lease counted, and can be claimed by another node
+        assertEquals(1, reaped);
+        assertEquals(0, crawlJobRepository.findCounters(job.getId()).orElseThrow().inFlight());
+        List<CrawlTask> reclaimed = taskClaimer.claim(UUID.randomUUID(), 10);
+        assertEquals(1, reclaimed.size());
+        assertEquals(1, reclaimed.get(0).getAttempts());
+        assertEquals("Lease expired", reclaimed.get(0).getLastError());
+    }
+
+    @Test
+    public void testLeaseThatExpiresOnLastAttemptFailsTask() {
+        // Given a claimed seed task that has already used all but one attempt
+        CrawlRequest request = new CrawlRequest();
+        request.setUrl("https://example.com");
+        CrawlJob job = crawlerService.startCrawl(request, testUser);
+        CrawlTask task = taskClaimer.claim(UUID.randomUUID(), 10).get(0);
+        task.setAttempts(2);
+        crawlTaskRepository.saveAndFlush(task);
+
+        // When its lease expires
+        taskLeaseManager.reapExpiredLeases(task.getLeaseExpiresAt().plusSeconds(1));
+
+        // Then it is failed rather than requeued, which completes the job
+        assertEquals(TaskStatus.FAILED, crawlTaskRepository.findById(task.getId()).orElseThrow().getStatus());
+        JobCounters counters = crawlJobRepository.findCounters(job.getId()).orElseThrow();
+        assertEquals(1, counters.failed());
+        assertEquals(0, counters.inFlight());
+        assertEquals(CrawlStatus.COMPLETED, crawlJobRepository.findById(job.getId()).orElseThrow().getStatus());
+    }
+
+    private CrawlJob startSitemapJob() {
+        CrawlRequest request = new CrawlRequest();
+        request.setUrl("https://example.com");
+        request.setMaxPages(10);
+        request.setUseSitemaps(true);
+        CrawlJob job = crawlerService.startCrawl(request, testUser);
+        job.setStatus(CrawlStatus.RUNNING);
+        crawlJobRepository.saveAndFlush(job);
+        assertEquals(1, crawlJobRepository.findCounters(job.getId()).orElseThrow().inFlight());
+        return job;
+    }
 }
@@ -3,8 +3,10 @@ package com.webcrawler.backend.service;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.webcrawler.backend.domain.CrawlerNode;
+import com.webcrawler.backend.domain.LeaderLease;
 import com.webcrawler.backend.domain.NodeStatus;
 import com.webcrawler.backend.repository.CrawlerNodeRepository;
+import com.webcrawler.backend.repository.LeaderLeaseRepository;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -28,9 +30,13 @@ public class NodeServiceTest {
     @Autowired
     private CrawlerNodeRepository crawlerNodeRepository;
 
+    @Autowired
+    private LeaderLeaseRepository leaderLeaseRepository;
+
     @BeforeEach
     public void setUp() {
         crawlerNodeRepository.deleteAll();
+        leaderLeaseRepository.deleteAllInBatch();
     }
 
     @Test
@@ -141,4 +147,45 @@ public class NodeServiceTest {
             .filter(n -> n.getNodeId().equals("deactivate-2"))
             .count());
     }
+
+    @Test
+    public void testOnlyOneNodeHoldsTheLeaderLease() {
+        // Given two nodes competing for the lease
+        LeaderElection first = new LeaderElection(leaderLeaseRepository);
+        LeaderElection second = new LeaderElection(leaderLeaseRepository);
+        UUID firstNode = UUID.randomUUID();
+        UUID secondNode = UUID.randomUUID();
+
+        // When both try to become leader
+        first.renewOrAcquire(firstNode);
+        second.renewOrAcquire(secondNode);
+
+        // Then only the first succeeds, and renewing keeps it leader
+        assertTrue(first.isLeader());
+        assertFalse(second.isLeader());
+        first.renewOrAcquire(firstNode);
+        assertTrue(first.holdsFence());
+        assertFalse(second.holdsFence());
+    }
+
+    @Test
+    public void testStaleLeaderIsFencedOff() {
+        // Given a leader whose lease ran out, e.g. during a long pause
+        LeaderElection stale = new LeaderElection(leaderLeaseRepository);
+        stale.renewOrAcquire(UUID.randomUUID());
+        LeaderLease lease = leaderLeaseRepository.findById(LeaderElection.LEADER_LEASE).orElseThrow();
+        long staleToken = lease.getFencingToken();
+        lease.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        leaderLeaseRepository.saveAndFlush(lease);
+
+        // When another node takes over
+        LeaderElection successor = new LeaderElection(leaderLeaseRepository);
+        successor.renewOrAcquire(UUID.randomUUID());
+
+        // Then the new term has a higher token and the old leader may no longer write
+        assertTrue(successor.holdsFence());
+        assertTrue(leaderLeaseRepository.findFencingToken(LeaderElection.LEADER_LEASE).orElseThrow() > staleToken);
+        assertFalse(stale.holdsFence());
+        assertFalse(stale.isLeader());
+    }
 }
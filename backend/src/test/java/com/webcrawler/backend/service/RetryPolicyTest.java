@@ -0,0 +1,87 @@
+package com.webcrawler.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.webcrawler.backend.config.CrawlerProperties;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+public class RetryPolicyTest {
+
+    private final RetryPolicy policy = policy(Duration.ofSeconds(5), Duration.ofMinutes(10));
+
+    @Test
+    public void testTransientFailures() {
+        assertTrue(RetryPolicy.isTransient(503));
+        assertTrue(RetryPolicy.isTransient(500));
+        assertTrue(RetryPolicy.isTransient(429));
+        assertFalse(RetryPolicy.isTransient(404));
+        assertFalse(RetryPolicy.isTransient(200));
+        assertTrue(RetryPolicy.isTransient(new HttpTimeoutException("timed out")));
+        assertTrue(RetryPolicy.isTransient(new ConnectException("refused")));
+        assertFalse(RetryPolicy.isTransient(new IOException("reset")));
+    }
+
+    @Test
+    public void testAttemptsAreLimited() {
+        assertTrue(policy.canRetry(1));
+        assertTrue(policy.canRetry(2));
+        assertFalse(policy.canRetry(3));
+    }
+
+    @Test
+    public void testBackoffDoublesWithJitter() {
+        // the second attempt waits about 5 s, the third about 10 s, the fourth about 20 s
+        assertBetween(4000, 6000, policy.backoff(2, null));
+        assertBetween(8000, 12000, policy.backoff(3, null));
+        assertBetween(16000, 24000, policy.backoff(4, null));
+    }
+
+    @Test
+    public void testBackoffIsCappedAtMaximum() {
+        assertEquals(Duration.ofMinutes(10), policy.backoff(30, null));
+        assertEquals(Duration.ofMinutes(10), policy.backoff(2, Duration.ofHours(1)));
+    }
+
+    @Test
+    public void testLongerRetryAfterIsHonoured() {
+        assertEquals(Duration.ofSeconds(90), policy.backoff(2, Duration.ofSeconds(90)));
+        assertBetween(4000, 6000, policy.backoff(2, Duration.ofSeconds(1)));
+    }
+
+    @Test
+    public void testParseRetryAfterSeconds() {
+        assertEquals(Optional.of(Duration.ofSeconds(120)), RetryPolicy.parseRetryAfter(" 120 "));
+        assertEquals(Optional.of(Duration.ZERO), RetryPolicy.parseRetryAfter("-5"));
+        assertTrue(RetryPolicy.parseRetryAfter(null).isEmpty());
+        assertTrue(RetryPolicy.parseRetryAfter("soon").isEmpty());
+    }
+
+    @Test
+    public void testParseRetryAfterDate() {
+        ZonedDateTime inTwoMinutes = ZonedDateTime.now(ZoneOffset.UTC).plusMinutes(2);
+        Duration delay = RetryPolicy.parseRetryAfter(DateTimeFormatter.RFC_1123_DATE_TIME.format(inTwoMinutes)).orElseThrow();
+        assertBetween(115_000, 120_000, delay);
+
+        String past = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).minusHours(1));
+        assertEquals(Optional.of(Duration.ZERO), RetryPolicy.parseRetryAfter(past));
+    }
+
+    private static void assertBetween(long minMillis, long maxMillis, Duration actual) {
+        assertTrue(actual.toMillis() >= minMillis && actual.toMillis() <= maxMillis, "delay " + actual);
+    }
+
+    private static RetryPolicy policy(Duration initialBackoff, Duration maxBackoff) {
+        CrawlerProperties properties = new CrawlerProperties();
+        properties.getRetry().setInitialBackoff(initialBackoff);
+        properties.getRetry().setMaxBackoff(maxBackoff);
+        return new RetryPolicy(properties);
+    }
+}